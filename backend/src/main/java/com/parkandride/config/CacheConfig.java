@@ -0,0 +1,39 @@
+package com.parkandride.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bounded Caffeine caches, each with its own spec. Caches are registered up front
+ * so the actuator binds their hit, miss and eviction metrics at startup; any
+ * cache not listed here falls back to the default spec.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String RIDE_PRICING = "ridePricing";
+    public static final String PARKING_QUOTES = "parkingQuotes";
+
+    @Value("${app.cache.default-spec:maximumSize=1000,expireAfterWrite=10m,recordStats}")
+    private String defaultSpec;
+
+    @Value("${app.cache.ride-pricing-spec:maximumSize=20000,expireAfterAccess=10m,recordStats}")
+    private String ridePricingSpec;
+
+    @Value("${app.cache.parking-quotes-spec:maximumSize=50000,expireAfterWrite=10m,recordStats}")
+    private String parkingQuotesSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(defaultSpec);
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(RIDE_PRICING, Caffeine.from(ridePricingSpec).build());
+        cacheManager.registerCustomCache(PARKING_QUOTES, Caffeine.from(parkingQuotesSpec).build());
+        return cacheManager;
+    }
+}
\ No newline at end of file
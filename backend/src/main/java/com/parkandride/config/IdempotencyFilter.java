@@ -0,0 +1,330 @@
+package com.parkandride.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Replays the stored response when a client retries a booking request with the
+ * same Idempotency-Key. Keys are scoped to the user and path. A retry that arrives
+ * while the first attempt is still running waits for its result instead of
+ * booking again. Responses are kept packed and deflated for a limited time, up to
+ * a fixed number of keys.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final int COMPRESS_THRESHOLD = 256;
+
+    @Value("${app.idempotency.paths:/api/parking/bookings,/api/parking/bookings/batch,/api/parking/waitlist,/api/rides/bookings}")
+    private List<String> paths;
+
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${app.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Keys in insertion order; with a fixed TTL the head is always the next to expire
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !StringUtils.hasText(request.getHeader(IDEMPOTENCY_KEY_HEADER))
+                || !paths.contains(pathOf(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key is too long");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        long fingerprint = fingerprint(cachedRequest.body);
+        String scope = userOf() + '|' + pathOf(request) + '|' + key;
+
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(fingerprint, now + TimeUnit.MINUTES.toMillis(ttlMinutes));
+        Entry existing = entries.putIfAbsent(scope, entry);
+        if (existing != null && existing.expiresAt <= now && entries.replace(scope, existing, entry)) {
+            existing = null;
+        }
+
+        if (existing != null) {
+            replay(existing, fingerprint, response);
+            return;
+        }
+
+        insertionOrder.add(scope);
+        evict(now);
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(cachedRequest, cachingResponse);
+        } catch (IOException | ServletException | RuntimeException e) {
+            entries.remove(scope, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+
+        int status = cachingResponse.getStatus();
+        entry.result.complete(pack(status, cachingResponse.getContentType(), cachingResponse.getContentAsByteArray()));
+        if (status >= 500) {
+            // Server errors are not a final answer; let the next retry run again
+            entries.remove(scope, entry);
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void replay(Entry existing, long fingerprint, HttpServletResponse response) throws IOException {
+        if (existing.fingerprint != fingerprint) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used with a different request");
+            return;
+        }
+
+        byte[] packed;
+        try {
+            packed = existing.result.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            return;
+        } catch (ExecutionException e) {
+            writeError(response, HttpStatus.CONFLICT, "The original request with this Idempotency-Key failed; retry it");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the original request");
+            return;
+        }
+
+        unpack(packed, response);
+        response.setHeader(REPLAYED_HEADER, "true");
+    }
+
+    // Requests still running go back on the queue so their retries keep waiting instead of running again
+    private void evict(long now) {
+        String firstRequeued = null;
+        while (entries.size() > maxEntries || isHeadExpired(now)) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            Entry entry = entries.get(oldest);
+            if (entry != null && !entry.result.isDone()) {
+                insertionOrder.add(oldest);
+                if (oldest.equals(firstRequeued)) {
+                    return;
+                }
+                if (firstRequeued == null) {
+                    firstRequeued = oldest;
+                }
+            } else if (entry != null && (entry.expiresAt <= now || entries.size() > maxEntries)) {
+                entries.remove(oldest, entry);
+            }
+        }
+    }
+
+    private boolean isHeadExpired(long now) {
+        String head = insertionOrder.peek();
+        Entry entry = head != null ? entries.get(head) : null;
+        return head != null && (entry == null || entry.expiresAt <= now);
+    }
+
+    // Layout: status (2), content type length (2) and bytes, compressed flag (1), body
+    private static byte[] pack(int status, String contentType, byte[] body) {
+        byte[] type = contentType != null ? contentType.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        boolean compress = body.length >= COMPRESS_THRESHOLD;
+        byte[] payload = compress ? deflate(body) : body;
+
+        return ByteBuffer.allocate(5 + type.length + payload.length)
+                .putShort((short) status)
+                .putShort((short) type.length)
+                .put(type)
+                .put((byte) (compress ? 1 : 0))
+                .put(payload)
+                .array();
+    }
+
+    private static void unpack(byte[] packed, HttpServletResponse response) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        response.setStatus(buffer.getShort());
+        byte[] type = new byte[buffer.getShort()];
+        buffer.get(type);
+        if (type.length > 0) {
+            response.setContentType(new String(type, StandardCharsets.UTF_8));
+        }
+        boolean compressed = buffer.get() == 1;
+        byte[] payload = new byte[buffer.remaining()];
+        buffer.get(payload);
+
+        byte[] body = compressed ? inflate(payload) : payload;
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] chunk = new byte[1024];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(chunk);
+                if (read == 0 && inflater.needsInput()) {
+                    break;
+                }
+                out.write(chunk, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt stored response", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long fingerprint(byte[] body) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(body)).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+
+    private static String userOf() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static class Entry {
+        private final long fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        Entry(long fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Reads the body up front so it can be fingerprinted and still handed on.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -1,20 +1,37 @@
 package com.parkandride.controller;
 
+import com.parkandride.dto.AllocationSimulationResponse;
+import com.parkandride.dto.DriverRegistrationRequest;
+import com.parkandride.dto.MessageResponse;
+import com.parkandride.model.Driver;
 import com.parkandride.model.ParkingLot;
 import com.parkandride.model.ParkingLotStatus;
+import com.parkandride.model.Role;
+import com.parkandride.repository.DriverRepository;
 import com.parkandride.repository.ParkingBookingRepository;
 import com.parkandride.repository.ParkingLotRepository;
 import com.parkandride.repository.RideBookingRepository;
 import com.parkandride.repository.UserRepository;
+import com.parkandride.service.AllocationSimulator;
+import com.parkandride.service.AvailabilityCounters;
+import com.parkandride.service.DriverPool;
+import com.parkandride.service.GatePassRevocations;
+import com.parkandride.service.LotAvailabilityIndex;
+import com.parkandride.service.ParkingLotChangedEvent;
+import com.parkandride.service.PoolingBatcher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +56,30 @@ public class AdminController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LotAvailabilityIndex lotAvailabilityIndex;
+
+    @Autowired
+    private AvailabilityCounters availabilityCounters;
+
+    @Autowired
+    private GatePassRevocations gatePassRevocations;
+
+    @Autowired
+    private AllocationSimulator allocationSimulator;
+
+    @Autowired
+    private PoolingBatcher poolingBatcher;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DriverPool driverPool;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping("/dashboard")
     @Operation(summary = "Get admin dashboard data", description = "Retrieve summary statistics for admin dashboard")
     public ResponseEntity<Map<String, Object>> getDashboard() {
@@ -49,7 +90,8 @@ public class AdminController {
         dashboard.put("totalParkingBookings", parkingBookingRepository.count());
         dashboard.put("totalRideBookings", rideBookingRepository.count());
         
-        List<ParkingLot> activeParkingLots = parkingLotRepository.findByStatusOrderByDistanceFromMetroAsc(ParkingLotStatus.ACTIVE);
+        List<ParkingLot> activeParkingLots = availabilityCounters.applyTo(
+                parkingLotRepository.findByStatusOrderByDistanceFromMetroAsc(ParkingLotStatus.ACTIVE));
         dashboard.put("activeParkingLots", activeParkingLots.size());
         
         int totalSpots = activeParkingLots.stream().mapToInt(ParkingLot::getTotalSpots).sum();
@@ -64,7 +106,7 @@ public class AdminController {
     @GetMapping("/parking-lots")
     @Operation(summary = "Get all parking lots", description = "Retrieve all parking lots for admin management")
     public ResponseEntity<List<ParkingLot>> getAllParkingLots() {
-        List<ParkingLot> parkingLots = parkingLotRepository.findAll();
+        List<ParkingLot> parkingLots = availabilityCounters.applyTo(parkingLotRepository.findAll());
         return ResponseEntity.ok(parkingLots);
     }
 
@@ -72,6 +114,8 @@ public class AdminController {
     @Operation(summary = "Create parking lot", description = "Add a new parking lot to the system")
     public ResponseEntity<ParkingLot> createParkingLot(@RequestBody ParkingLot parkingLot) {
         ParkingLot savedParkingLot = parkingLotRepository.save(parkingLot);
+        availabilityCounters.refresh(savedParkingLot);
+        eventPublisher.publishEvent(ParkingLotChangedEvent.saved(savedParkingLot));
         return ResponseEntity.ok(savedParkingLot);
     }
 
@@ -91,7 +135,11 @@ public class AdminController {
                     existingLot.setDistanceFromMetro(parkingLot.getDistanceFromMetro());
                     existingLot.setStatus(parkingLot.getStatus());
                     existingLot.setFacilities(parkingLot.getFacilities());
-                    return ResponseEntity.ok(parkingLotRepository.save(existingLot));
+                    ParkingLot savedLot = parkingLotRepository.save(existingLot);
+                    lotAvailabilityIndex.evict(lotId);
+                    availabilityCounters.refresh(savedLot);
+                    eventPublisher.publishEvent(ParkingLotChangedEvent.saved(savedLot));
+                    return ResponseEntity.ok(savedLot);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -103,17 +151,106 @@ public class AdminController {
         return parkingLotRepository.findById(lotId)
                 .map(parkingLot -> {
                     parkingLot.setStatus(status);
-                    return ResponseEntity.ok(parkingLotRepository.save(parkingLot));
+                    ParkingLot savedLot = parkingLotRepository.save(parkingLot);
+                    eventPublisher.publishEvent(ParkingLotChangedEvent.saved(savedLot));
+                    return ResponseEntity.ok(savedLot);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/parking-lots/{lotId}/allocation-simulation")
+    @Operation(summary = "Simulate spot allocation", description = "Replay a day of bookings under each allocation strategy and compare utilization and rejections")
+    public ResponseEntity<AllocationSimulationResponse> simulateAllocation(
+            @PathVariable Long lotId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(allocationSimulator.simulate(lotId, date));
+    }
+
     @DeleteMapping("/parking-lots/{lotId}")
     @Operation(summary = "Delete parking lot", description = "Remove a parking lot from the system")
     public ResponseEntity<?> deleteParkingLot(@PathVariable Long lotId) {
         return parkingLotRepository.findById(lotId)
                 .map(parkingLot -> {
                     parkingLotRepository.delete(parkingLot);
+                    lotAvailabilityIndex.evict(lotId);
+                    availabilityCounters.remove(lotId);
+                    gatePassRevocations.remove(lotId);
+                    eventPublisher.publishEvent(ParkingLotChangedEvent.deleted(lotId));
+                    return ResponseEntity.ok().build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/drivers")
+    @Operation(summary = "Get all drivers", description = "Retrieve registered drivers")
+    public ResponseEntity<List<Driver>> getAllDrivers() {
+        return ResponseEntity.ok(driverRepository.findAll());
+    }
+
+    @PostMapping("/drivers")
+    @Operation(summary = "Register driver", description = "Register a driver and vehicle for dispatch")
+    public ResponseEntity<?> registerDriver(@Valid @RequestBody DriverRegistrationRequest request) {
+        if (driverRepository.existsByVehicleNumber(request.getVehicleNumber())) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Vehicle is already registered!"));
+        }
+
+        if (request.getUsername() != null) {
+            if (!userRepository.existsByUsername(request.getUsername())) {
+                return ResponseEntity
+                        .badRequest()
+                        .body(new MessageResponse("Error: User not found!"));
+            }
+            if (driverRepository.existsByUsername(request.getUsername())) {
+                return ResponseEntity
+                        .badRequest()
+                        .body(new MessageResponse("Error: User is already linked to a driver!"));
+            }
+        }
+
+        Driver driver = new Driver(request.getName(), request.getPhone(), request.getVehicleNumber(),
+                request.getVehicleModel(), request.getRideType());
+        driver.setLatitude(request.getLatitude());
+        driver.setLongitude(request.getLongitude());
+        driver.setUsername(request.getUsername());
+        Driver savedDriver = driverRepository.save(driver);
+        driverPool.register(savedDriver);
+        return ResponseEntity.ok(savedDriver);
+    }
+
+    @DeleteMapping("/drivers/{driverId}")
+    @Operation(summary = "Deactivate driver", description = "Take a driver out of dispatch")
+    public ResponseEntity<?> deactivateDriver(@PathVariable Long driverId) {
+        return driverRepository.findById(driverId)
+                .map(driver -> {
+                    driver.setActive(false);
+                    driverRepository.save(driver);
+                    driverPool.deregister(driverId);
+                    return ResponseEntity.ok().build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/dispatch/stats")
+    @Operation(summary = "Get dispatch stats", description = "Free drivers per ride type, dispatch latency, claim conflicts and double assignments")
+    public ResponseEntity<Map<String, Object>> getDispatchStats() {
+        return ResponseEntity.ok(driverPool.getStats());
+    }
+
+    @GetMapping("/pooling/stats")
+    @Operation(summary = "Get pooling stats", description = "Batch pooling counters, including vehicles saved against greedy matching")
+    public ResponseEntity<Map<String, Object>> getPoolingStats() {
+        return ResponseEntity.ok(poolingBatcher.getStats());
+    }
+
+    @PutMapping("/users/{userId}/role")
+    @Operation(summary = "Update user role", description = "Grant a role, e.g. GATE for barrier controllers that sync revocation lists")
+    public ResponseEntity<?> updateUserRole(@PathVariable Long userId, @RequestParam Role role) {
+        return userRepository.findById(userId)
+                .map(user -> {
+                    user.setRole(role);
+                    userRepository.save(user);
                     return ResponseEntity.ok().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,93 @@
+package com.parkandride.controller;
+
+import com.parkandride.dto.DriverLocationResponse;
+import com.parkandride.dto.LocationBatchResponse;
+import com.parkandride.model.Driver;
+import com.parkandride.repository.DriverRepository;
+import com.parkandride.service.DriverLocationStore;
+import com.parkandride.service.RideService;
+import com.parkandride.util.LocationBatchCodec;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/drivers")
+@Tag(name = "Driver Locations", description = "Driver location ingestion APIs")
+@SecurityRequirement(name = "bearerAuth")
+public class DriverLocationController {
+
+    @Autowired
+    private DriverLocationStore driverLocationStore;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private RideService rideService;
+
+    @Value("${app.locations.max-clock-skew-ms:5000}")
+    private long maxClockSkewMillis;
+
+    @PostMapping(value = "/locations", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Ingest NDJSON locations", description = "Accept a batch of driver pings, one JSON object per line")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<LocationBatchResponse> ingestNdjson(@RequestBody byte[] body, Authentication authentication) {
+        return accept(LocationBatchCodec.decodeNdjson(body, System.currentTimeMillis(), maxClockSkewMillis), authentication);
+    }
+
+    @PostMapping(value = "/locations", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Ingest binary locations", description = "Accept a batch of driver pings as 24-byte binary records")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<LocationBatchResponse> ingestBinary(@RequestBody byte[] body, Authentication authentication) {
+        return accept(LocationBatchCodec.decodeBinary(body, System.currentTimeMillis(), maxClockSkewMillis), authentication);
+    }
+
+    @GetMapping("/{driverId}/location")
+    @Operation(summary = "Get driver location", description = "Latest known position of your own driver, or of the driver on your current ride")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<DriverLocationResponse> getLocation(@PathVariable Long driverId, Authentication authentication) {
+        if (!isAdmin(authentication) && !driverId.equals(ownDriverId(authentication))
+                && !rideService.isRidingWith(authentication.getName(), driverId)) {
+            throw new AccessDeniedException("Not allowed to track this driver");
+        }
+        DriverLocationResponse location = driverLocationStore.getLatest(driverId);
+        return location != null ? ResponseEntity.ok(location) : ResponseEntity.notFound().build();
+    }
+
+    // Only accounts linked to an active driver may report, and only for that driver; admins may feed any driver
+    private ResponseEntity<LocationBatchResponse> accept(LocationBatchCodec.Batch batch, Authentication authentication) {
+        if (!isAdmin(authentication)) {
+            Long driverId = ownDriverId(authentication);
+            if (driverId == null) {
+                throw new AccessDeniedException("No active driver is linked to this account");
+            }
+            batch.retainDriver(driverId);
+        }
+        int accepted = driverLocationStore.offer(batch);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new LocationBatchResponse(
+                batch.getSize() + batch.getRejected(), accepted, batch.getRejected(), batch.getSize() - accepted));
+    }
+
+    private Long ownDriverId(Authentication authentication) {
+        return driverRepository.findByUsername(authentication.getName())
+                .filter(driver -> Boolean.TRUE.equals(driver.getActive()))
+                .map(Driver::getId)
+                .orElse(null);
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
\ No newline at end of file
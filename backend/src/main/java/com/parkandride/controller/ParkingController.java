@@ -1,20 +1,35 @@
 package com.parkandride.controller;
 
+import com.parkandride.dto.AccessValidationResponse;
+import com.parkandride.dto.BatchBookingRequest;
+import com.parkandride.dto.BatchBookingResponse;
+import com.parkandride.dto.GatePassResponse;
+import com.parkandride.dto.LotAvailabilityResponse;
 import com.parkandride.dto.ParkingBookingRequest;
+import com.parkandride.dto.ParkingQuoteRequest;
+import com.parkandride.dto.ParkingQuoteResponse;
+import com.parkandride.dto.RevocationListResponse;
 import com.parkandride.model.ParkingBooking;
 import com.parkandride.model.ParkingLot;
+import com.parkandride.model.SpotType;
+import com.parkandride.model.WaitlistEntry;
 import com.parkandride.service.ParkingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -48,11 +63,45 @@ public class ParkingController {
     public ResponseEntity<List<ParkingLot>> getNearbyParkingLots(
             @RequestParam Double latitude,
             @RequestParam Double longitude,
-            @RequestParam(defaultValue = "5000") Double radiusInMeters) {
-        List<ParkingLot> parkingLots = parkingService.getNearbyParkingLots(latitude, longitude, radiusInMeters);
+            @RequestParam(defaultValue = "5000") Double radiusInMeters,
+            @RequestParam(defaultValue = "false") boolean availableOnly) {
+        List<ParkingLot> parkingLots = parkingService.getNearbyParkingLots(latitude, longitude, radiusInMeters, availableOnly);
         return ResponseEntity.ok(parkingLots);
     }
 
+    @GetMapping("/lots/nearest")
+    @Operation(summary = "Get nearest parking lots", description = "Find the k parking lots closest to a location")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<ParkingLot>> getNearestParkingLots(
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "false") boolean availableOnly) {
+        List<ParkingLot> parkingLots = parkingService.getNearestParkingLots(latitude, longitude, limit, availableOnly);
+        return ResponseEntity.ok(parkingLots);
+    }
+
+    @GetMapping("/lots/{lotId}/availability")
+    @Operation(summary = "Get lot availability", description = "Find the spots that are free in a parking lot for a time window")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<LotAvailabilityResponse> getLotAvailability(
+            @PathVariable Long lotId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) SpotType spotType) {
+        LotAvailabilityResponse availability = parkingService.getLotAvailability(lotId, startTime, endTime, spotType);
+        return ResponseEntity.ok(availability);
+    }
+
+    @PostMapping("/quotes")
+    @Operation(summary = "Quote parking lots", description = "Price a time window across a list of lots or all lots near a point; the returned quote id holds the prices for a few minutes")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ParkingQuoteResponse> getQuotes(@Valid @RequestBody ParkingQuoteRequest request,
+                                                          Principal principal) {
+        ParkingQuoteResponse response = parkingService.getQuotes(request, principal.getName());
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/bookings")
     @Operation(summary = "Create parking booking", description = "Book a parking spot for specified time period")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -62,6 +111,15 @@ public class ParkingController {
         return ResponseEntity.ok(booking);
     }
 
+    @PostMapping("/bookings/batch")
+    @Operation(summary = "Create parking bookings in bulk", description = "Book many spots at once for fleet and corporate reservations; each item reports its own outcome")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<BatchBookingResponse> createBookings(@Valid @RequestBody BatchBookingRequest request,
+                                                               Principal principal) {
+        BatchBookingResponse response = parkingService.createBookings(request.getBookings(), principal.getName());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/bookings")
     @Operation(summary = "Get user bookings", description = "Retrieve all bookings for the authenticated user")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -78,6 +136,45 @@ public class ParkingController {
         return ResponseEntity.ok(booking);
     }
 
+    @GetMapping(value = "/bookings/{bookingId}/qr", produces = MediaType.IMAGE_PNG_VALUE)
+    @Operation(summary = "Get booking QR code", description = "Render the booking's access QR code as a PNG image")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<byte[]> getBookingQRCode(@PathVariable Long bookingId, Principal principal) {
+        byte[] png = parkingService.getBookingQRCode(bookingId, principal.getName());
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate())
+                .body(png);
+    }
+
+    @GetMapping("/bookings/{bookingId}/gate-pass")
+    @Operation(summary = "Get gate pass", description = "Issue a signed gate pass that barrier controllers verify offline")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<GatePassResponse> getGatePass(@PathVariable Long bookingId, Principal principal) {
+        GatePassResponse gatePass = parkingService.getGatePass(bookingId, principal.getName());
+        return ResponseEntity.ok(gatePass);
+    }
+
+    @GetMapping(value = "/bookings/{bookingId}/gate-pass/qr", produces = MediaType.IMAGE_PNG_VALUE)
+    @Operation(summary = "Get gate pass QR code", description = "Render the booking's signed gate pass as a PNG image")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<byte[]> getGatePassQRCode(@PathVariable Long bookingId, Principal principal) {
+        byte[] png = parkingService.getGatePassQRCode(bookingId, principal.getName());
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate())
+                .body(png);
+    }
+
+    @GetMapping("/lots/{lotId}/revocations")
+    @Operation(summary = "Get revoked gate passes", description = "Booking ids whose gate passes were revoked, optionally only those added after a version")
+    @PreAuthorize("hasRole('GATE') or hasRole('ADMIN')")
+    public ResponseEntity<RevocationListResponse> getRevokedGatePasses(@PathVariable Long lotId,
+                                                                       @RequestParam(required = false) Long sinceVersion) {
+        RevocationListResponse revocations = parkingService.getRevokedGatePasses(lotId, sinceVersion);
+        return ResponseEntity.ok(revocations);
+    }
+
     @PutMapping("/bookings/{bookingId}/cancel")
     @Operation(summary = "Cancel booking", description = "Cancel an existing parking booking")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -86,6 +183,16 @@ public class ParkingController {
         return ResponseEntity.ok(booking);
     }
 
+    @PutMapping("/bookings/{bookingId}/spot")
+    @Operation(summary = "Reassign spot", description = "Move a booking to a free spot of the requested type")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ParkingBooking> reassignSpot(@PathVariable Long bookingId,
+                                                       @RequestParam(required = false) SpotType spotType,
+                                                       Principal principal) {
+        ParkingBooking booking = parkingService.reassignSpot(bookingId, spotType, principal.getName());
+        return ResponseEntity.ok(booking);
+    }
+
     @PutMapping("/bookings/{bookingId}/start")
     @Operation(summary = "Start parking", description = "Mark parking as started when user arrives")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -102,12 +209,37 @@ public class ParkingController {
         return ResponseEntity.ok(booking);
     }
 
+    @PostMapping("/waitlist")
+    @Operation(summary = "Join waitlist", description = "Queue a booking request for a full lot; it is booked automatically when a place frees up")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<WaitlistEntry> joinWaitlist(@Valid @RequestBody ParkingBookingRequest request,
+                                                      Principal principal) {
+        WaitlistEntry entry = parkingService.joinWaitlist(request, principal.getName());
+        return ResponseEntity.ok(entry);
+    }
+
+    @GetMapping("/waitlist")
+    @Operation(summary = "Get user waitlist", description = "Retrieve the current user's waitlist entries")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<WaitlistEntry>> getUserWaitlist(Principal principal) {
+        List<WaitlistEntry> entries = parkingService.getUserWaitlist(principal.getName());
+        return ResponseEntity.ok(entries);
+    }
+
+    @PutMapping("/waitlist/{entryId}/cancel")
+    @Operation(summary = "Leave waitlist", description = "Withdraw a waiting booking request")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<WaitlistEntry> leaveWaitlist(@PathVariable Long entryId, Principal principal) {
+        WaitlistEntry entry = parkingService.leaveWaitlist(entryId, principal.getName());
+        return ResponseEntity.ok(entry);
+    }
+
     @GetMapping("/access/qr/{qrCode}")
     @Operation(summary = "Validate QR access", description = "Validate parking access using QR code")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<ParkingBooking> validateQRAccess(@PathVariable String qrCode) {
-        ParkingBooking booking = parkingService.validateQRAccess(qrCode);
-        return ResponseEntity.ok(booking);
+    public ResponseEntity<AccessValidationResponse> validateQRAccess(@PathVariable String qrCode) {
+        AccessValidationResponse access = parkingService.validateQRAccess(qrCode);
+        return ResponseEntity.ok(access);
     }
 
     @GetMapping("/access/pin/{bookingId}/{accessPin}")
@@ -0,0 +1,50 @@
+package com.parkandride.dto;
+
+import com.parkandride.model.BookingStatus;
+import com.parkandride.model.ParkingBooking;
+
+import java.time.LocalDateTime;
+
+public class AccessValidationResponse {
+    
+    private Long bookingId;
+    private Long parkingLotId;
+    private Long parkingSpotId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String vehicleNumber;
+    private BookingStatus status;
+    
+    public AccessValidationResponse() {}
+    
+    public AccessValidationResponse(ParkingBooking booking) {
+        this.bookingId = booking.getId();
+        this.parkingLotId = booking.getParkingLot().getId();
+        this.parkingSpotId = booking.getParkingSpot() != null ? booking.getParkingSpot().getId() : null;
+        this.startTime = booking.getStartTime();
+        this.endTime = booking.getEndTime();
+        this.vehicleNumber = booking.getVehicleNumber();
+        this.status = booking.getStatus();
+    }
+    
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+    
+    public Long getParkingSpotId() { return parkingSpotId; }
+    public void setParkingSpotId(Long parkingSpotId) { this.parkingSpotId = parkingSpotId; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    
+    public String getVehicleNumber() { return vehicleNumber; }
+    public void setVehicleNumber(String vehicleNumber) { this.vehicleNumber = vehicleNumber; }
+    
+    public BookingStatus getStatus() { return status; }
+    public void setStatus(BookingStatus status) { this.status = status; }
+}
@@ -0,0 +1,34 @@
+package com.parkandride.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AllocationSimulationResponse {
+    
+    private Long parkingLotId;
+    private LocalDate date;
+    private Integer spots;
+    private List<AllocationSimulationResult> results;
+    
+    public AllocationSimulationResponse() {}
+    
+    public AllocationSimulationResponse(Long parkingLotId, LocalDate date, Integer spots,
+                                        List<AllocationSimulationResult> results) {
+        this.parkingLotId = parkingLotId;
+        this.date = date;
+        this.spots = spots;
+        this.results = results;
+    }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+    
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+    
+    public Integer getSpots() { return spots; }
+    public void setSpots(Integer spots) { this.spots = spots; }
+    
+    public List<AllocationSimulationResult> getResults() { return results; }
+    public void setResults(List<AllocationSimulationResult> results) { this.results = results; }
+}
@@ -0,0 +1,46 @@
+package com.parkandride.dto;
+
+public class AllocationSimulationResult {
+    
+    private String strategy;
+    private Integer requested;
+    private Integer accepted;
+    private Integer rejected;
+    private Double rejectionRate;
+    private Double utilization;
+    private Double bookedHours;
+    
+    public AllocationSimulationResult() {}
+    
+    public AllocationSimulationResult(String strategy, Integer requested, Integer accepted,
+                                      Double utilization, Double bookedHours) {
+        this.strategy = strategy;
+        this.requested = requested;
+        this.accepted = accepted;
+        this.rejected = requested - accepted;
+        this.rejectionRate = requested > 0 ? (double) this.rejected / requested : 0.0;
+        this.utilization = utilization;
+        this.bookedHours = bookedHours;
+    }
+    
+    public String getStrategy() { return strategy; }
+    public void setStrategy(String strategy) { this.strategy = strategy; }
+    
+    public Integer getRequested() { return requested; }
+    public void setRequested(Integer requested) { this.requested = requested; }
+    
+    public Integer getAccepted() { return accepted; }
+    public void setAccepted(Integer accepted) { this.accepted = accepted; }
+    
+    public Integer getRejected() { return rejected; }
+    public void setRejected(Integer rejected) { this.rejected = rejected; }
+    
+    public Double getRejectionRate() { return rejectionRate; }
+    public void setRejectionRate(Double rejectionRate) { this.rejectionRate = rejectionRate; }
+    
+    public Double getUtilization() { return utilization; }
+    public void setUtilization(Double utilization) { this.utilization = utilization; }
+    
+    public Double getBookedHours() { return bookedHours; }
+    public void setBookedHours(Double bookedHours) { this.bookedHours = bookedHours; }
+}
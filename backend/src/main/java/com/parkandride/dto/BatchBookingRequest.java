@@ -0,0 +1,24 @@
+package com.parkandride.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchBookingRequest {
+    
+    @NotEmpty
+    @Size(max = 500)
+    @Valid
+    private List<ParkingBookingRequest> bookings;
+    
+    public BatchBookingRequest() {}
+    
+    public BatchBookingRequest(List<ParkingBookingRequest> bookings) {
+        this.bookings = bookings;
+    }
+    
+    public List<ParkingBookingRequest> getBookings() { return bookings; }
+    public void setBookings(List<ParkingBookingRequest> bookings) { this.bookings = bookings; }
+}
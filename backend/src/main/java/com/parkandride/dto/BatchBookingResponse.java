@@ -0,0 +1,32 @@
+package com.parkandride.dto;
+
+import java.util.List;
+
+public class BatchBookingResponse {
+    
+    private Integer requested;
+    private Integer booked;
+    private Integer rejected;
+    private List<BatchBookingResult> results;
+    
+    public BatchBookingResponse() {}
+    
+    public BatchBookingResponse(List<BatchBookingResult> results) {
+        this.results = results;
+        this.requested = results.size();
+        this.booked = (int) results.stream().filter(result -> BatchBookingResult.BOOKED.equals(result.getStatus())).count();
+        this.rejected = requested - booked;
+    }
+    
+    public Integer getRequested() { return requested; }
+    public void setRequested(Integer requested) { this.requested = requested; }
+    
+    public Integer getBooked() { return booked; }
+    public void setBooked(Integer booked) { this.booked = booked; }
+    
+    public Integer getRejected() { return rejected; }
+    public void setRejected(Integer rejected) { this.rejected = rejected; }
+    
+    public List<BatchBookingResult> getResults() { return results; }
+    public void setResults(List<BatchBookingResult> results) { this.results = results; }
+}
@@ -0,0 +1,66 @@
+package com.parkandride.dto;
+
+import java.math.BigDecimal;
+
+public class BatchBookingResult {
+    
+    public static final String BOOKED = "BOOKED";
+    public static final String REJECTED = "REJECTED";
+    
+    private Integer index;
+    private Long parkingLotId;
+    private String status;
+    private Long bookingId;
+    private Long parkingSpotId;
+    private BigDecimal totalAmount;
+    private String accessPin;
+    private String message;
+    
+    public BatchBookingResult() {}
+    
+    public static BatchBookingResult booked(int index, Long parkingLotId, Long bookingId, Long parkingSpotId,
+                                            BigDecimal totalAmount, String accessPin) {
+        BatchBookingResult result = new BatchBookingResult();
+        result.index = index;
+        result.parkingLotId = parkingLotId;
+        result.status = BOOKED;
+        result.bookingId = bookingId;
+        result.parkingSpotId = parkingSpotId;
+        result.totalAmount = totalAmount;
+        result.accessPin = accessPin;
+        return result;
+    }
+    
+    public static BatchBookingResult rejected(int index, Long parkingLotId, String message) {
+        BatchBookingResult result = new BatchBookingResult();
+        result.index = index;
+        result.parkingLotId = parkingLotId;
+        result.status = REJECTED;
+        result.message = message;
+        return result;
+    }
+    
+    public Integer getIndex() { return index; }
+    public void setIndex(Integer index) { this.index = index; }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+    
+    public Long getParkingSpotId() { return parkingSpotId; }
+    public void setParkingSpotId(Long parkingSpotId) { this.parkingSpotId = parkingSpotId; }
+    
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    
+    public String getAccessPin() { return accessPin; }
+    public void setAccessPin(String accessPin) { this.accessPin = accessPin; }
+    
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
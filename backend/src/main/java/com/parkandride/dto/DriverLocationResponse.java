@@ -0,0 +1,32 @@
+package com.parkandride.dto;
+
+import java.time.LocalDateTime;
+
+public class DriverLocationResponse {
+    
+    private Long driverId;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime recordedAt;
+    
+    public DriverLocationResponse() {}
+    
+    public DriverLocationResponse(Long driverId, Double latitude, Double longitude, LocalDateTime recordedAt) {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.recordedAt = recordedAt;
+    }
+    
+    public Long getDriverId() { return driverId; }
+    public void setDriverId(Long driverId) { this.driverId = driverId; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.parkandride.dto;
+
+import com.parkandride.model.RideType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class DriverRegistrationRequest {
+    
+    @NotBlank
+    private String name;
+    
+    @NotBlank
+    private String phone;
+    
+    @NotBlank
+    private String vehicleNumber;
+    
+    private String vehicleModel;
+    
+    // Existing account to link; it keeps its role and gains driver access through the link
+    private String username;
+    
+    @NotNull
+    private RideType rideType = RideType.CAB;
+    
+    @NotNull
+    private Double latitude;
+    
+    @NotNull
+    private Double longitude;
+    
+    public DriverRegistrationRequest() {}
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+    
+    public String getVehicleNumber() { return vehicleNumber; }
+    public void setVehicleNumber(String vehicleNumber) { this.vehicleNumber = vehicleNumber; }
+    
+    public String getVehicleModel() { return vehicleModel; }
+    public void setVehicleModel(String vehicleModel) { this.vehicleModel = vehicleModel; }
+    
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    
+    public RideType getRideType() { return rideType; }
+    public void setRideType(RideType rideType) { this.rideType = rideType; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.parkandride.dto;
+
+import java.time.LocalDateTime;
+
+public class GatePassResponse {
+    
+    private Long bookingId;
+    private Long parkingLotId;
+    private LocalDateTime validFrom;
+    private LocalDateTime validTo;
+    private String pass;
+    
+    public GatePassResponse() {}
+    
+    public GatePassResponse(Long bookingId, Long parkingLotId, LocalDateTime validFrom, LocalDateTime validTo, String pass) {
+        this.bookingId = bookingId;
+        this.parkingLotId = parkingLotId;
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.pass = pass;
+    }
+    
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+    
+    public LocalDateTime getValidFrom() { return validFrom; }
+    public void setValidFrom(LocalDateTime validFrom) { this.validFrom = validFrom; }
+    
+    public LocalDateTime getValidTo() { return validTo; }
+    public void setValidTo(LocalDateTime validTo) { this.validTo = validTo; }
+    
+    public String getPass() { return pass; }
+    public void setPass(String pass) { this.pass = pass; }
+}
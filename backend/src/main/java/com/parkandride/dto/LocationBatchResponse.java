@@ -0,0 +1,30 @@
+package com.parkandride.dto;
+
+public class LocationBatchResponse {
+    
+    private int received;
+    private int accepted;
+    private int rejected;
+    private int dropped;
+    
+    public LocationBatchResponse() {}
+    
+    public LocationBatchResponse(int received, int accepted, int rejected, int dropped) {
+        this.received = received;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.dropped = dropped;
+    }
+    
+    public int getReceived() { return received; }
+    public void setReceived(int received) { this.received = received; }
+    
+    public int getAccepted() { return accepted; }
+    public void setAccepted(int accepted) { this.accepted = accepted; }
+    
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+    
+    public int getDropped() { return dropped; }
+    public void setDropped(int dropped) { this.dropped = dropped; }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.parkandride.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class LotAvailabilityResponse {
+    
+    private Long parkingLotId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer availableSpots;
+    private List<Long> freeSpotIds;
+    
+    public LotAvailabilityResponse() {}
+    
+    public LotAvailabilityResponse(Long parkingLotId, LocalDateTime startTime, LocalDateTime endTime,
+                                   Integer availableSpots, List<Long> freeSpotIds) {
+        this.parkingLotId = parkingLotId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.availableSpots = availableSpots;
+        this.freeSpotIds = freeSpotIds;
+    }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    
+    public Integer getAvailableSpots() { return availableSpots; }
+    public void setAvailableSpots(Integer availableSpots) { this.availableSpots = availableSpots; }
+    
+    public List<Long> getFreeSpotIds() { return freeSpotIds; }
+    public void setFreeSpotIds(List<Long> freeSpotIds) { this.freeSpotIds = freeSpotIds; }
+}
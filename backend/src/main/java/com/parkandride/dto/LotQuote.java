@@ -0,0 +1,43 @@
+package com.parkandride.dto;
+
+import java.math.BigDecimal;
+
+public class LotQuote {
+    
+    private Long parkingLotId;
+    private String name;
+    private String metroStationName;
+    private Double distanceFromMetro;
+    private Integer availableSpots;
+    private BigDecimal totalAmount;
+    
+    public LotQuote() {}
+    
+    public LotQuote(Long parkingLotId, String name, String metroStationName, Double distanceFromMetro,
+                    Integer availableSpots, BigDecimal totalAmount) {
+        this.parkingLotId = parkingLotId;
+        this.name = name;
+        this.metroStationName = metroStationName;
+        this.distanceFromMetro = distanceFromMetro;
+        this.availableSpots = availableSpots;
+        this.totalAmount = totalAmount;
+    }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getMetroStationName() { return metroStationName; }
+    public void setMetroStationName(String metroStationName) { this.metroStationName = metroStationName; }
+    
+    public Double getDistanceFromMetro() { return distanceFromMetro; }
+    public void setDistanceFromMetro(Double distanceFromMetro) { this.distanceFromMetro = distanceFromMetro; }
+    
+    public Integer getAvailableSpots() { return availableSpots; }
+    public void setAvailableSpots(Integer availableSpots) { this.availableSpots = availableSpots; }
+    
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.parkandride.dto;
 
 import com.parkandride.model.BookingType;
+import com.parkandride.model.SpotType;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
 
@@ -23,6 +24,10 @@ public class ParkingBookingRequest {
     
     private String vehicleNumber;
     
+    private SpotType spotType;
+    
+    private String quoteId;
+    
     public ParkingBookingRequest() {}
     
     public ParkingBookingRequest(Long parkingLotId, LocalDateTime startTime, LocalDateTime endTime) {
@@ -45,4 +50,10 @@ public class ParkingBookingRequest {
     
     public String getVehicleNumber() { return vehicleNumber; }
     public void setVehicleNumber(String vehicleNumber) { this.vehicleNumber = vehicleNumber; }
+    
+    public SpotType getSpotType() { return spotType; }
+    public void setSpotType(SpotType spotType) { this.spotType = spotType; }
+    
+    public String getQuoteId() { return quoteId; }
+    public void setQuoteId(String quoteId) { this.quoteId = quoteId; }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.parkandride.dto;
+
+import com.parkandride.model.BookingType;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ParkingQuoteRequest {
+    
+    @NotNull
+    private LocalDateTime startTime;
+    
+    @NotNull
+    private LocalDateTime endTime;
+    
+    private BookingType bookingType = BookingType.HOURLY;
+    
+    // Either a list of lots or a point and radius
+    private List<Long> parkingLotIds;
+    
+    private Double latitude;
+    private Double longitude;
+    private Double radiusInMeters = 5000.0;
+    
+    private boolean availableOnly;
+    
+    public ParkingQuoteRequest() {}
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    
+    public BookingType getBookingType() { return bookingType; }
+    public void setBookingType(BookingType bookingType) { this.bookingType = bookingType; }
+    
+    public List<Long> getParkingLotIds() { return parkingLotIds; }
+    public void setParkingLotIds(List<Long> parkingLotIds) { this.parkingLotIds = parkingLotIds; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public Double getRadiusInMeters() { return radiusInMeters; }
+    public void setRadiusInMeters(Double radiusInMeters) { this.radiusInMeters = radiusInMeters; }
+    
+    public boolean isAvailableOnly() { return availableOnly; }
+    public void setAvailableOnly(boolean availableOnly) { this.availableOnly = availableOnly; }
+}
\ No newline at end of file
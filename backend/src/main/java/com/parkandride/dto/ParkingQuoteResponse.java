@@ -0,0 +1,46 @@
+package com.parkandride.dto;
+
+import com.parkandride.model.BookingType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ParkingQuoteResponse {
+    
+    private String quoteId;
+    private LocalDateTime expiresAt;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private BookingType bookingType;
+    private List<LotQuote> quotes;
+    
+    public ParkingQuoteResponse() {}
+    
+    public ParkingQuoteResponse(String quoteId, LocalDateTime expiresAt, LocalDateTime startTime,
+                                LocalDateTime endTime, BookingType bookingType, List<LotQuote> quotes) {
+        this.quoteId = quoteId;
+        this.expiresAt = expiresAt;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.bookingType = bookingType;
+        this.quotes = quotes;
+    }
+    
+    public String getQuoteId() { return quoteId; }
+    public void setQuoteId(String quoteId) { this.quoteId = quoteId; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    
+    public BookingType getBookingType() { return bookingType; }
+    public void setBookingType(BookingType bookingType) { this.bookingType = bookingType; }
+    
+    public List<LotQuote> getQuotes() { return quotes; }
+    public void setQuotes(List<LotQuote> quotes) { this.quotes = quotes; }
+}
\ No newline at end of file
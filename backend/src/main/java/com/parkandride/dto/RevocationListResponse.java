@@ -0,0 +1,30 @@
+package com.parkandride.dto;
+
+public class RevocationListResponse {
+    
+    private Long parkingLotId;
+    private Long version;
+    private Boolean full;
+    private long[] bookingIds;
+    
+    public RevocationListResponse() {}
+    
+    public RevocationListResponse(Long parkingLotId, Long version, Boolean full, long[] bookingIds) {
+        this.parkingLotId = parkingLotId;
+        this.version = version;
+        this.full = full;
+        this.bookingIds = bookingIds;
+    }
+    
+    public Long getParkingLotId() { return parkingLotId; }
+    public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    public Boolean getFull() { return full; }
+    public void setFull(Boolean full) { this.full = full; }
+    
+    public long[] getBookingIds() { return bookingIds; }
+    public void setBookingIds(long[] bookingIds) { this.bookingIds = bookingIds; }
+}
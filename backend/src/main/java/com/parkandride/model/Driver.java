@@ -0,0 +1,100 @@
+package com.parkandride.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "drivers")
+public class Driver {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    private String name;
+    
+    @NotNull
+    private String phone;
+    
+    @NotNull
+    @Column(unique = true)
+    private String vehicleNumber;
+    
+    private String vehicleModel;
+    
+    // Account the driver app signs in with; its pings may only move this driver
+    @Column(unique = true)
+    private String username;
+    
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private RideType rideType = RideType.CAB;
+    
+    // Position at registration; live positions are kept in memory
+    private Double latitude;
+    private Double longitude;
+    
+    private Boolean active = true;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public Driver() {}
+    
+    public Driver(String name, String phone, String vehicleNumber, String vehicleModel, RideType rideType) {
+        this.name = name;
+        this.phone = phone;
+        this.vehicleNumber = vehicleNumber;
+        this.vehicleModel = vehicleModel;
+        this.rideType = rideType;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+    
+    public String getVehicleNumber() { return vehicleNumber; }
+    public void setVehicleNumber(String vehicleNumber) { this.vehicleNumber = vehicleNumber; }
+    
+    public String getVehicleModel() { return vehicleModel; }
+    public void setVehicleModel(String vehicleModel) { this.vehicleModel = vehicleModel; }
+    
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    
+    public RideType getRideType() { return rideType; }
+    public void setRideType(RideType rideType) { this.rideType = rideType; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.parkandride.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Downsampled driver position history. Rows are written in JDBC batches by the
+ * location ingestion path, not through this entity.
+ */
+@Entity
+@Table(name = "driver_locations", indexes = {
+    @Index(name = "idx_driver_locations_driver_time", columnList = "driver_id, recorded_at")
+})
+public class DriverLocation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    @Column(name = "driver_id")
+    private Long driverId;
+    
+    @NotNull
+    private Double latitude;
+    
+    @NotNull
+    private Double longitude;
+    
+    @NotNull
+    @Column(name = "recorded_at")
+    private LocalDateTime recordedAt;
+    
+    // Constructors
+    public DriverLocation() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getDriverId() { return driverId; }
+    public void setDriverId(Long driverId) { this.driverId = driverId; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+}
\ No newline at end of file
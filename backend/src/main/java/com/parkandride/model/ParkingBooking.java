@@ -7,7 +7,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "parking_bookings")
+@Table(name = "parking_bookings", indexes = {
+    @Index(name = "idx_parking_bookings_access_token", columnList = "access_token", unique = true)
+})
 public class ParkingBooking {
     
     @Id
@@ -48,6 +50,10 @@ public class ParkingBooking {
     
     private String vehicleNumber;
     private String qrCode;
+    
+    @Column(name = "access_token", length = 20)
+    private String accessToken;
+    
     private String accessPin;
     
     private LocalDateTime createdAt;
@@ -116,6 +122,9 @@ public class ParkingBooking {
     public String getQrCode() { return qrCode; }
     public void setQrCode(String qrCode) { this.qrCode = qrCode; }
     
+    public String getAccessToken() { return accessToken; }
+    public void setAccessToken(String accessToken) { this.accessToken = accessToken; }
+    
     public String getAccessPin() { return accessPin; }
     public void setAccessPin(String accessPin) { this.accessPin = accessPin; }
     
@@ -85,6 +85,27 @@ public class ParkingLot {
         this.availableSpots = totalSpots;
     }
     
+    /**
+     * Detached copy of the scalar fields, for in-memory read models. Collections are
+     * left unset.
+     */
+    public ParkingLot(ParkingLot other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.address = other.address;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.totalSpots = other.totalSpots;
+        this.availableSpots = other.availableSpots;
+        this.baseHourlyRate = other.baseHourlyRate;
+        this.metroStationName = other.metroStationName;
+        this.distanceFromMetro = other.distanceFromMetro;
+        this.status = other.status;
+        this.facilities = other.facilities;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
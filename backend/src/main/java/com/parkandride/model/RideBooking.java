@@ -50,6 +50,7 @@ public class RideBooking {
     private BigDecimal estimatedFare;
     private BigDecimal actualFare;
     
+    private Long driverId;
     private String driverName;
     private String driverPhone;
     private String vehicleNumber;
@@ -138,6 +139,9 @@ public class RideBooking {
     public BigDecimal getActualFare() { return actualFare; }
     public void setActualFare(BigDecimal actualFare) { this.actualFare = actualFare; }
     
+    public Long getDriverId() { return driverId; }
+    public void setDriverId(Long driverId) { this.driverId = driverId; }
+    
     public String getDriverName() { return driverName; }
     public void setDriverName(String driverName) { this.driverName = driverName; }
     
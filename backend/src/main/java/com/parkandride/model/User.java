@@ -136,5 +136,5 @@ public class User implements UserDetails {
 }
 
 enum Role {
-    USER, ADMIN
+    USER, ADMIN, GATE
 }
\ No newline at end of file
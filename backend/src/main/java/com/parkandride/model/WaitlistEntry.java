@@ -0,0 +1,108 @@
+package com.parkandride.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+    @Index(name = "idx_waitlist_entries_status", columnList = "status")
+})
+public class WaitlistEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+    
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parking_lot_id")
+    private ParkingLot parkingLot;
+    
+    @NotNull
+    private LocalDateTime startTime;
+    
+    @NotNull
+    private LocalDateTime endTime;
+    
+    @Enumerated(EnumType.STRING)
+    private BookingType bookingType = BookingType.HOURLY;
+    
+    @Enumerated(EnumType.STRING)
+    private SpotType spotType;
+    
+    private String vehicleNumber;
+    
+    @Enumerated(EnumType.STRING)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+    
+    private Long bookingId;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public WaitlistEntry() {}
+    
+    public WaitlistEntry(User user, ParkingLot parkingLot, LocalDateTime startTime, LocalDateTime endTime) {
+        this.user = user;
+        this.parkingLot = parkingLot;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    
+    public ParkingLot getParkingLot() { return parkingLot; }
+    public void setParkingLot(ParkingLot parkingLot) { this.parkingLot = parkingLot; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    
+    public BookingType getBookingType() { return bookingType; }
+    public void setBookingType(BookingType bookingType) { this.bookingType = bookingType; }
+    
+    public SpotType getSpotType() { return spotType; }
+    public void setSpotType(SpotType spotType) { this.spotType = spotType; }
+    
+    public String getVehicleNumber() { return vehicleNumber; }
+    public void setVehicleNumber(String vehicleNumber) { this.vehicleNumber = vehicleNumber; }
+    
+    public WaitlistStatus getStatus() { return status; }
+    public void setStatus(WaitlistStatus status) { this.status = status; }
+    
+    public Long getBookingId() { return bookingId; }
+    public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
+
+enum WaitlistStatus {
+    WAITING, PROMOTED, EXPIRED, CANCELLED
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.parkandride.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Batch inserts of downsampled driver positions, straight from the primitive
+ * arrays the ingestion writer stages them in.
+ */
+@Repository
+public class DriverLocationJdbcRepository {
+
+    private static final String INSERT_LOCATION = "INSERT INTO driver_locations (driver_id, latitude, longitude, " +
+            "recorded_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(long[] driverIds, long[] timestamps, double[] latitudes, double[] longitudes, int size) {
+        if (size == 0) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_LOCATION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, driverIds[i]);
+                ps.setDouble(2, latitudes[i]);
+                ps.setDouble(3, longitudes[i]);
+                ps.setTimestamp(4, new Timestamp(timestamps[i]));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        });
+    }
+}
\ No newline at end of file
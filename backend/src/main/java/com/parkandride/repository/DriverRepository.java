@@ -0,0 +1,16 @@
+package com.parkandride.repository;
+
+import com.parkandride.model.Driver;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DriverRepository extends JpaRepository<Driver, Long> {
+    List<Driver> findByActiveTrue();
+    Boolean existsByVehicleNumber(String vehicleNumber);
+    Optional<Driver> findByUsername(String username);
+    Boolean existsByUsername(String username);
+}
\ No newline at end of file
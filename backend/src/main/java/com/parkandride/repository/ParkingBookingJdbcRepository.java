@@ -0,0 +1,122 @@
+package com.parkandride.repository;
+
+import com.parkandride.model.ParkingBooking;
+import com.parkandride.model.SpotStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for bulk booking paths, where saving entities one by one
+ * would cost a round trip per row. Joins the surrounding JPA transaction.
+ */
+@Repository
+public class ParkingBookingJdbcRepository {
+
+    private static final String INSERT_BOOKING = "INSERT INTO parking_bookings (user_id, parking_lot_id, " +
+            "parking_spot_id, start_time, end_time, total_amount, status, booking_type, vehicle_number, " +
+            "access_token, access_pin, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MARK_NO_SHOW = "UPDATE parking_bookings SET status = 'NO_SHOW', updated_at = ? " +
+            "WHERE id = ? AND status = 'CONFIRMED' AND actual_start_time IS NULL";
+
+    private static final String UPDATE_SPOT_STATUS = "UPDATE parking_spots SET status = ?, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the bookings in one batch and writes the generated ids back onto them.
+     */
+    public void insertAll(List<ParkingBooking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_BOOKING, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ParkingBooking booking = bookings.get(i);
+                        ps.setLong(1, booking.getUser().getId());
+                        ps.setLong(2, booking.getParkingLot().getId());
+                        if (booking.getParkingSpot() != null) {
+                            ps.setLong(3, booking.getParkingSpot().getId());
+                        } else {
+                            ps.setNull(3, Types.BIGINT);
+                        }
+                        ps.setTimestamp(4, Timestamp.valueOf(booking.getStartTime()));
+                        ps.setTimestamp(5, Timestamp.valueOf(booking.getEndTime()));
+                        ps.setBigDecimal(6, booking.getTotalAmount());
+                        ps.setString(7, booking.getStatus().name());
+                        ps.setString(8, booking.getBookingType().name());
+                        ps.setString(9, booking.getVehicleNumber());
+                        ps.setString(10, booking.getAccessToken());
+                        ps.setString(11, booking.getAccessPin());
+                        ps.setTimestamp(12, now);
+                        ps.setTimestamp(13, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    public void updateSpotStatus(List<Long> spotIds, SpotStatus status) {
+        if (spotIds.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_SPOT_STATUS, spotIds, spotIds.size(), (ps, spotId) -> {
+            ps.setString(1, status.name());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, spotId);
+        });
+    }
+
+    /**
+     * Moves bookings that are still waiting for their driver to NO_SHOW. The result
+     * holds the updated row count for each id, so callers can tell which bookings a
+     * concurrent start or cancel got to first.
+     */
+    public int[] markNoShow(List<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return new int[0];
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(MARK_NO_SHOW, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setTimestamp(1, now);
+                ps.setLong(2, bookingIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bookingIds.size();
+            }
+        });
+    }
+}
@@ -18,6 +18,22 @@ public interface ParkingBookingRepository extends JpaRepository<ParkingBooking,
     
     List<ParkingBooking> findByUserIdAndStatusInOrderByCreatedAtDesc(Long userId, List<BookingStatus> statuses);
     
+    List<ParkingBooking> findByParkingLotIdAndStatusIn(Long parkingLotId, List<BookingStatus> statuses);
+    
+    List<ParkingBooking> findByStatusInAndStartTimeBeforeAndEndTimeAfter(List<BookingStatus> statuses,
+                                                                         LocalDateTime startBefore,
+                                                                         LocalDateTime endAfter);
+    
+    List<ParkingBooking> findByParkingLotIdAndStartTimeGreaterThanEqualAndStartTimeLessThanOrderByCreatedAtAsc(
+            Long parkingLotId, LocalDateTime from, LocalDateTime to);
+    
+    List<ParkingBooking> findByStatusInAndEndTimeAfter(List<BookingStatus> statuses, LocalDateTime endTime);
+    
+    long countByParkingLotIdAndStatusIn(Long parkingLotId, List<BookingStatus> statuses);
+    
+    @Query("SELECT pb.parkingLot.id, COUNT(pb) FROM ParkingBooking pb WHERE pb.status IN :statuses GROUP BY pb.parkingLot.id")
+    List<Object[]> countByParkingLotAndStatusIn(@Param("statuses") List<BookingStatus> statuses);
+    
     @Query("SELECT pb FROM ParkingBooking pb WHERE pb.status IN :statuses AND pb.startTime <= :endTime AND pb.endTime >= :startTime")
     List<ParkingBooking> findConflictingBookings(@Param("statuses") List<BookingStatus> statuses,
                                                 @Param("startTime") LocalDateTime startTime,
@@ -27,8 +43,21 @@ public interface ParkingBookingRepository extends JpaRepository<ParkingBooking,
            "AND pb.actualStartTime IS NULL")
     List<ParkingBooking> findBookingsToAutoCancel(@Param("currentTime") LocalDateTime currentTime);
     
+    @Query("SELECT pb.id, pb.startTime, pb.bookingType FROM ParkingBooking pb WHERE pb.status = 'CONFIRMED' " +
+           "AND pb.actualStartTime IS NULL")
+    List<Object[]> findPendingArrivals();
+    
+    @Query("SELECT pb FROM ParkingBooking pb JOIN FETCH pb.parkingLot WHERE pb.id IN :ids " +
+           "AND pb.status = 'CONFIRMED' AND pb.actualStartTime IS NULL")
+    List<ParkingBooking> findPendingArrivalsByIdIn(@Param("ids") List<Long> ids);
+    
+    @Query("SELECT pb.id FROM ParkingBooking pb WHERE pb.id IN :ids AND pb.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") List<Long> ids, @Param("status") BookingStatus status);
+    
     Optional<ParkingBooking> findByQrCode(String qrCode);
     
+    Optional<ParkingBooking> findByAccessToken(String accessToken);
+    
     Optional<ParkingBooking> findByIdAndAccessPin(Long id, String accessPin);
     
     @Query("SELECT COUNT(pb) FROM ParkingBooking pb WHERE pb.parkingLot.id = :parkingLotId " +
@@ -22,12 +22,4 @@ public interface ParkingLotRepository extends JpaRepository<ParkingLot, Long> {
            "ORDER BY p.distanceFromMetro ASC")
     List<ParkingLot> findByMetroStationNameAndStatus(@Param("stationName") String stationName, 
                                                      @Param("status") ParkingLotStatus status);
-    
-    @Query(value = "SELECT * FROM parking_lots p WHERE p.status = 'ACTIVE' AND " +
-                   "ST_Distance_Sphere(POINT(p.longitude, p.latitude), POINT(:longitude, :latitude)) <= :radiusInMeters " +
-                   "ORDER BY ST_Distance_Sphere(POINT(p.longitude, p.latitude), POINT(:longitude, :latitude))",
-           nativeQuery = true)
-    List<ParkingLot> findNearbyParkingLots(@Param("latitude") Double latitude, 
-                                          @Param("longitude") Double longitude, 
-                                          @Param("radiusInMeters") Double radiusInMeters);
 }
\ No newline at end of file
@@ -17,6 +17,8 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>
     
     List<ParkingSpot> findByParkingLotIdAndStatus(Long parkingLotId, SpotStatus status);
     
+    List<ParkingSpot> findByParkingLotIdOrderBySpotNumberAsc(Long parkingLotId);
+    
     List<ParkingSpot> findByParkingLotIdAndStatusAndSpotType(Long parkingLotId, SpotStatus status, SpotType spotType);
     
     @Query("SELECT ps FROM ParkingSpot ps WHERE ps.parkingLot.id = :parkingLotId AND ps.status = 'AVAILABLE' " +
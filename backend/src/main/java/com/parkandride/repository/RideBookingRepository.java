@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RideBookingRepository extends JpaRepository<RideBooking, Long> {
@@ -25,7 +26,25 @@ public interface RideBookingRepository extends JpaRepository<RideBooking, Long>
                                          @Param("startTime") LocalDateTime startTime,
                                          @Param("endTime") LocalDateTime endTime);
     
-    @Query("SELECT rb FROM RideBooking rb WHERE rb.isShared = true AND rb.status = 'CONFIRMED' " +
-           "AND rb.maxPassengers > (SELECT COUNT(rb2) FROM RideBooking rb2 WHERE rb2.routeOptimizationId = rb.routeOptimizationId)")
-    List<RideBooking> findAvailableSharedRides();
+    @Query("SELECT rb FROM RideBooking rb WHERE rb.isShared = true AND rb.status = :status " +
+           "AND rb.routeOptimizationId IS NOT NULL AND rb.requestedTime >= :cutoff ORDER BY rb.id")
+    List<RideBooking> findOpenSharedRides(@Param("status") RideStatus status,
+                                          @Param("cutoff") LocalDateTime cutoff);
+    
+    @Query("SELECT rb.id FROM RideBooking rb WHERE rb.isShared = true AND rb.status = :status " +
+           "AND rb.routeOptimizationId IS NULL ORDER BY rb.id")
+    List<Long> findUnmatchedSharedRideIds(@Param("status") RideStatus status);
+    
+    // Waiting for a driver; batched shared rides have no route yet and are left to the batcher
+    @Query("SELECT rb.id FROM RideBooking rb WHERE rb.status = :status AND rb.driverId IS NULL " +
+           "AND (rb.isShared IS NULL OR rb.isShared = false OR rb.routeOptimizationId IS NOT NULL) ORDER BY rb.id")
+    List<Long> findUndispatchedRideIds(@Param("status") RideStatus status);
+    
+    List<RideBooking> findByDriverIdIsNotNullAndStatusInOrderById(List<RideStatus> statuses);
+    
+    boolean existsByUserUsernameAndDriverIdAndStatusIn(String username, Long driverId, List<RideStatus> statuses);
+    
+    Optional<RideBooking> findFirstByRouteOptimizationIdAndDriverIdAndStatusInOrderById(String routeOptimizationId,
+                                                                                         Long driverId,
+                                                                                         List<RideStatus> statuses);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.parkandride.repository;
+
+import com.parkandride.model.WaitlistEntry;
+import com.parkandride.model.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    List<WaitlistEntry> findByStatus(WaitlistStatus status);
+    
+    List<WaitlistEntry> findByUserIdOrderByCreatedAtDesc(Long userId);
+    
+    @Modifying
+    @Query("UPDATE WaitlistEntry we SET we.status = 'EXPIRED', we.updatedAt = :now " +
+           "WHERE we.status = 'WAITING' AND we.startTime <= :now")
+    int expireStarted(@Param("now") LocalDateTime now);
+}
\ No newline at end of file
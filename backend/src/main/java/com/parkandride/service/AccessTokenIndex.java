@@ -0,0 +1,119 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.AccessValidationResponse;
+import com.parkandride.model.BookingStatus;
+import com.parkandride.model.ParkingBooking;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Access token to booking map for every live booking that overlaps today or
+ * tomorrow, so gate scans in that window are answered from memory. Tokens
+ * outside the window fall back to the indexed access_token column.
+ */
+@Service
+public class AccessTokenIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenIndex.class);
+
+    private static final List<BookingStatus> HOLDING_STATUSES = List.of(BookingStatus.CONFIRMED, BookingStatus.ACTIVE);
+
+    @Autowired
+    private ParkingBookingRepository parkingBookingRepository;
+
+    private volatile Map<String, AccessValidationResponse> tokens = new ConcurrentHashMap<>();
+
+    // Changes made while a reload reads the database, replayed onto the new map before the swap
+    private List<Consumer<Map<String, AccessValidationResponse>>> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 0 * * *")
+    @Transactional(readOnly = true)
+    public void reload() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+
+        Map<String, AccessValidationResponse> loaded = new ConcurrentHashMap<>();
+        LocalDateTime windowStart = LocalDate.now().atStartOfDay();
+        LocalDateTime windowEnd = windowStart.plusDays(2);
+
+        try {
+            for (ParkingBooking booking : parkingBookingRepository.findByStatusInAndStartTimeBeforeAndEndTimeAfter(
+                    HOLDING_STATUSES, windowEnd, windowStart)) {
+                if (booking.getAccessToken() != null) {
+                    loaded.put(booking.getAccessToken(), new AccessValidationResponse(booking));
+                }
+            }
+
+            synchronized (this) {
+                replay.forEach(change -> change.accept(loaded));
+                tokens = loaded;
+            }
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+        logger.info("Loaded {} gate access tokens", loaded.size());
+    }
+
+    public AccessValidationResponse get(String accessToken) {
+        return tokens.get(accessToken);
+    }
+
+    /**
+     * Publishes the booking's current state once the transaction commits; bookings
+     * that no longer hold a spot are dropped at the same point.
+     */
+    public void update(ParkingBooking booking) {
+        String accessToken = booking.getAccessToken();
+        if (accessToken == null) {
+            return;
+        }
+
+        if (!HOLDING_STATUSES.contains(booking.getStatus())) {
+            remove(accessToken);
+            return;
+        }
+
+        if (inWindow(booking)) {
+            AccessValidationResponse access = new AccessValidationResponse(booking);
+            TransactionHooks.afterCommit(() -> apply(map -> map.put(accessToken, access)));
+        }
+    }
+
+    public void remove(String accessToken) {
+        if (accessToken != null) {
+            TransactionHooks.afterCommit(() -> apply(map -> map.remove(accessToken)));
+        }
+    }
+
+    private synchronized void apply(Consumer<Map<String, AccessValidationResponse>> change) {
+        change.accept(tokens);
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    private boolean inWindow(ParkingBooking booking) {
+        LocalDateTime windowStart = LocalDate.now().atStartOfDay();
+        return booking.getStartTime().isBefore(windowStart.plusDays(2)) && booking.getEndTime().isAfter(windowStart);
+    }
+}
@@ -0,0 +1,98 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.AllocationSimulationResponse;
+import com.parkandride.dto.AllocationSimulationResult;
+import com.parkandride.exception.ResourceNotFoundException;
+import com.parkandride.model.*;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.repository.ParkingLotRepository;
+import com.parkandride.repository.ParkingSpotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays one day of a lot's bookings, in the order they were made, against an
+ * empty copy of the lot under each allocation strategy. Cancelled bookings are
+ * left out and every booking must land on a spot, so a rejection means the lot's
+ * free time was too fragmented to fit the window.
+ */
+@Service
+public class AllocationSimulator {
+
+    private static final int DAY_MINUTES = 24 * 60;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private ParkingBookingRepository parkingBookingRepository;
+
+    @Autowired
+    private SpotAllocationPolicy spotAllocationPolicy;
+
+    @Transactional(readOnly = true)
+    public AllocationSimulationResponse simulate(Long parkingLotId, LocalDate date) {
+        if (!parkingLotRepository.existsById(parkingLotId)) {
+            throw new ResourceNotFoundException("Parking lot not found");
+        }
+
+        List<ParkingSpot> spots = parkingSpotRepository.findByParkingLotIdOrderBySpotNumberAsc(parkingLotId).stream()
+                .filter(spot -> spot.getStatus() != SpotStatus.OUT_OF_ORDER)
+                .toList();
+
+        LocalDateTime dayStart = date.atStartOfDay();
+        List<long[]> windows = new ArrayList<>();
+        for (ParkingBooking booking : parkingBookingRepository
+                .findByParkingLotIdAndStartTimeGreaterThanEqualAndStartTimeLessThanOrderByCreatedAtAsc(
+                        parkingLotId, dayStart, dayStart.plusDays(1))) {
+            if (booking.getStatus() != BookingStatus.CANCELLED) {
+                windows.add(new long[]{LotAvailabilityIndex.toMinutes(booking.getStartTime()),
+                        LotAvailabilityIndex.toMinutes(booking.getEndTime())});
+            }
+        }
+
+        List<AllocationSimulationResult> results = new ArrayList<>();
+        for (SpotAllocationStrategy strategy : SpotAllocationStrategy.values()) {
+            results.add(replay(strategy, spots, windows, LotAvailabilityIndex.toMinutes(dayStart)));
+        }
+        return new AllocationSimulationResponse(parkingLotId, date, spots.size(), results);
+    }
+
+    private AllocationSimulationResult replay(SpotAllocationStrategy strategy, List<ParkingSpot> spots,
+                                              List<long[]> windows, long dayStart) {
+        // Two days of slots so bookings starting late in the day still narrow the search
+        LotSchedule schedule = new LotSchedule(spots.size(),
+                spots.stream().map(ParkingSpot::getId).toList(),
+                spots.stream().map(spot -> spot.getSpotType() != null ? spot.getSpotType() : SpotType.REGULAR).toList(),
+                2 * DAY_MINUTES / SlotOccupancyMatrix.SLOT_MINUTES,
+                SlotOccupancyMatrix.slotOf(dayStart));
+        List<SpotType> candidates = spotAllocationPolicy.candidates(null);
+
+        int accepted = 0;
+        long bookedMinutes = 0;
+        long dayEnd = dayStart + DAY_MINUTES;
+        for (int i = 0; i < windows.size(); i++) {
+            long start = windows.get(i)[0];
+            long end = windows.get(i)[1];
+            Long spotId = end > start ? schedule.findFreeSpot(start, end, candidates, strategy) : null;
+            if (spotId != null) {
+                schedule.addBooking(i, spotId, start, end);
+                accepted++;
+                bookedMinutes += Math.max(0, Math.min(end, dayEnd) - Math.max(start, dayStart));
+            }
+        }
+
+        double utilization = spots.isEmpty() ? 0.0 : (double) bookedMinutes / ((long) spots.size() * DAY_MINUTES);
+        return new AllocationSimulationResult(strategy.name(), windows.size(), accepted,
+                utilization, bookedMinutes / 60.0);
+    }
+}
@@ -0,0 +1,194 @@
+package com.parkandride.service;
+
+import com.parkandride.model.BookingStatus;
+import com.parkandride.model.ParkingLot;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.repository.ParkingLotRepository;
+import com.parkandride.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live available-spot counts per parking lot. Booking paths adjust the counters
+ * in memory and read endpoints serve them directly; a background job writes them
+ * back to parking_lots in batches and corrects drift against the bookings table
+ * for lots with no booking transaction in flight.
+ */
+@Component
+public class AvailabilityCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityCounters.class);
+
+    private static final List<BookingStatus> HOLDING_STATUSES = List.of(BookingStatus.CONFIRMED, BookingStatus.ACTIVE);
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private ParkingBookingRepository parkingBookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentMap<Long, LotCounter> counters = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        Map<Long, Long> holding = countHoldingBookings();
+        for (ParkingLot parkingLot : parkingLotRepository.findAll()) {
+            long expected = parkingLot.getTotalSpots() - holding.getOrDefault(parkingLot.getId(), 0L);
+            LotCounter counter = counter(parkingLot);
+            counter.add(expected - counter.available.sum());
+            if (expected != parkingLot.getAvailableSpots()) {
+                dirty.add(parkingLot.getId());
+            }
+        }
+        logger.info("Loaded availability counters for {} parking lots", counters.size());
+    }
+
+    public int get(ParkingLot parkingLot) {
+        return (int) Math.max(0, counter(parkingLot).available.sum());
+    }
+
+    public void adjust(ParkingLot parkingLot, int delta) {
+        LotCounter counter = counter(parkingLot);
+        counter.inFlight.incrementAndGet();
+        counter.add(delta);
+        dirty.add(parkingLot.getId());
+
+        TransactionHooks.afterRollback(() -> counter.add(-delta));
+        TransactionHooks.afterCompletion(counter::settle);
+    }
+
+    /**
+     * Overlays the live counts onto lots read from the database or a cache.
+     */
+    public List<ParkingLot> applyTo(List<ParkingLot> parkingLots) {
+        parkingLots.forEach(parkingLot -> parkingLot.setAvailableSpots(get(parkingLot)));
+        return parkingLots;
+    }
+
+    public void refresh(ParkingLot parkingLot) {
+        long holding = parkingBookingRepository.countByParkingLotIdAndStatusIn(parkingLot.getId(), HOLDING_STATUSES);
+        LotCounter counter = counter(parkingLot);
+        counter.add(parkingLot.getTotalSpots() - holding - counter.available.sum());
+        dirty.add(parkingLot.getId());
+    }
+
+    public void remove(Long parkingLotId) {
+        counters.remove(parkingLotId);
+        dirty.remove(parkingLotId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.flush-interval-ms:5000}")
+    @Transactional
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        for (Long parkingLotId : dirty) {
+            dirty.remove(parkingLotId);
+            LotCounter counter = counters.get(parkingLotId);
+            if (counter != null) {
+                updates.add(new Object[]{(int) Math.max(0, counter.available.sum()), parkingLotId});
+            }
+        }
+
+        jdbcTemplate.batchUpdate("UPDATE parking_lots SET available_spots = ? WHERE id = ?", updates);
+        logger.debug("Flushed availability for {} parking lots", updates.size());
+    }
+
+    /**
+     * Corrects counters that disagree with the committed bookings. A lot is only
+     * compared if it had no booking in flight when the bookings were counted and
+     * none started or finished until the comparison, so the database and the
+     * counter describe the same committed state; busy lots wait for the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.availability.reconcile-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public synchronized void reconcile() {
+        Map<Long, Long> quietVersions = new HashMap<>();
+        counters.forEach((parkingLotId, counter) -> {
+            long version = counter.version.get();
+            if (counter.inFlight.get() == 0) {
+                quietVersions.put(parkingLotId, version);
+            }
+        });
+
+        Map<Long, Long> holding = countHoldingBookings();
+        for (ParkingLot parkingLot : parkingLotRepository.findAll()) {
+            Long parkingLotId = parkingLot.getId();
+            LotCounter counter = counters.get(parkingLotId);
+            Long version = quietVersions.get(parkingLotId);
+            if (counter == null || version == null) {
+                continue;
+            }
+
+            long expected = parkingLot.getTotalSpots() - holding.getOrDefault(parkingLotId, 0L);
+            long drift = expected - counter.available.sum();
+            // Read the count before re-checking the version; adds after this point commute with the correction
+            if (drift != 0 && counter.version.get() == version) {
+                counter.add(drift);
+                dirty.add(parkingLotId);
+                logger.warn("Corrected availability drift of {} for parking lot {}", drift, parkingLotId);
+            }
+        }
+    }
+
+    private LotCounter counter(ParkingLot parkingLot) {
+        return counters.computeIfAbsent(parkingLot.getId(), id -> new LotCounter(
+                parkingLot.getAvailableSpots() != null ? parkingLot.getAvailableSpots() : parkingLot.getTotalSpots()));
+    }
+
+    private Map<Long, Long> countHoldingBookings() {
+        Map<Long, Long> holding = new HashMap<>();
+        for (Object[] row : parkingBookingRepository.countByParkingLotAndStatusIn(HOLDING_STATUSES)) {
+            holding.put((Long) row[0], (Long) row[1]);
+        }
+        return holding;
+    }
+
+    private static final class LotCounter {
+        private final LongAdder available = new LongAdder();
+        // Adjustments whose transaction has not finished yet
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Bumped on every change, so reconcile can tell a lot stayed quiet
+        private final AtomicLong version = new AtomicLong();
+
+        LotCounter(long available) {
+            this.available.add(available);
+        }
+
+        void add(long delta) {
+            available.add(delta);
+            version.incrementAndGet();
+        }
+
+        void settle() {
+            inFlight.decrementAndGet();
+            version.incrementAndGet();
+        }
+    }
+}
\ No newline at end of file
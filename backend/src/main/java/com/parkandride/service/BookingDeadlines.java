@@ -0,0 +1,89 @@
+package com.parkandride.service;
+
+import com.parkandride.model.BookingType;
+import com.parkandride.model.ParkingBooking;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.util.HierarchicalTimingWheel;
+import com.parkandride.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Arrival deadlines of confirmed bookings, kept in a timing wheel with one-minute
+ * ticks. Hourly bookings must start within the grace period; daily and monthly
+ * bookings get the longer auto-cancel window. Bookings that start or are cancelled
+ * stay in the wheel and are skipped when their deadline fires.
+ */
+@Component
+public class BookingDeadlines {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingDeadlines.class);
+
+    // 64 buckets per level over four levels covers about 31 years of minutes
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_LEVELS = 4;
+
+    @Autowired
+    private ParkingBookingRepository parkingBookingRepository;
+
+    @Value("${app.booking.grace-period-minutes:15}")
+    private int gracePeriodMinutes;
+
+    @Value("${app.booking.auto-cancel-hours:2}")
+    private int autoCancelHours;
+
+    private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(WHEEL_BITS, WHEEL_LEVELS,
+            LotAvailabilityIndex.toMinutes(LocalDateTime.now()));
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        List<Object[]> pending = parkingBookingRepository.findPendingArrivals();
+        for (Object[] row : pending) {
+            wheel.schedule((Long) row[0], deadline((LocalDateTime) row[1], (BookingType) row[2]));
+        }
+        logger.info("Scheduled arrival deadlines for {} bookings", pending.size());
+    }
+
+    /**
+     * Starts the booking's arrival clock once the transaction commits.
+     */
+    public void register(ParkingBooking booking) {
+        long bookingId = booking.getId();
+        long deadline = deadline(booking.getStartTime(), booking.getBookingType());
+        TransactionHooks.afterCommit(() -> wheel.schedule(bookingId, deadline));
+    }
+
+    /**
+     * Puts ids back for the next tick, e.g. after releasing them failed.
+     */
+    public void retry(List<Long> bookingIds) {
+        long nextTick = LotAvailabilityIndex.toMinutes(LocalDateTime.now()) + 1;
+        bookingIds.forEach(bookingId -> wheel.schedule(bookingId, nextTick));
+    }
+
+    public int advance(LongConsumer expired) {
+        return wheel.advanceTo(LotAvailabilityIndex.toMinutes(LocalDateTime.now()), expired);
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+
+    private long deadline(LocalDateTime startTime, BookingType bookingType) {
+        LocalDateTime deadline = bookingType == null || bookingType == BookingType.HOURLY
+                ? startTime.plusMinutes(gracePeriodMinutes)
+                : startTime.plusHours(autoCancelHours);
+        return LotAvailabilityIndex.toMinutes(deadline);
+    }
+}
@@ -0,0 +1,49 @@
+package com.parkandride.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fires expired arrival deadlines and hands them to {@link ParkingService} in
+ * chunks, each released in its own transaction.
+ */
+@Component
+public class BookingLifecycleScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingLifecycleScheduler.class);
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private BookingDeadlines bookingDeadlines;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Scheduled(fixedDelayString = "${app.booking.lifecycle-tick-ms:30000}")
+    public void tick() {
+        List<Long> expired = new ArrayList<>();
+        bookingDeadlines.advance(expired::add);
+
+        int released = 0;
+        for (int from = 0; from < expired.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = expired.subList(from, Math.min(from + CHUNK_SIZE, expired.size()));
+            try {
+                released += parkingService.releaseNoShows(chunk);
+            } catch (RuntimeException e) {
+                logger.error("Failed to release {} no-show bookings, retrying next tick", chunk.size(), e);
+                bookingDeadlines.retry(chunk);
+            }
+        }
+
+        if (released > 0) {
+            logger.info("Marked {} bookings as no-show", released);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.DriverLocationResponse;
+import com.parkandride.repository.DriverLocationJdbcRepository;
+import com.parkandride.util.LocationBatchCodec;
+import com.parkandride.util.LocationRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latest known position per driver, fed by batched location pings. Request
+ * threads only decode and copy pings into a ring buffer; one writer thread
+ * drains it into a primitive-array table, moves the driver in the dispatch
+ * pool and, when enabled, stages a downsampled history that a scheduled job
+ * inserts in JDBC batches.
+ */
+@Component
+public class DriverLocationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverLocationStore.class);
+
+    private static final int DRAIN_LIMIT = 4096;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // History batches waiting for the database beyond this are dropped
+    private static final int MAX_PENDING_HISTORY_BATCHES = 64;
+
+    @Autowired
+    private DriverPool driverPool;
+
+    @Autowired
+    private DriverLocationJdbcRepository driverLocationJdbcRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.locations.ring-capacity:65536}")
+    private int ringCapacity;
+
+    @Value("${app.locations.history.enabled:false}")
+    private boolean historyEnabled;
+
+    @Value("${app.locations.history.interval-seconds:30}")
+    private long historyIntervalSeconds;
+
+    @Value("${app.locations.history.batch-size:500}")
+    private int historyBatchSize;
+
+    @Value("${app.locations.history.flush-interval-ms:5000}")
+    private long historyFlushMillis;
+
+    private LocationRingBuffer ring;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Dense slot per driver; a slot is published here only after the table holding it
+    private final ConcurrentMap<Long, Integer> slots = new ConcurrentHashMap<>();
+    private volatile Table table = new Table(1024);
+    private int used;
+
+    // Staged history, owned by the writer thread until handed off
+    private HistoryBatch staged;
+    private long stagedSince;
+    private final ConcurrentLinkedQueue<HistoryBatch> pendingHistory = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingHistoryBatches = new AtomicInteger();
+
+    private Counter received;
+    private Counter dropped;
+    private Counter rejected;
+    private Counter stale;
+    private Counter unknownDriver;
+    private Counter historyDropped;
+    private Counter failed;
+
+    @PostConstruct
+    public void start() {
+        ring = new LocationRingBuffer(ringCapacity);
+        received = meterRegistry.counter("locations.received");
+        dropped = meterRegistry.counter("locations.dropped");
+        rejected = meterRegistry.counter("locations.rejected");
+        stale = meterRegistry.counter("locations.stale");
+        unknownDriver = meterRegistry.counter("locations.unknown.driver");
+        historyDropped = meterRegistry.counter("locations.history.dropped");
+        failed = meterRegistry.counter("locations.failed");
+        meterRegistry.gauge("locations.ring.depth", ring, LocationRingBuffer::size);
+
+        running = true;
+        writer = new Thread(this::runWriter, "location-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        handOffHistory();
+        flushHistory();
+    }
+
+    /**
+     * Queues a decoded batch for the writer and returns how many pings fit; the
+     * rest are dropped so a burst never blocks request threads.
+     */
+    public int offer(LocationBatchCodec.Batch batch) {
+        int accepted = ring.offer(batch.getDriverIds(), batch.getTimestamps(),
+                batch.getLatitudes(), batch.getLongitudes(), 0, batch.getSize());
+        received.increment(batch.getSize() + batch.getRejected());
+        rejected.increment(batch.getRejected());
+        dropped.increment(batch.getSize() - accepted);
+        return accepted;
+    }
+
+    public void offer(long driverId, long timestampMillis, double latitude, double longitude) {
+        int accepted = ring.offer(new long[]{driverId}, new long[]{timestampMillis},
+                new double[]{latitude}, new double[]{longitude}, 0, 1);
+        received.increment();
+        dropped.increment(1 - accepted);
+    }
+
+    public DriverLocationResponse getLatest(Long driverId) {
+        Integer slot = slots.get(driverId);
+        if (slot == null) {
+            return null;
+        }
+
+        // Seqlock read: retry while the writer is mid-update on this slot
+        Table current = table;
+        while (true) {
+            long version = current.versions.get(slot);
+            if ((version & 1) == 0) {
+                double latitude = current.latitudes[slot];
+                double longitude = current.longitudes[slot];
+                long timestamp = current.timestamps[slot];
+                VarHandle.acquireFence();
+                if (current.versions.get(slot) == version) {
+                    LocalDateTime recordedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+                    return new DriverLocationResponse(driverId, latitude, longitude, recordedAt);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public int getTrackedDrivers() {
+        return slots.size();
+    }
+
+    public int getQueueDepth() {
+        return ring.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.locations.history.flush-interval-ms:5000}")
+    public void flushHistory() {
+        for (HistoryBatch batch = pendingHistory.poll(); batch != null; batch = pendingHistory.poll()) {
+            pendingHistoryBatches.decrementAndGet();
+            driverLocationJdbcRepository.insertAll(batch.driverIds, batch.timestamps,
+                    batch.latitudes, batch.longitudes, batch.size);
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            try {
+                int drained = ring.drain(this::applySafely, DRAIN_LIMIT);
+                if (staged != null && System.currentTimeMillis() - stagedSince >= historyFlushMillis) {
+                    handOffHistory();
+                }
+                if (drained == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Location writer failed", e);
+            }
+        }
+        while (ring.drain(this::applySafely, DRAIN_LIMIT) > 0) {
+            // Apply whatever was accepted before shutdown
+        }
+    }
+
+    // A ping that fails is dropped here; letting it escape would leave the ring stuck on it
+    private void applySafely(long driverId, long timestampMillis, double latitude, double longitude) {
+        try {
+            apply(driverId, timestampMillis, latitude, longitude);
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.error("Location writer dropped a ping for driver {}", driverId, e);
+        }
+    }
+
+    private void apply(long driverId, long timestampMillis, double latitude, double longitude) {
+        Integer slot = slots.get(driverId);
+        Table current = table;
+        if (slot != null && timestampMillis < current.timestamps[slot]) {
+            stale.increment();
+            return;
+        }
+        if (!driverPool.updateLocation(driverId, latitude, longitude)) {
+            unknownDriver.increment();
+            return;
+        }
+
+        boolean added = slot == null;
+        if (added) {
+            slot = used++;
+            if (slot == current.capacity()) {
+                current = current.grow();
+                table = current;
+            }
+        }
+
+        current.versions.incrementAndGet(slot);
+        VarHandle.storeStoreFence();
+        current.latitudes[slot] = latitude;
+        current.longitudes[slot] = longitude;
+        current.timestamps[slot] = timestampMillis;
+        current.versions.incrementAndGet(slot);
+
+        if (added) {
+            slots.put(driverId, slot);
+        }
+        if (historyEnabled && timestampMillis - current.historyTimestamps[slot] >= TimeUnit.SECONDS.toMillis(historyIntervalSeconds)) {
+            current.historyTimestamps[slot] = timestampMillis;
+            stageHistory(driverId, timestampMillis, latitude, longitude);
+        }
+    }
+
+    private void stageHistory(long driverId, long timestampMillis, double latitude, double longitude) {
+        if (staged == null) {
+            staged = new HistoryBatch(historyBatchSize);
+            stagedSince = System.currentTimeMillis();
+        }
+        staged.add(driverId, timestampMillis, latitude, longitude);
+        if (staged.size == historyBatchSize) {
+            handOffHistory();
+        }
+    }
+
+    private void handOffHistory() {
+        if (staged == null) {
+            return;
+        }
+        if (pendingHistoryBatches.incrementAndGet() > MAX_PENDING_HISTORY_BATCHES) {
+            pendingHistoryBatches.decrementAndGet();
+            historyDropped.increment(staged.size);
+        } else {
+            pendingHistory.add(staged);
+        }
+        staged = null;
+    }
+
+    private static final class Table {
+        private final long[] timestamps;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final long[] historyTimestamps;
+        private final AtomicLongArray versions;
+
+        Table(int capacity) {
+            this(new long[capacity], new double[capacity], new double[capacity], new long[capacity], new AtomicLongArray(capacity));
+        }
+
+        private Table(long[] timestamps, double[] latitudes, double[] longitudes, long[] historyTimestamps,
+                      AtomicLongArray versions) {
+            this.timestamps = timestamps;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.historyTimestamps = historyTimestamps;
+            this.versions = versions;
+        }
+
+        int capacity() {
+            return timestamps.length;
+        }
+
+        // Only the writer grows the table; readers keep using the old copy until they reload
+        Table grow() {
+            int capacity = capacity() * 2;
+            AtomicLongArray grownVersions = new AtomicLongArray(capacity);
+            for (int i = 0; i < versions.length(); i++) {
+                grownVersions.set(i, versions.get(i));
+            }
+            return new Table(Arrays.copyOf(timestamps, capacity), Arrays.copyOf(latitudes, capacity),
+                    Arrays.copyOf(longitudes, capacity), Arrays.copyOf(historyTimestamps, capacity), grownVersions);
+        }
+    }
+
+    private static final class HistoryBatch {
+        private final long[] driverIds;
+        private final long[] timestamps;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private int size;
+
+        HistoryBatch(int capacity) {
+            driverIds = new long[capacity];
+            timestamps = new long[capacity];
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+        }
+
+        void add(long driverId, long timestampMillis, double latitude, double longitude) {
+            driverIds[size] = driverId;
+            timestamps[size] = timestampMillis;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+    }
+}
\ No newline at end of file
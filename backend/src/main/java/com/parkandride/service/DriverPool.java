@@ -0,0 +1,391 @@
+package com.parkandride.service;
+
+import com.parkandride.model.Driver;
+import com.parkandride.model.RideBooking;
+import com.parkandride.model.RideStatus;
+import com.parkandride.model.RideType;
+import com.parkandride.repository.DriverRepository;
+import com.parkandride.repository.RideBookingRepository;
+import com.parkandride.util.GeoMath;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live drivers by ride type, bucketed into grid cells by their last known
+ * position. Dispatch searches rings of cells outward from the pickup and claims
+ * the nearest free driver with a CAS on the driver's ride slot, so concurrent
+ * dispatches never hand the same driver two rides.
+ */
+@Component
+public class DriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverPool.class);
+
+    private static final long FREE = 0L;
+
+    // Parked in a replaced state's ride slot so no claim can land on it afterwards
+    private static final long RETIRED = -1L;
+
+    // Rides that keep their driver busy
+    static final List<RideStatus> BUSY_STATUSES = List.of(
+            RideStatus.CONFIRMED, RideStatus.DRIVER_ASSIGNED, RideStatus.PICKUP, RideStatus.IN_PROGRESS);
+
+    // Longitude cells are sized for this latitude bound, so they are never narrower than a cell
+    private static final double MIN_COS_LATITUDE = 0.5;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private RideBookingRepository rideBookingRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.dispatch.cell-size-meters:1000}")
+    private double cellSizeMeters;
+
+    @Value("${app.dispatch.max-radius-meters:10000}")
+    private double maxRadiusMeters;
+
+    private final ConcurrentMap<Long, DriverState> drivers = new ConcurrentHashMap<>();
+    private final Map<RideType, ConcurrentMap<Long, Set<DriverState>>> cells = new EnumMap<>(RideType.class);
+
+    // Independent record of who holds which driver, to catch a claim that slips past the CAS
+    private final ConcurrentMap<Long, Long> assignments = new ConcurrentHashMap<>();
+
+    private final Map<RideType, Timer> dispatchTimers = new EnumMap<>(RideType.class);
+    private Counter claimConflicts;
+    private Counter doubleAssignments;
+    private Counter noDriver;
+
+    @PostConstruct
+    public void init() {
+        for (RideType rideType : RideType.values()) {
+            cells.put(rideType, new ConcurrentHashMap<>());
+            dispatchTimers.put(rideType, Timer.builder("dispatch.latency")
+                    .description("Time to find and claim the nearest free driver")
+                    .tag("rideType", rideType.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        claimConflicts = meterRegistry.counter("dispatch.claim.conflicts");
+        doubleAssignments = meterRegistry.counter("dispatch.double.assignments");
+        noDriver = meterRegistry.counter("dispatch.no.driver");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        driverRepository.findByActiveTrue().forEach(this::register);
+
+        // Pool members share one driver and the claim sits with the lowest-id active member, as after a handover
+        int busy = 0;
+        Map<Long, String> routes = new HashMap<>();
+        for (RideBooking ride : rideBookingRepository.findByDriverIdIsNotNullAndStatusInOrderById(BUSY_STATUSES)) {
+            DriverState driver = drivers.get(ride.getDriverId());
+            if (driver == null) {
+                continue;
+            }
+            if (driver.rideId.compareAndSet(FREE, ride.getId())) {
+                assignments.put(driver.id, ride.getId());
+                routes.put(driver.id, ride.getRouteOptimizationId());
+                busy++;
+            } else if (ride.getRouteOptimizationId() == null
+                    || !ride.getRouteOptimizationId().equals(routes.get(driver.id))) {
+                doubleAssignments.increment();
+                logger.error("Driver {} is on ride {} and ride {} of another route", driver.id, driver.rideId.get(), ride.getId());
+            }
+        }
+        logger.info("Loaded {} drivers, {} on a ride", drivers.size(), busy);
+    }
+
+    /**
+     * Adds or replaces a driver; a replaced driver keeps its current ride. The
+     * old state's ride is taken over with one swap before the new state is
+     * visible, so a dispatch racing the replacement either lands on the old state
+     * and is carried over, or finds the old state retired.
+     */
+    public void register(Driver driver) {
+        DriverState[] replaced = new DriverState[1];
+        DriverState state = drivers.compute(driver.getId(), (id, previous) -> {
+            if (previous == null) {
+                return new DriverState(driver, FREE);
+            }
+            previous.removed = true;
+            replaced[0] = previous;
+            return new DriverState(driver, previous.rideId.getAndSet(RETIRED));
+        });
+        if (replaced[0] != null) {
+            remove(replaced[0]);
+        }
+        if (driver.getLatitude() != null && driver.getLongitude() != null) {
+            move(state, driver.getLatitude(), driver.getLongitude());
+        }
+    }
+
+    public void deregister(Long driverId) {
+        DriverState state = drivers.remove(driverId);
+        if (state != null) {
+            state.removed = true;
+            remove(state);
+        }
+    }
+
+    public boolean updateLocation(Long driverId, double latitude, double longitude) {
+        DriverState state = drivers.get(driverId);
+        if (state == null) {
+            return false;
+        }
+        move(state, latitude, longitude);
+        return true;
+    }
+
+    /**
+     * Claims the nearest free driver of the ride type within the dispatch radius,
+     * or returns null. Without a pickup position any free driver of the type is taken.
+     */
+    public DriverState dispatch(RideType rideType, Double latitude, Double longitude, Long rideId) {
+        return dispatchTimers.get(rideType).record(() -> {
+            DriverState driver = latitude != null && longitude != null
+                    ? claimNearest(rideType, latitude, longitude, rideId)
+                    : claimAny(rideType, rideId);
+            if (driver == null) {
+                noDriver.increment();
+            }
+            return driver;
+        });
+    }
+
+    /**
+     * Frees a driver if it is still held by the given ride.
+     */
+    public boolean release(Long driverId, Long rideId) {
+        DriverState state = driverId != null ? drivers.get(driverId) : null;
+        if (state != null && state.rideId.compareAndSet(rideId, FREE)) {
+            assignments.remove(driverId, rideId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Hands a driver from one ride to another sharing the vehicle, if the first
+     * still holds it.
+     */
+    public boolean transfer(Long driverId, Long fromRideId, Long toRideId) {
+        DriverState state = driverId != null ? drivers.get(driverId) : null;
+        if (state != null && state.rideId.compareAndSet(fromRideId, toRideId)) {
+            assignments.replace(driverId, fromRideId, toRideId);
+            return true;
+        }
+        return false;
+    }
+
+    public DriverState get(Long driverId) {
+        return drivers.get(driverId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (RideType rideType : RideType.values()) {
+            long total = drivers.values().stream().filter(driver -> driver.rideType == rideType).count();
+            long free = drivers.values().stream().filter(driver -> driver.rideType == rideType && driver.isFree()).count();
+            Timer timer = dispatchTimers.get(rideType);
+            Map<String, Object> byType = new LinkedHashMap<>();
+            byType.put("drivers", total);
+            byType.put("free", free);
+            byType.put("dispatches", timer.count());
+            byType.put("meanDispatchMicros", timer.mean(TimeUnit.MICROSECONDS));
+            byType.put("maxDispatchMicros", timer.max(TimeUnit.MICROSECONDS));
+            stats.put(rideType.name(), byType);
+        }
+        stats.put("claimConflicts", (long) claimConflicts.count());
+        stats.put("doubleAssignments", (long) doubleAssignments.count());
+        stats.put("noDriver", (long) noDriver.count());
+        return stats;
+    }
+
+    private DriverState claimNearest(RideType rideType, double latitude, double longitude, Long rideId) {
+        ConcurrentMap<Long, Set<DriverState>> byCell = cells.get(rideType);
+        long row = row(latitude);
+        long col = col(longitude);
+        int maxRing = (int) Math.ceil(maxRadiusMeters / cellSizeMeters);
+
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(candidate -> candidate.distance));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (long r = row - ring; r <= row + ring; r++) {
+                // Only the border of the ring; inner cells were scanned already
+                long step = r == row - ring || r == row + ring ? 1 : Math.max(1, 2L * ring);
+                for (long c = col - ring; c <= col + ring; c += step) {
+                    Set<DriverState> bucket = byCell.get(cell(r, c));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (DriverState driver : bucket) {
+                        if (driver.isFree()) {
+                            double distance = GeoMath.equirectangularMeters(latitude, longitude, driver.latitude, driver.longitude);
+                            if (distance <= maxRadiusMeters) {
+                                candidates.add(new Candidate(driver, distance));
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Anything beyond this ring is at least ring cells away
+            double reach = ring == maxRing ? Double.MAX_VALUE : ring * cellSizeMeters;
+            while (!candidates.isEmpty() && candidates.peek().distance <= reach) {
+                DriverState driver = candidates.poll().driver;
+                if (claim(driver, rideId)) {
+                    return driver;
+                }
+            }
+        }
+        return null;
+    }
+
+    private DriverState claimAny(RideType rideType, Long rideId) {
+        for (DriverState driver : drivers.values()) {
+            if (driver.rideType == rideType && driver.isFree() && claim(driver, rideId)) {
+                return driver;
+            }
+        }
+        return null;
+    }
+
+    private boolean claim(DriverState driver, Long rideId) {
+        if (driver.removed || !driver.rideId.compareAndSet(FREE, rideId)) {
+            claimConflicts.increment();
+            return false;
+        }
+        Long held = assignments.put(driver.id, rideId);
+        if (held != null && !held.equals(rideId)) {
+            doubleAssignments.increment();
+            logger.error("Driver {} claimed for ride {} while still held by ride {}", driver.id, rideId, held);
+        }
+        return true;
+    }
+
+    // One writer per driver; the driver is added to its new cell before leaving the old one
+    private void move(DriverState driver, double latitude, double longitude) {
+        synchronized (driver) {
+            driver.latitude = latitude;
+            driver.longitude = longitude;
+            long cell = cell(row(latitude), col(longitude));
+            if (driver.removed || (driver.placed && cell == driver.cell)) {
+                return;
+            }
+            ConcurrentMap<Long, Set<DriverState>> byCell = cells.get(driver.rideType);
+            byCell.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(driver);
+            if (driver.placed) {
+                Set<DriverState> previous = byCell.get(driver.cell);
+                if (previous != null) {
+                    previous.remove(driver);
+                }
+            }
+            driver.cell = cell;
+            driver.placed = true;
+        }
+    }
+
+    private void remove(DriverState driver) {
+        synchronized (driver) {
+            if (driver.placed) {
+                Set<DriverState> bucket = cells.get(driver.rideType).get(driver.cell);
+                if (bucket != null) {
+                    bucket.remove(driver);
+                }
+                driver.placed = false;
+            }
+        }
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor(latitude * GeoMath.METERS_PER_DEGREE / cellSizeMeters);
+    }
+
+    private long col(double longitude) {
+        return (long) Math.floor(longitude * GeoMath.METERS_PER_DEGREE * MIN_COS_LATITUDE / cellSizeMeters);
+    }
+
+    private static long cell(long row, long col) {
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    private static class Candidate {
+        private final DriverState driver;
+        private final double distance;
+
+        Candidate(DriverState driver, double distance) {
+            this.driver = driver;
+            this.distance = distance;
+        }
+    }
+
+    public static class DriverState {
+        private final Long id;
+        private final RideType rideType;
+        private final String name;
+        private final String phone;
+        private final String vehicleNumber;
+        private final String vehicleModel;
+        private final AtomicLong rideId;
+        private volatile double latitude;
+        private volatile double longitude;
+        private volatile boolean removed;
+        private long cell;
+        private boolean placed;
+
+        DriverState(Driver driver, long rideId) {
+            this.rideId = new AtomicLong(rideId);
+            this.id = driver.getId();
+            this.rideType = driver.getRideType();
+            this.name = driver.getName();
+            this.phone = driver.getPhone();
+            this.vehicleNumber = driver.getVehicleNumber();
+            this.vehicleModel = driver.getVehicleModel();
+        }
+
+        public boolean isFree() {
+            return rideId.get() == FREE;
+        }
+
+        public Long getId() { return id; }
+        public RideType getRideType() { return rideType; }
+        public String getName() { return name; }
+        public String getPhone() { return phone; }
+        public String getVehicleNumber() { return vehicleNumber; }
+        public String getVehicleModel() { return vehicleModel; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+
+        public Long getRideId() {
+            long current = rideId.get();
+            return current == FREE || current == RETIRED ? null : current;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.parkandride.service;
+
+import com.parkandride.model.Driver;
+import com.parkandride.model.RideType;
+import com.parkandride.repository.DriverRepository;
+import com.parkandride.util.GeoMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for driver apps, enabled with app.dispatch.simulator.enabled,
+ * which only the local profile turns on. Registers a fleet per ride type around
+ * a centre point and moves every driver on a random walk each tick, sending
+ * positions through location ingestion.
+ */
+@Component
+@ConditionalOnProperty(name = "app.dispatch.simulator.enabled", havingValue = "true")
+public class DriverSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverSimulator.class);
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DriverPool driverPool;
+
+    @Autowired
+    private DriverLocationStore driverLocationStore;
+
+    @Value("${app.dispatch.simulator.drivers-per-type:25}")
+    private int driversPerType;
+
+    @Value("${app.dispatch.simulator.center-latitude:28.6139}")
+    private double centerLatitude;
+
+    @Value("${app.dispatch.simulator.center-longitude:77.2090}")
+    private double centerLongitude;
+
+    @Value("${app.dispatch.simulator.radius-meters:8000}")
+    private double radiusMeters;
+
+    @Value("${app.dispatch.simulator.speed-mps:8}")
+    private double speedMetersPerSecond;
+
+    @Value("${app.dispatch.simulator.tick-ms:2000}")
+    private long tickMillis;
+
+    private long[] driverIds = new long[0];
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+    private double[] headings = new double[0];
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        List<Driver> fleet = new ArrayList<>();
+        for (RideType rideType : RideType.values()) {
+            for (int i = 0; i < driversPerType; i++) {
+                String vehicleNumber = "SIM-" + rideType.name().charAt(0) + String.format("%04d", i);
+                if (driverRepository.existsByVehicleNumber(vehicleNumber)) {
+                    continue;
+                }
+                Driver driver = new Driver("Sim Driver " + vehicleNumber.substring(4), "+91" + (8000000000L + fleet.size()),
+                        vehicleNumber, null, rideType);
+                double[] position = randomPosition();
+                driver.setLatitude(position[0]);
+                driver.setLongitude(position[1]);
+                fleet.add(driver);
+            }
+        }
+        driverRepository.saveAll(fleet).forEach(driverPool::register);
+
+        List<Driver> simulated = driverRepository.findByActiveTrue().stream()
+                .filter(driver -> driver.getVehicleNumber().startsWith("SIM-"))
+                .toList();
+        int size = simulated.size();
+        driverIds = new long[size];
+        latitudes = new double[size];
+        longitudes = new double[size];
+        headings = new double[size];
+        for (int i = 0; i < size; i++) {
+            Driver driver = simulated.get(i);
+            driverIds[i] = driver.getId();
+            latitudes[i] = driver.getLatitude();
+            longitudes[i] = driver.getLongitude();
+            headings[i] = ThreadLocalRandom.current().nextDouble(2 * Math.PI);
+        }
+        logger.info("Simulating {} drivers within {} m of ({}, {})", size, radiusMeters, centerLatitude, centerLongitude);
+    }
+
+    @Scheduled(fixedDelayString = "${app.dispatch.simulator.tick-ms:2000}")
+    public synchronized void tick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        double step = speedMetersPerSecond * tickMillis / 1000.0;
+        double cosCenter = GeoMath.cosLatitude(centerLatitude);
+        for (int i = 0; i < driverIds.length; i++) {
+            // Drift the heading a little; turn back towards the centre when leaving the area
+            headings[i] += random.nextGaussian() * 0.3;
+            if (GeoMath.equirectangularMeters(latitudes[i], longitudes[i], centerLatitude, centerLongitude) > radiusMeters) {
+                headings[i] = Math.atan2((centerLongitude - longitudes[i]) * cosCenter, centerLatitude - latitudes[i]);
+            }
+            latitudes[i] += step * Math.cos(headings[i]) / GeoMath.METERS_PER_DEGREE;
+            longitudes[i] += step * Math.sin(headings[i]) / (GeoMath.METERS_PER_DEGREE * cosCenter);
+            driverLocationStore.offer(driverIds[i], now, latitudes[i], longitudes[i]);
+        }
+    }
+
+    private double[] randomPosition() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double distance = radiusMeters * Math.sqrt(random.nextDouble());
+        double bearing = random.nextDouble(2 * Math.PI);
+        return new double[]{
+                centerLatitude + distance * Math.cos(bearing) / GeoMath.METERS_PER_DEGREE,
+                centerLongitude + distance * Math.sin(bearing) / (GeoMath.METERS_PER_DEGREE * GeoMath.cosLatitude(centerLatitude))
+        };
+    }
+}
\ No newline at end of file
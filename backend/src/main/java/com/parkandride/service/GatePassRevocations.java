@@ -0,0 +1,142 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.RevocationListResponse;
+import com.parkandride.model.BookingStatus;
+import com.parkandride.model.ParkingBooking;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-lot lists of bookings whose gate passes were revoked before they expired.
+ * Barrier controllers poll with the last version they saw and get either the ids
+ * added since then or, after entries have been pruned, the whole sorted list.
+ */
+@Service
+public class GatePassRevocations {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatePassRevocations.class);
+
+    private static final List<BookingStatus> REVOKED_STATUSES = List.of(BookingStatus.CANCELLED, BookingStatus.NO_SHOW);
+
+    @Autowired
+    private ParkingBookingRepository parkingBookingRepository;
+
+    @Value("${app.booking.grace-period-minutes:15}")
+    private int gracePeriodMinutes;
+
+    private final ConcurrentMap<Long, RevocationList> lists = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        List<ParkingBooking> revoked = parkingBookingRepository.findByStatusInAndEndTimeAfter(
+                REVOKED_STATUSES, LocalDateTime.now().minusMinutes(gracePeriodMinutes));
+        for (ParkingBooking booking : revoked) {
+            list(booking.getParkingLot().getId()).add(booking.getId(), passExpiry(booking));
+        }
+        logger.info("Loaded {} revoked gate passes", revoked.size());
+    }
+
+    /**
+     * Adds the booking to its lot's list once the transaction commits.
+     */
+    public void revoke(ParkingBooking booking) {
+        Long parkingLotId = booking.getParkingLot().getId();
+        Long bookingId = booking.getId();
+        LocalDateTime expiresAt = passExpiry(booking);
+        TransactionHooks.afterCommit(() -> list(parkingLotId).add(bookingId, expiresAt));
+    }
+
+    public RevocationListResponse getRevocations(Long parkingLotId, Long sinceVersion) {
+        return list(parkingLotId).snapshot(parkingLotId, sinceVersion);
+    }
+
+    public void remove(Long parkingLotId) {
+        lists.remove(parkingLotId);
+    }
+
+    @Scheduled(fixedRate = 3600000)
+    public void pruneExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int pruned = lists.values().stream().mapToInt(list -> list.pruneBefore(now)).sum();
+        if (pruned > 0) {
+            logger.debug("Pruned {} expired gate pass revocations", pruned);
+        }
+    }
+
+    LocalDateTime passExpiry(ParkingBooking booking) {
+        return booking.getEndTime().plusMinutes(gracePeriodMinutes);
+    }
+
+    private RevocationList list(Long parkingLotId) {
+        return lists.computeIfAbsent(parkingLotId, id -> new RevocationList());
+    }
+
+    private static class RevocationList {
+
+        private final Map<Long, Revocation> entries = new HashMap<>();
+        // Seeded from the clock so versions handed out before a restart fall behind resetVersion
+        private long version = System.currentTimeMillis();
+
+        // Clients behind this version missed a removal and need the full list
+        private long resetVersion = version;
+
+        synchronized void add(Long bookingId, LocalDateTime expiresAt) {
+            if (!entries.containsKey(bookingId)) {
+                entries.put(bookingId, new Revocation(++version, expiresAt));
+            }
+        }
+
+        synchronized int pruneBefore(LocalDateTime time) {
+            int pruned = 0;
+            for (Iterator<Revocation> it = entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().expiresAt.isBefore(time)) {
+                    it.remove();
+                    pruned++;
+                }
+            }
+            if (pruned > 0) {
+                resetVersion = ++version;
+            }
+            return pruned;
+        }
+
+        synchronized RevocationListResponse snapshot(Long parkingLotId, Long sinceVersion) {
+            boolean full = sinceVersion == null || sinceVersion < resetVersion || sinceVersion > version;
+            long[] bookingIds = entries.entrySet().stream()
+                    .filter(entry -> full || entry.getValue().version > sinceVersion)
+                    .mapToLong(Map.Entry::getKey)
+                    .toArray();
+            Arrays.sort(bookingIds);
+            return new RevocationListResponse(parkingLotId, version, full, bookingIds);
+        }
+    }
+
+    private static class Revocation {
+        private final long version;
+        private final LocalDateTime expiresAt;
+
+        Revocation(long version, LocalDateTime expiresAt) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
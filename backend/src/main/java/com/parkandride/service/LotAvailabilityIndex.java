@@ -0,0 +1,273 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.ParkingBookingRequest;
+import com.parkandride.exception.BookingConflictException;
+import com.parkandride.model.*;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.repository.ParkingLotRepository;
+import com.parkandride.repository.ParkingSpotRepository;
+import com.parkandride.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a {@link LotSchedule} per parking lot so conflict checks and spot lookups
+ * are answered from memory. The database remains the durable record; schedules
+ * are rebuilt from it at startup or when a lot is evicted.
+ */
+@Service
+public class LotAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotAvailabilityIndex.class);
+
+    private static final List<BookingStatus> HOLDING_STATUSES = List.of(BookingStatus.CONFIRMED, BookingStatus.ACTIVE);
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private ParkingBookingRepository parkingBookingRepository;
+
+    @Autowired
+    private LotLockStripes lotLockStripes;
+
+    @Autowired
+    private SpotAllocationPolicy spotAllocationPolicy;
+
+    @Value("${app.availability.horizon-days:14}")
+    private int horizonDays;
+
+    private final ConcurrentMap<Long, LotSchedule> schedules = new ConcurrentHashMap<>();
+
+    // Holds use negative ids until the booking row exists
+    private final AtomicLong holdSequence = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        List<ParkingLot> parkingLots = parkingLotRepository.findAll();
+        for (ParkingLot parkingLot : parkingLots) {
+            schedules.put(parkingLot.getId(), load(parkingLot));
+        }
+        logger.info("Loaded availability index for {} parking lots", parkingLots.size());
+    }
+
+    public boolean hasCapacity(ParkingLot parkingLot, LocalDateTime startTime, LocalDateTime endTime) {
+        return schedule(parkingLot).hasCapacity(toMinutes(startTime), toMinutes(endTime));
+    }
+
+    public Optional<Long> findFreeSpot(ParkingLot parkingLot, LocalDateTime startTime, LocalDateTime endTime,
+                                       SpotType spotType) {
+        return Optional.ofNullable(schedule(parkingLot).findFreeSpot(toMinutes(startTime), toMinutes(endTime),
+                spotAllocationPolicy.candidates(spotType), spotAllocationPolicy.getStrategy()));
+    }
+
+    public List<Long> findFreeSpots(ParkingLot parkingLot, LocalDateTime startTime, LocalDateTime endTime,
+                                    SpotType spotType) {
+        return schedule(parkingLot).findFreeSpots(toMinutes(startTime), toMinutes(endTime), spotType);
+    }
+
+    public int freeCapacity(ParkingLot parkingLot, LocalDateTime startTime, LocalDateTime endTime) {
+        LotSchedule schedule = schedule(parkingLot);
+        return Math.max(0, schedule.getCapacity() - schedule.maxOccupancy(toMinutes(startTime), toMinutes(endTime)));
+    }
+
+    /**
+     * Checks capacity, picks a spot and holds the window in one step under the lot's
+     * stripe lock, so concurrent requests for the same lot cannot both take the last
+     * place or the same spot. The hold is released if the transaction rolls back.
+     * A booking that asks for a spot type is only admitted onto that type or one of
+     * its fallbacks.
+     */
+    public Hold admit(ParkingLot parkingLot, LocalDateTime startTime, LocalDateTime endTime, SpotType spotType) {
+        Hold hold = tryAdmit(parkingLot, startTime, endTime, spotType);
+        if (hold == null) {
+            throw new BookingConflictException("Booking conflicts with existing reservations");
+        }
+        return hold;
+    }
+
+    /**
+     * Same as {@link #admit} but returns null when the window does not fit.
+     */
+    public Hold tryAdmit(ParkingLot parkingLot, LocalDateTime startTime, LocalDateTime endTime, SpotType spotType) {
+        ReentrantLock lock = lotLockStripes.lockFor(parkingLot.getId());
+        lock.lock();
+        try {
+            return tryHold(schedule(parkingLot), toMinutes(startTime), toMinutes(endTime), spotType);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits a batch of windows for one lot under a single lock acquisition. Entries
+     * in the result are null where the lot had no room for that window.
+     */
+    public List<Hold> admitAll(ParkingLot parkingLot, List<ParkingBookingRequest> requests) {
+        List<Hold> holds = new ArrayList<>(requests.size());
+
+        ReentrantLock lock = lotLockStripes.lockFor(parkingLot.getId());
+        lock.lock();
+        try {
+            LotSchedule schedule = schedule(parkingLot);
+            for (ParkingBookingRequest request : requests) {
+                holds.add(tryHold(schedule, toMinutes(request.getStartTime()), toMinutes(request.getEndTime()),
+                        request.getSpotType()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return holds;
+    }
+
+    public void release(ParkingLot parkingLot, Hold hold) {
+        schedule(parkingLot).removeBooking(hold.key);
+    }
+
+    public void confirm(Hold hold, ParkingBooking booking) {
+        if (schedule(booking.getParkingLot()).rekey(hold.key, booking.getId())) {
+            hold.key = booking.getId();
+        }
+    }
+
+    private Hold tryHold(LotSchedule schedule, long start, long end, SpotType spotType) {
+        if (end <= start || !schedule.hasCapacity(start, end)) {
+            return null;
+        }
+
+        Long spotId = schedule.findFreeSpot(start, end, spotAllocationPolicy.candidates(spotType),
+                spotAllocationPolicy.getStrategy());
+        if (spotId == null && spotType != null) {
+            return null;
+        }
+
+        Hold hold = new Hold(-holdSequence.incrementAndGet(), spotId);
+        schedule.addBooking(hold.key, hold.spotId, start, end);
+        TransactionHooks.afterRollback(() -> schedule.removeBooking(hold.key));
+        return hold;
+    }
+
+    public void removeBooking(ParkingBooking booking) {
+        ReentrantLock lock = lotLockStripes.lockFor(booking.getParkingLot().getId());
+        lock.lock();
+        try {
+            LotSchedule schedule = schedule(booking.getParkingLot());
+            if (schedule.removeBooking(booking.getId())) {
+                Long spotId = spotIdOf(booking);
+                long start = toMinutes(booking.getStartTime());
+                long end = toMinutes(booking.getEndTime());
+                TransactionHooks.afterRollback(() -> schedule.addBooking(booking.getId(), spotId, start, end));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a booking to a free spot of the requested type (or its fallbacks) and
+     * returns the new spot id. The move is undone if the transaction rolls back.
+     */
+    public Long reassign(ParkingBooking booking, SpotType spotType) {
+        ReentrantLock lock = lotLockStripes.lockFor(booking.getParkingLot().getId());
+        lock.lock();
+        try {
+            LotSchedule schedule = schedule(booking.getParkingLot());
+            Long spotId = schedule.findFreeSpot(toMinutes(booking.getStartTime()), toMinutes(booking.getEndTime()),
+                    spotAllocationPolicy.candidates(spotType), spotAllocationPolicy.getStrategy());
+            Long previousSpotId = schedule.spotOf(booking.getId());
+            if (spotId == null || !schedule.moveBooking(booking.getId(), spotId)) {
+                throw new BookingConflictException("No free spot of the requested type for this booking");
+            }
+
+            TransactionHooks.afterRollback(() -> {
+                if (previousSpotId != null) {
+                    schedule.moveBooking(booking.getId(), previousSpotId);
+                }
+            });
+            return spotId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evict(Long parkingLotId) {
+        schedules.remove(parkingLotId);
+    }
+
+    @Scheduled(fixedRate = 3600000)
+    public void pruneExpired() {
+        long now = toMinutes(LocalDateTime.now());
+        int pruned = schedules.values().stream().mapToInt(schedule -> schedule.pruneBefore(now)).sum();
+        if (pruned > 0) {
+            logger.debug("Pruned {} expired bookings from availability index", pruned);
+        }
+    }
+
+    LotSchedule schedule(ParkingLot parkingLot) {
+        return schedules.computeIfAbsent(parkingLot.getId(), id -> load(parkingLot));
+    }
+
+    private LotSchedule load(ParkingLot parkingLot) {
+        List<ParkingSpot> spots = parkingSpotRepository.findByParkingLotIdOrderBySpotNumberAsc(parkingLot.getId()).stream()
+                .filter(spot -> spot.getStatus() != SpotStatus.OUT_OF_ORDER)
+                .toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        LotSchedule schedule = new LotSchedule(parkingLot.getTotalSpots(),
+                spots.stream().map(ParkingSpot::getId).toList(),
+                spots.stream().map(spot -> spot.getSpotType() != null ? spot.getSpotType() : SpotType.REGULAR).toList(),
+                horizonDays * 24 * 60 / SlotOccupancyMatrix.SLOT_MINUTES,
+                SlotOccupancyMatrix.slotOf(toMinutes(now)));
+        for (ParkingBooking booking : parkingBookingRepository.findByParkingLotIdAndStatusIn(parkingLot.getId(), HOLDING_STATUSES)) {
+            if (booking.getEndTime().isAfter(now)) {
+                schedule.addBooking(booking.getId(), spotIdOf(booking),
+                        toMinutes(booking.getStartTime()), toMinutes(booking.getEndTime()));
+            }
+        }
+        return schedule;
+    }
+
+    private Long spotIdOf(ParkingBooking booking) {
+        return booking.getParkingSpot() != null ? booking.getParkingSpot().getId() : null;
+    }
+
+    static long toMinutes(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * A window held in a lot's schedule on behalf of a booking that is being created.
+     */
+    public static class Hold {
+        private volatile long key;
+        private final Long spotId;
+
+        private Hold(long key, Long spotId) {
+            this.key = key;
+            this.spotId = spotId;
+        }
+
+        public Long getSpotId() { return spotId; }
+    }
+}
@@ -0,0 +1,32 @@
+package com.parkandride.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks shared out by parking lot id. Work on different lots
+ * almost always lands on different stripes and runs in parallel, while work on
+ * the same lot is serialized without touching the database.
+ */
+@Component
+public class LotLockStripes {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public LotLockStripes(@Value("${app.booking.lock-stripes:64}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock lockFor(Long parkingLotId) {
+        long h = parkingLotId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & mask];
+    }
+}
@@ -0,0 +1,267 @@
+package com.parkandride.service;
+
+import com.parkandride.model.SpotType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory booking timeline for a single parking lot.
+ * Times are minutes since epoch and every interval is half-open [start, end).
+ * Spot lookups are narrowed with a {@link SlotOccupancyMatrix} and confirmed
+ * against the exact per-spot intervals.
+ */
+public class LotSchedule {
+
+    private final int capacity;
+    private final List<Long> spotIds;
+    private final Map<Long, Integer> spotIndex = new HashMap<>();
+    private final SlotOccupancyMatrix matrix;
+
+    // Spots of each type as bit sets over the matrix's spot indexes
+    private final Map<SpotType, long[]> spotsByType = new EnumMap<>(SpotType.class);
+
+    // Per-spot reservations keyed by start minute; intervals on one spot never overlap
+    private final Map<Long, TreeMap<Long, Long>> spotIntervals = new HashMap<>();
+
+    // Step function of concurrent bookings: value applies from its key until the next key
+    private final TreeMap<Long, Integer> occupancy = new TreeMap<>();
+
+    // bookingId -> {start, end, spotId or -1}
+    private final Map<Long, long[]> bookings = new HashMap<>();
+
+    public LotSchedule(int capacity, List<Long> spotIds, List<SpotType> spotTypes, int horizonSlots, long baseSlot) {
+        this.capacity = capacity;
+        this.spotIds = new ArrayList<>(spotIds);
+        this.matrix = new SlotOccupancyMatrix(spotIds.size(), horizonSlots, baseSlot);
+        for (SpotType type : SpotType.values()) {
+            spotsByType.put(type, matrix.newSpotSet());
+        }
+        for (int i = 0; i < spotIds.size(); i++) {
+            spotIntervals.put(spotIds.get(i), new TreeMap<>());
+            spotIndex.put(spotIds.get(i), i);
+            spotsByType.get(spotTypes.get(i))[i >>> 6] |= 1L << i;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int maxOccupancy(long start, long end) {
+        int max = valueAt(start);
+        for (int count : occupancy.subMap(start, false, end, false).values()) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    public synchronized boolean hasCapacity(long start, long end) {
+        return maxOccupancy(start, end) < capacity;
+    }
+
+    /**
+     * Returns a free spot of the first type in {@code types} that has one, choosing
+     * between that type's free spots with {@code strategy}, or null.
+     */
+    public synchronized Long findFreeSpot(long start, long end, List<SpotType> types, SpotAllocationStrategy strategy) {
+        long[] busy = busyMask(start, end);
+        for (int i = 0; i < types.size(); i++) {
+            long[] allowed = spotsByType.get(types.get(i));
+            Long best = null;
+            long bestScore = Long.MAX_VALUE;
+            for (int spot = matrix.nextClear(busy, allowed, 0); spot >= 0; spot = matrix.nextClear(busy, allowed, spot + 1)) {
+                Long spotId = spotIds.get(spot);
+                TreeMap<Long, Long> intervals = spotIntervals.get(spotId);
+                Map.Entry<Long, Long> before = intervals.lowerEntry(end);
+                if (before != null && before.getValue() > start) {
+                    continue;
+                }
+
+                Long after = intervals.ceilingKey(end);
+                long score = strategy.score(before == null ? Long.MIN_VALUE : before.getValue(),
+                        after == null ? Long.MAX_VALUE : after, start, end);
+                if (score < bestScore) {
+                    best = spotId;
+                    bestScore = score;
+                    if (score == 0) {
+                        break;
+                    }
+                }
+            }
+            if (best != null) {
+                return best;
+            }
+        }
+        return null;
+    }
+
+    public synchronized List<Long> findFreeSpots(long start, long end, SpotType type) {
+        List<Long> free = new ArrayList<>();
+        long[] busy = busyMask(start, end);
+        long[] allowed = type != null ? spotsByType.get(type) : null;
+        for (int spot = nextClear(busy, allowed, 0); spot >= 0; spot = nextClear(busy, allowed, spot + 1)) {
+            Long spotId = spotIds.get(spot);
+            if (isSpotFree(spotId, start, end)) {
+                free.add(spotId);
+            }
+        }
+        return free;
+    }
+
+    public synchronized boolean addBooking(long bookingId, Long spotId, long start, long end) {
+        if (bookings.containsKey(bookingId) || end <= start) {
+            return false;
+        }
+
+        long assignedSpot = -1;
+        if (spotId != null && spotIntervals.containsKey(spotId) && isSpotFree(spotId, start, end)) {
+            spotIntervals.get(spotId).put(start, end);
+            matrix.mark(spotIndex.get(spotId), start, end);
+            assignedSpot = spotId;
+        }
+
+        adjust(start, end, 1);
+        bookings.put(bookingId, new long[]{start, end, assignedSpot});
+        return true;
+    }
+
+    public synchronized boolean removeBooking(long bookingId) {
+        long[] booking = bookings.remove(bookingId);
+        if (booking == null) {
+            return false;
+        }
+
+        if (booking[2] >= 0) {
+            TreeMap<Long, Long> intervals = spotIntervals.get(booking[2]);
+            if (intervals != null) {
+                intervals.remove(booking[0]);
+                releaseSlots(booking[2], intervals, booking[0], booking[1]);
+            }
+        }
+
+        adjust(booking[0], booking[1], -1);
+        return true;
+    }
+
+    public synchronized Long spotOf(long bookingId) {
+        long[] booking = bookings.get(bookingId);
+        return booking == null || booking[2] < 0 ? null : booking[2];
+    }
+
+    /**
+     * Moves a booking onto another spot, which must be free for the booking's whole
+     * window. Returns false and leaves the booking where it was otherwise.
+     */
+    public synchronized boolean moveBooking(long bookingId, Long spotId) {
+        long[] booking = bookings.get(bookingId);
+        if (booking == null || spotId == null || !spotIntervals.containsKey(spotId)
+                || !isSpotFree(spotId, booking[0], booking[1])) {
+            return false;
+        }
+
+        if (booking[2] >= 0) {
+            TreeMap<Long, Long> intervals = spotIntervals.get(booking[2]);
+            intervals.remove(booking[0]);
+            releaseSlots(booking[2], intervals, booking[0], booking[1]);
+        }
+
+        spotIntervals.get(spotId).put(booking[0], booking[1]);
+        matrix.mark(spotIndex.get(spotId), booking[0], booking[1]);
+        booking[2] = spotId;
+        return true;
+    }
+
+    public synchronized boolean rekey(long fromBookingId, long toBookingId) {
+        long[] booking = bookings.remove(fromBookingId);
+        if (booking == null) {
+            return false;
+        }
+        bookings.put(toBookingId, booking);
+        return true;
+    }
+
+    public synchronized int pruneBefore(long minute) {
+        List<Long> expired = new ArrayList<>();
+        for (Map.Entry<Long, long[]> entry : bookings.entrySet()) {
+            if (entry.getValue()[1] <= minute) {
+                expired.add(entry.getKey());
+            }
+        }
+        expired.forEach(this::removeBooking);
+
+        // Roll the matrix forward and fill in the slots that just entered the horizon
+        long oldEndMinute = matrix.advanceTo(SlotOccupancyMatrix.slotOf(minute)) * SlotOccupancyMatrix.SLOT_MINUTES;
+        for (long[] booking : bookings.values()) {
+            if (booking[2] >= 0 && booking[1] > oldEndMinute) {
+                matrix.mark(spotIndex.get(booking[2]), Math.max(booking[0], oldEndMinute), booking[1]);
+            }
+        }
+        return expired.size();
+    }
+
+    // Only slots lying wholly inside the window prove a spot busy; edges are checked exactly
+    private long[] busyMask(long start, long end) {
+        long firstInterior = Math.floorDiv(start + SlotOccupancyMatrix.SLOT_MINUTES - 1, SlotOccupancyMatrix.SLOT_MINUTES);
+        long endInterior = SlotOccupancyMatrix.slotOf(end);
+        return matrix.busySpots(firstInterior, endInterior);
+    }
+
+    private int nextClear(long[] busy, long[] allowed, int from) {
+        return allowed != null ? matrix.nextClear(busy, allowed, from) : matrix.nextClear(busy, from);
+    }
+
+    private void releaseSlots(long spotId, TreeMap<Long, Long> intervals, long start, long end) {
+        int spot = spotIndex.get(spotId);
+        matrix.clear(spot, start, end);
+
+        // Neighbouring bookings may share a boundary slot with the released one
+        Map.Entry<Long, Long> previous = intervals.lowerEntry(start);
+        if (previous != null) {
+            matrix.mark(spot, Math.max(previous.getKey(), previous.getValue() - 1), previous.getValue());
+        }
+        Map.Entry<Long, Long> next = intervals.ceilingEntry(start);
+        if (next != null) {
+            matrix.mark(spot, next.getKey(), Math.min(next.getValue(), next.getKey() + 1));
+        }
+    }
+
+    private boolean isSpotFree(Long spotId, long start, long end) {
+        // Intervals on a spot are disjoint, so the last one starting before `end` has the latest end
+        Map.Entry<Long, Long> before = spotIntervals.get(spotId).lowerEntry(end);
+        return before == null || before.getValue() <= start;
+    }
+
+    private int valueAt(long minute) {
+        Map.Entry<Long, Integer> floor = occupancy.floorEntry(minute);
+        return floor == null ? 0 : floor.getValue();
+    }
+
+    private void adjust(long start, long end, int delta) {
+        occupancy.putIfAbsent(start, valueAt(start));
+        occupancy.putIfAbsent(end, valueAt(end));
+
+        for (Map.Entry<Long, Integer> entry : occupancy.subMap(start, true, end, false).entrySet()) {
+            entry.setValue(entry.getValue() + delta);
+        }
+
+        compact(start);
+        compact(end);
+    }
+
+    private void compact(long minute) {
+        Integer value = occupancy.get(minute);
+        if (value == null) {
+            return;
+        }
+        Map.Entry<Long, Integer> lower = occupancy.lowerEntry(minute);
+        int previous = lower == null ? 0 : lower.getValue();
+        if (previous == value) {
+            occupancy.remove(minute);
+        }
+    }
+}
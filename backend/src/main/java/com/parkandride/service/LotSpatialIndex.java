@@ -0,0 +1,253 @@
+package com.parkandride.service;
+
+import com.parkandride.model.ParkingLot;
+import com.parkandride.model.ParkingLotStatus;
+import com.parkandride.repository.ParkingLotRepository;
+import com.parkandride.util.GeoMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform lat/long grid over the active parking lots for radius and nearest-lot
+ * queries. Readers use an immutable snapshot; admin changes build a new one, which
+ * is cheap because lots change rarely. Results are detached copies with the live
+ * available-spot count applied.
+ */
+@Service
+public class LotSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotSpatialIndex.class);
+
+    private static final double METERS_PER_DEGREE = GeoMath.METERS_PER_DEGREE;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private AvailabilityCounters availabilityCounters;
+
+    @Value("${app.geo.cell-size-meters:1000}")
+    private double cellSizeMeters;
+
+    private static final Comparator<double[]> BY_DISTANCE = Comparator.comparingDouble(hit -> hit[0]);
+
+    private final Map<Long, ParkingLot> lots = new LinkedHashMap<>();
+    private volatile Grid grid = Grid.EMPTY;
+
+    // Distance scratch indexed like the grid's arrays; only the visited cells' slots are read
+    private final ThreadLocal<double[]> distanceBuffers = ThreadLocal.withInitial(() -> new double[0]);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void loadAll() {
+        lots.clear();
+        parkingLotRepository.findAll().forEach(parkingLot -> lots.put(parkingLot.getId(), new ParkingLot(parkingLot)));
+        rebuild();
+        logger.info("Indexed {} parking lots for nearby search", grid.size());
+    }
+
+    @EventListener
+    public synchronized void onParkingLotChanged(ParkingLotChangedEvent event) {
+        if (event.isDeleted()) {
+            lots.remove(event.getParkingLotId());
+        } else {
+            lots.put(event.getParkingLotId(), new ParkingLot(event.getParkingLot()));
+        }
+        rebuild();
+    }
+
+    /**
+     * Active lots within {@code radiusInMeters}, nearest first.
+     */
+    public List<ParkingLot> findWithinRadius(double latitude, double longitude, double radiusInMeters,
+                                             boolean availableOnly) {
+        Grid current = grid;
+        if (current.size() == 0) {
+            return List.of();
+        }
+
+        double latSpan = radiusInMeters / METERS_PER_DEGREE;
+        double lonSpan = radiusInMeters / (METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        int minRow = current.row(latitude - latSpan);
+        int maxRow = current.row(latitude + latSpan);
+        int minCol = current.col(longitude - lonSpan);
+        int maxCol = current.col(longitude + lonSpan);
+
+        double[] distances = distancesFor(current);
+        List<double[]> hits = new ArrayList<>();
+        for (int row = Math.max(minRow, current.minRow); row <= Math.min(maxRow, current.maxRow); row++) {
+            for (int col = Math.max(minCol, current.minCol); col <= Math.min(maxCol, current.maxCol); col++) {
+                collect(current, row, col, latitude, longitude, availableOnly, distances, hits, radiusInMeters);
+            }
+        }
+        return toResults(current, hits, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The {@code k} active lots nearest to the point. Rings of cells are searched
+     * outwards until no unsearched cell can hold anything closer.
+     */
+    public List<ParkingLot> findNearest(double latitude, double longitude, int k, boolean availableOnly) {
+        Grid current = grid;
+        if (current.size() == 0 || k <= 0) {
+            return List.of();
+        }
+
+        int centerRow = current.row(latitude);
+        int centerCol = current.col(longitude);
+        int maxRing = Math.max(
+                Math.max(Math.abs(centerRow - current.minRow), Math.abs(centerRow - current.maxRow)),
+                Math.max(Math.abs(centerCol - current.minCol), Math.abs(centerCol - current.maxCol)));
+
+        // Longitude cells are the narrower side away from the equator
+        double ringWidth = current.cellDegrees * METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+
+        double[] distances = distancesFor(current);
+        List<double[]> hits = new ArrayList<>();
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                for (int col = centerCol - ring; col <= centerCol + ring; col += edgeRow ? 1 : 2 * Math.max(ring, 1)) {
+                    collect(current, row, col, latitude, longitude, availableOnly, distances, hits, Double.MAX_VALUE);
+                }
+            }
+
+            if (hits.size() >= k) {
+                hits.sort(BY_DISTANCE);
+                if (hits.get(k - 1)[0] <= ring * ringWidth) {
+                    break;
+                }
+            }
+        }
+        return toResults(current, hits, k);
+    }
+
+    private void collect(Grid current, int row, int col, double latitude, double longitude, boolean availableOnly,
+                         double[] distances, List<double[]> hits, double radiusInMeters) {
+        int[] range = current.cell(row, col);
+        if (range == null) {
+            return;
+        }
+
+        GeoMath.haversineMeters(latitude, longitude, current.latitudes, current.longitudes, current.cosLatitudes,
+                range[0], range[1], distances);
+        for (int i = range[0]; i < range[1]; i++) {
+            if (distances[i] <= radiusInMeters && (!availableOnly || hasAvailability(current.lots[i]))) {
+                hits.add(new double[]{distances[i], i});
+            }
+        }
+    }
+
+    private double[] distancesFor(Grid current) {
+        double[] distances = distanceBuffers.get();
+        if (distances.length < current.size()) {
+            distances = new double[current.size()];
+            distanceBuffers.set(distances);
+        }
+        return distances;
+    }
+
+    private boolean hasAvailability(ParkingLot parkingLot) {
+        return availabilityCounters.get(parkingLot) > 0;
+    }
+
+    private List<ParkingLot> toResults(Grid current, List<double[]> hits, int limit) {
+        hits.sort(BY_DISTANCE);
+        List<ParkingLot> results = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            ParkingLot parkingLot = new ParkingLot(current.lots[(int) hits.get(i)[1]]);
+            parkingLot.setAvailableSpots(availabilityCounters.get(parkingLot));
+            results.add(parkingLot);
+        }
+        return results;
+    }
+
+    private void rebuild() {
+        List<ParkingLot> indexed = lots.values().stream()
+                .filter(parkingLot -> parkingLot.getStatus() == ParkingLotStatus.ACTIVE)
+                .filter(parkingLot -> parkingLot.getLatitude() != null && parkingLot.getLongitude() != null)
+                .toList();
+        grid = new Grid(indexed, cellSizeMeters / METERS_PER_DEGREE);
+    }
+
+    /**
+     * Lots sorted by cell so each cell is a contiguous index range of the
+     * coordinate arrays.
+     */
+    private static class Grid {
+        static final Grid EMPTY = new Grid(List.of(), 1.0);
+
+        private final double cellDegrees;
+        private final ParkingLot[] lots;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final double[] cosLatitudes;
+        private final Map<Long, int[]> cells = new HashMap<>();
+        private int minRow = Integer.MAX_VALUE, maxRow = Integer.MIN_VALUE;
+        private int minCol = Integer.MAX_VALUE, maxCol = Integer.MIN_VALUE;
+
+        Grid(List<ParkingLot> indexed, double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+            this.lots = indexed.stream()
+                    .sorted(Comparator.comparingLong(parkingLot -> key(parkingLot.getLatitude(), parkingLot.getLongitude())))
+                    .toArray(ParkingLot[]::new);
+            this.latitudes = new double[lots.length];
+            this.longitudes = new double[lots.length];
+            this.cosLatitudes = new double[lots.length];
+
+            for (int i = 0; i < lots.length; i++) {
+                latitudes[i] = lots[i].getLatitude();
+                longitudes[i] = lots[i].getLongitude();
+                cosLatitudes[i] = GeoMath.cosLatitude(latitudes[i]);
+                int row = row(latitudes[i]);
+                int col = col(longitudes[i]);
+                minRow = Math.min(minRow, row);
+                maxRow = Math.max(maxRow, row);
+                minCol = Math.min(minCol, col);
+                maxCol = Math.max(maxCol, col);
+                int[] range = cells.computeIfAbsent(key(row, col), key -> new int[2]);
+                if (range[1] == 0) {
+                    range[0] = i;
+                }
+                range[1] = i + 1;
+            }
+        }
+
+        int size() {
+            return lots.length;
+        }
+
+        int row(double latitude) {
+            return (int) Math.floor(latitude / cellDegrees);
+        }
+
+        int col(double longitude) {
+            return (int) Math.floor(longitude / cellDegrees);
+        }
+
+        int[] cell(int row, int col) {
+            return cells.get(key(row, col));
+        }
+
+        private long key(double latitude, double longitude) {
+            return key(row(latitude), col(longitude));
+        }
+
+        private static long key(int row, int col) {
+            return ((long) row << 32) | (col & 0xFFFFFFFFL);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.parkandride.service;
+
+import com.parkandride.model.ParkingLot;
+
+/**
+ * Published after a parking lot is created, updated or deleted, so in-memory
+ * read models can follow. The lot is null when it was deleted.
+ */
+public class ParkingLotChangedEvent {
+
+    private final Long parkingLotId;
+    private final ParkingLot parkingLot;
+
+    public ParkingLotChangedEvent(Long parkingLotId, ParkingLot parkingLot) {
+        this.parkingLotId = parkingLotId;
+        this.parkingLot = parkingLot;
+    }
+
+    public static ParkingLotChangedEvent saved(ParkingLot parkingLot) {
+        return new ParkingLotChangedEvent(parkingLot.getId(), parkingLot);
+    }
+
+    public static ParkingLotChangedEvent deleted(Long parkingLotId) {
+        return new ParkingLotChangedEvent(parkingLotId, null);
+    }
+
+    public Long getParkingLotId() { return parkingLotId; }
+    public ParkingLot getParkingLot() { return parkingLot; }
+    public boolean isDeleted() { return parkingLot == null; }
+}
@@ -0,0 +1,157 @@
+package com.parkandride.service;
+
+import com.parkandride.config.CacheConfig;
+import com.parkandride.dto.LotQuote;
+import com.parkandride.dto.ParkingQuoteRequest;
+import com.parkandride.dto.ParkingQuoteResponse;
+import com.parkandride.model.BookingType;
+import com.parkandride.model.ParkingLot;
+import com.parkandride.util.Money;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Prices a time window across many lots for search results and remembers the
+ * prices under a short-lived quote id, so a booking made from the results is
+ * charged what was shown.
+ */
+@Service
+public class ParkingQuotes {
+
+    private static final int QUOTE_ID_BYTES = 12;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private StationLotDirectory stationLotDirectory;
+
+    @Autowired
+    private LotSpatialIndex lotSpatialIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${app.quotes.ttl-minutes:5}")
+    private long ttlMinutes;
+
+    @Value("${app.quotes.parallel-threshold:64}")
+    private int parallelThreshold;
+
+    private Cache quotes;
+
+    @PostConstruct
+    public void init() {
+        quotes = Objects.requireNonNull(cacheManager.getCache(CacheConfig.PARKING_QUOTES));
+    }
+
+    public ParkingQuoteResponse quote(ParkingQuoteRequest request, String username) {
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new IllegalStateException("End time must be after start time");
+        }
+
+        List<ParkingLot> parkingLots;
+        if (request.getParkingLotIds() != null && !request.getParkingLotIds().isEmpty()) {
+            parkingLots = stationLotDirectory.getActive(request.getParkingLotIds(), request.isAvailableOnly());
+        } else if (request.getLatitude() != null && request.getLongitude() != null) {
+            parkingLots = lotSpatialIndex.findWithinRadius(request.getLatitude(), request.getLongitude(),
+                    request.getRadiusInMeters(), request.isAvailableOnly());
+        } else {
+            throw new IllegalStateException("Either parking lot ids or a latitude and longitude are required");
+        }
+
+        long[] amounts = new long[parkingLots.size()];
+        IntStream indexes = IntStream.range(0, amounts.length);
+        if (amounts.length >= parallelThreshold) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> amounts[i] = pricingService.quoteParking(parkingLots.get(i),
+                request.getStartTime(), request.getEndTime(), request.getBookingType()));
+
+        List<LotQuote> lotQuotes = new ArrayList<>(parkingLots.size());
+        long[] parkingLotIds = new long[parkingLots.size()];
+        for (int i = 0; i < parkingLots.size(); i++) {
+            ParkingLot parkingLot = parkingLots.get(i);
+            parkingLotIds[i] = parkingLot.getId();
+            lotQuotes.add(new LotQuote(parkingLot.getId(), parkingLot.getName(), parkingLot.getMetroStationName(),
+                    parkingLot.getDistanceFromMetro(), parkingLot.getAvailableSpots(), Money.toRupees(amounts[i])));
+        }
+
+        String quoteId = newQuoteId();
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+        quotes.put(quoteId, new Quote(username, request.getStartTime(), request.getEndTime(),
+                request.getBookingType(), parkingLotIds, amounts, expiresAt));
+
+        return new ParkingQuoteResponse(quoteId, expiresAt, request.getStartTime(), request.getEndTime(),
+                request.getBookingType(), lotQuotes);
+    }
+
+    /**
+     * The quoted price for a booking, or null when the quote is unknown, expired,
+     * someone else's or for a different lot or window.
+     */
+    public BigDecimal redeem(String quoteId, String username, Long parkingLotId, LocalDateTime startTime,
+                             LocalDateTime endTime, BookingType bookingType) {
+        if (quoteId == null) {
+            return null;
+        }
+
+        Quote quote = quotes.get(quoteId, Quote.class);
+        if (quote == null || LocalDateTime.now().isAfter(quote.expiresAt)
+                || !quote.username.equals(username)
+                || !quote.startTime.equals(startTime)
+                || !quote.endTime.equals(endTime)
+                || quote.bookingType != bookingType) {
+            return null;
+        }
+
+        for (int i = 0; i < quote.parkingLotIds.length; i++) {
+            if (quote.parkingLotIds[i] == parkingLotId) {
+                return Money.toRupees(quote.amounts[i]);
+            }
+        }
+        return null;
+    }
+
+    private String newQuoteId() {
+        byte[] bytes = new byte[QUOTE_ID_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static class Quote {
+        private final String username;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final BookingType bookingType;
+        private final long[] parkingLotIds;
+        private final long[] amounts;
+        private final LocalDateTime expiresAt;
+
+        Quote(String username, LocalDateTime startTime, LocalDateTime endTime, BookingType bookingType,
+              long[] parkingLotIds, long[] amounts, LocalDateTime expiresAt) {
+            this.username = username;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.bookingType = bookingType;
+            this.parkingLotIds = parkingLotIds;
+            this.amounts = amounts;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
\ No newline at end of file
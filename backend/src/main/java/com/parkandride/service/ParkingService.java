@@ -1,22 +1,42 @@
 package com.parkandride.service;
 
+import com.parkandride.dto.AccessValidationResponse;
+import com.parkandride.dto.BatchBookingResponse;
+import com.parkandride.dto.BatchBookingResult;
+import com.parkandride.dto.GatePassResponse;
+import com.parkandride.dto.LotAvailabilityResponse;
 import com.parkandride.dto.ParkingBookingRequest;
+import com.parkandride.dto.ParkingQuoteRequest;
+import com.parkandride.dto.ParkingQuoteResponse;
+import com.parkandride.dto.RevocationListResponse;
 import com.parkandride.exception.ResourceNotFoundException;
-import com.parkandride.exception.BookingConflictException;
 import com.parkandride.model.*;
 import com.parkandride.repository.*;
+import com.parkandride.util.AccessTokenUtils;
+import com.parkandride.util.GatePassCodec;
 import com.parkandride.util.QRCodeGenerator;
+import com.parkandride.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -40,18 +60,95 @@ public class ParkingService {
     @Autowired
     private QRCodeGenerator qrCodeGenerator;
 
-    @Cacheable("parkingLots")
+    @Autowired
+    private AccessTokenUtils accessTokenUtils;
+
+    @Autowired
+    private AccessTokenIndex accessTokenIndex;
+
+    @Autowired
+    private LotAvailabilityIndex lotAvailabilityIndex;
+
+    @Autowired
+    private AvailabilityCounters availabilityCounters;
+
+    @Autowired
+    private ParkingBookingJdbcRepository parkingBookingJdbcRepository;
+    
+    @Autowired
+    private GatePassCodec gatePassCodec;
+    
+    @Autowired
+    private GatePassRevocations gatePassRevocations;
+    
+    @Autowired
+    private BookingDeadlines bookingDeadlines;
+    
+    @Autowired
+    private LotLockStripes lotLockStripes;
+    
+    @Autowired
+    private Waitlist waitlist;
+    
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private LotSpatialIndex lotSpatialIndex;
+
+    @Autowired
+    private StationLotDirectory stationLotDirectory;
+
+    @Autowired
+    private ParkingQuotes parkingQuotes;
+
+    @Autowired
+    private SurgePricing surgePricing;
+    
+    @Value("${app.gate-pass.early-entry-minutes:30}")
+    private int earlyEntryMinutes;
+
+    @Value("${app.geo.max-nearest-lots:50}")
+    private int maxNearestLots;
+
     public List<ParkingLot> getAvailableParkingLots() {
-        return parkingLotRepository.findAvailableParkingLots(ParkingLotStatus.ACTIVE);
+        return stationLotDirectory.getActive(true);
     }
 
-    @Cacheable("parkingLotsByStation")
     public List<ParkingLot> getParkingLotsByMetroStation(String stationName) {
-        return parkingLotRepository.findByMetroStationNameAndStatus(stationName, ParkingLotStatus.ACTIVE);
+        return stationLotDirectory.getByStation(stationName);
+    }
+
+    public ParkingQuoteResponse getQuotes(ParkingQuoteRequest request, String username) {
+        return parkingQuotes.quote(request, username);
     }
 
-    public List<ParkingLot> getNearbyParkingLots(Double latitude, Double longitude, Double radiusInMeters) {
-        return parkingLotRepository.findNearbyParkingLots(latitude, longitude, radiusInMeters);
+    public List<ParkingLot> getNearbyParkingLots(Double latitude, Double longitude, Double radiusInMeters,
+                                                 boolean availableOnly) {
+        return lotSpatialIndex.findWithinRadius(latitude, longitude, radiusInMeters, availableOnly);
+    }
+
+    public List<ParkingLot> getNearestParkingLots(Double latitude, Double longitude, int limit, boolean availableOnly) {
+        return lotSpatialIndex.findNearest(latitude, longitude, Math.min(limit, maxNearestLots), availableOnly);
+    }
+
+    @Transactional(readOnly = true)
+    public LotAvailabilityResponse getLotAvailability(Long parkingLotId, LocalDateTime startTime, LocalDateTime endTime,
+                                                      SpotType spotType) {
+        if (!endTime.isAfter(startTime)) {
+            throw new IllegalStateException("End time must be after start time");
+        }
+
+        ParkingLot parkingLot = parkingLotRepository.findById(parkingLotId)
+                .orElseThrow(() -> new ResourceNotFoundException("Parking lot not found"));
+
+        int freeCapacity = lotAvailabilityIndex.freeCapacity(parkingLot, startTime, endTime);
+        List<Long> freeSpotIds = lotAvailabilityIndex.findFreeSpots(parkingLot, startTime, endTime, spotType);
+        if (spotType != null) {
+            freeCapacity = Math.min(freeCapacity, freeSpotIds.size());
+        }
+
+        return new LotAvailabilityResponse(parkingLotId, startTime, endTime, freeCapacity, freeSpotIds);
     }
 
     public ParkingBooking createBooking(ParkingBookingRequest request, String username) {
@@ -61,24 +158,33 @@ public class ParkingService {
         ParkingLot parkingLot = parkingLotRepository.findById(request.getParkingLotId())
                 .orElseThrow(() -> new ResourceNotFoundException("Parking lot not found"));
 
-        // Check for conflicts
-        if (hasBookingConflict(request.getParkingLotId(), request.getStartTime(), request.getEndTime())) {
-            throw new BookingConflictException("Booking conflicts with existing reservations");
-        }
+        // Check capacity and hold a spot for this window
+        LotAvailabilityIndex.Hold hold = lotAvailabilityIndex.admit(parkingLot,
+                request.getStartTime(), request.getEndTime(), request.getSpotType());
+
+        // Honor the price the user was shown if the quote still stands
+        BigDecimal quotedAmount = parkingQuotes.redeem(request.getQuoteId(), username, parkingLot.getId(),
+                request.getStartTime(), request.getEndTime(), request.getBookingType());
+
+        return book(user, parkingLot, hold, request.getStartTime(), request.getEndTime(),
+                request.getBookingType(), request.getVehicleNumber(), quotedAmount);
+    }
 
+    private ParkingBooking book(User user, ParkingLot parkingLot, LotAvailabilityIndex.Hold hold,
+                                LocalDateTime startTime, LocalDateTime endTime,
+                                BookingType bookingType, String vehicleNumber, BigDecimal quotedAmount) {
         // Calculate pricing
-        BigDecimal totalAmount = pricingService.calculateParkingPrice(
-                parkingLot, request.getStartTime(), request.getEndTime(), request.getBookingType());
+        BigDecimal totalAmount = quotedAmount != null ? quotedAmount
+                : pricingService.calculateParkingPrice(parkingLot, startTime, endTime, bookingType);
 
-        // Find available spot
-        Optional<ParkingSpot> availableSpot = findAvailableSpot(request.getParkingLotId(), 
-                request.getStartTime(), request.getEndTime());
+        Optional<ParkingSpot> availableSpot = Optional.ofNullable(hold.getSpotId())
+                .flatMap(parkingSpotRepository::findById);
 
-        ParkingBooking booking = new ParkingBooking(user, parkingLot, request.getStartTime(), 
-                request.getEndTime(), totalAmount);
-        booking.setBookingType(request.getBookingType());
-        booking.setVehicleNumber(request.getVehicleNumber());
+        ParkingBooking booking = new ParkingBooking(user, parkingLot, startTime, endTime, totalAmount);
+        booking.setBookingType(bookingType);
+        booking.setVehicleNumber(vehicleNumber);
         booking.setAccessPin(generateAccessPin());
+        booking.setAccessToken(accessTokenUtils.generate());
 
         if (availableSpot.isPresent()) {
             booking.setParkingSpot(availableSpot.get());
@@ -88,22 +194,105 @@ public class ParkingService {
         }
 
         // Update available spots count
-        parkingLot.setAvailableSpots(parkingLot.getAvailableSpots() - 1);
-        parkingLotRepository.save(parkingLot);
+        availabilityCounters.adjust(parkingLot, -1);
+        surgePricing.recordArrivals(parkingLot, 1);
 
         booking = parkingBookingRepository.save(booking);
+        lotAvailabilityIndex.confirm(hold, booking);
+        accessTokenIndex.update(booking);
+        bookingDeadlines.register(booking);
 
-        // Generate QR code
-        try {
-            String qrCode = qrCodeGenerator.generateBookingQRCode(booking.getId(), booking.getAccessPin());
-            booking.setQrCode(qrCode);
-            booking = parkingBookingRepository.save(booking);
-        } catch (Exception e) {
-            // Log error but don't fail the booking
-            System.err.println("Failed to generate QR code: " + e.getMessage());
+        return booking;
+    }
+
+    /**
+     * Books many windows in one transaction: spots are allocated with one lock
+     * acquisition per lot, prices are computed in one pass per lot and rows are
+     * written with JDBC batches. Items that cannot be booked are reported, not thrown.
+     */
+    public BatchBookingResponse createBookings(List<ParkingBookingRequest> requests, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        List<Long> parkingLotIds = requests.stream().map(ParkingBookingRequest::getParkingLotId).distinct().toList();
+        Map<Long, ParkingLot> parkingLots = parkingLotRepository.findAllById(parkingLotIds).stream()
+                .collect(Collectors.toMap(ParkingLot::getId, Function.identity()));
+
+        BatchBookingResult[] results = new BatchBookingResult[requests.size()];
+        Map<Long, List<Integer>> itemsByLot = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ParkingBookingRequest request = requests.get(i);
+            if (!parkingLots.containsKey(request.getParkingLotId())) {
+                results[i] = BatchBookingResult.rejected(i, request.getParkingLotId(), "Parking lot not found");
+            } else if (!request.getEndTime().isAfter(request.getStartTime())) {
+                results[i] = BatchBookingResult.rejected(i, request.getParkingLotId(), "End time must be after start time");
+            } else {
+                itemsByLot.computeIfAbsent(request.getParkingLotId(), id -> new ArrayList<>()).add(i);
+            }
         }
 
-        return booking;
+        List<ParkingBooking> bookings = new ArrayList<>();
+        List<LotAvailabilityIndex.Hold> holds = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+
+        for (Map.Entry<Long, List<Integer>> entry : itemsByLot.entrySet()) {
+            ParkingLot parkingLot = parkingLots.get(entry.getKey());
+            List<ParkingBookingRequest> lotRequests = entry.getValue().stream().map(requests::get).toList();
+
+            List<LotAvailabilityIndex.Hold> lotHolds = lotAvailabilityIndex.admitAll(parkingLot, lotRequests);
+            List<BigDecimal> prices = pricingService.calculateParkingPrices(parkingLot, lotRequests);
+
+            int admitted = 0;
+            for (int k = 0; k < lotRequests.size(); k++) {
+                int index = entry.getValue().get(k);
+                LotAvailabilityIndex.Hold hold = lotHolds.get(k);
+                if (hold == null) {
+                    results[index] = BatchBookingResult.rejected(index, parkingLot.getId(),
+                            "No spots available for the requested window");
+                    continue;
+                }
+
+                ParkingBookingRequest request = lotRequests.get(k);
+                BigDecimal quotedAmount = parkingQuotes.redeem(request.getQuoteId(), username, parkingLot.getId(),
+                        request.getStartTime(), request.getEndTime(), request.getBookingType());
+                ParkingBooking booking = new ParkingBooking(user, parkingLot, request.getStartTime(),
+                        request.getEndTime(), quotedAmount != null ? quotedAmount : prices.get(k));
+                booking.setBookingType(request.getBookingType());
+                booking.setVehicleNumber(request.getVehicleNumber());
+                booking.setAccessPin(generateAccessPin());
+                booking.setAccessToken(accessTokenUtils.generate());
+                if (hold.getSpotId() != null) {
+                    booking.setParkingSpot(parkingSpotRepository.getReferenceById(hold.getSpotId()));
+                }
+
+                bookings.add(booking);
+                holds.add(hold);
+                positions.add(index);
+                admitted++;
+            }
+
+            if (admitted > 0) {
+                availabilityCounters.adjust(parkingLot, -admitted);
+                surgePricing.recordArrivals(parkingLot, admitted);
+            }
+        }
+
+        parkingBookingJdbcRepository.insertAll(bookings);
+        parkingBookingJdbcRepository.updateSpotStatus(holds.stream()
+                .map(LotAvailabilityIndex.Hold::getSpotId)
+                .filter(spotId -> spotId != null)
+                .toList(), SpotStatus.RESERVED);
+
+        for (int i = 0; i < bookings.size(); i++) {
+            ParkingBooking booking = bookings.get(i);
+            lotAvailabilityIndex.confirm(holds.get(i), booking);
+            accessTokenIndex.update(booking);
+            bookingDeadlines.register(booking);
+            results[positions.get(i)] = BatchBookingResult.booked(positions.get(i), booking.getParkingLot().getId(),
+                    booking.getId(), holds.get(i).getSpotId(), booking.getTotalAmount(), booking.getAccessPin());
+        }
+
+        return new BatchBookingResponse(Arrays.asList(results));
     }
 
     public ParkingBooking getBookingById(Long bookingId, String username) {
@@ -130,18 +319,35 @@ public class ParkingService {
         }
 
         booking.setStatus(BookingStatus.CANCELLED);
+        accessTokenIndex.update(booking);
+        gatePassRevocations.revoke(booking);
+        booking = parkingBookingRepository.save(booking);
+
+        releaseAndPromote(booking);
+        return booking;
+    }
+
+    public ParkingBooking reassignSpot(Long bookingId, SpotType spotType, String username) {
+        ParkingBooking booking = getBookingById(bookingId, username);
+
+        if (booking.getStatus() != BookingStatus.CONFIRMED && booking.getStatus() != BookingStatus.ACTIVE) {
+            throw new IllegalStateException("Cannot reassign spot for booking in status: " + booking.getStatus());
+        }
+
+        Long spotId = lotAvailabilityIndex.reassign(booking, spotType);
+        ParkingSpot spot = parkingSpotRepository.findById(spotId)
+                .orElseThrow(() -> new ResourceNotFoundException("Parking spot not found"));
 
-        // Free up the parking spot
         if (booking.getParkingSpot() != null) {
             booking.getParkingSpot().setStatus(SpotStatus.AVAILABLE);
             parkingSpotRepository.save(booking.getParkingSpot());
         }
 
-        // Update available spots count
-        ParkingLot parkingLot = booking.getParkingLot();
-        parkingLot.setAvailableSpots(parkingLot.getAvailableSpots() + 1);
-        parkingLotRepository.save(parkingLot);
+        spot.setStatus(booking.getStatus() == BookingStatus.ACTIVE ? SpotStatus.OCCUPIED : SpotStatus.RESERVED);
+        parkingSpotRepository.save(spot);
+        booking.setParkingSpot(spot);
 
+        accessTokenIndex.update(booking);
         return parkingBookingRepository.save(booking);
     }
 
@@ -160,6 +366,7 @@ public class ParkingService {
             parkingSpotRepository.save(booking.getParkingSpot());
         }
 
+        accessTokenIndex.update(booking);
         return parkingBookingRepository.save(booking);
     }
 
@@ -172,43 +379,255 @@ public class ParkingService {
 
         booking.setStatus(BookingStatus.COMPLETED);
         booking.setActualEndTime(LocalDateTime.now());
+        accessTokenIndex.update(booking);
+        booking = parkingBookingRepository.save(booking);
 
-        if (booking.getParkingSpot() != null) {
-            booking.getParkingSpot().setStatus(SpotStatus.AVAILABLE);
-            parkingSpotRepository.save(booking.getParkingSpot());
+        releaseAndPromote(booking);
+        return booking;
+    }
+
+    /**
+     * Marks bookings whose driver never arrived as NO_SHOW and releases their spots,
+     * counts and gate access in bulk. Bookings that were started or cancelled since
+     * their deadline was set are skipped.
+     */
+    public int releaseNoShows(List<Long> bookingIds) {
+        List<ParkingBooking> candidates = parkingBookingRepository.findPendingArrivalsByIdIn(bookingIds);
+        List<Long> candidateIds = candidates.stream().map(ParkingBooking::getId).toList();
+        int[] updated = parkingBookingJdbcRepository.markNoShow(candidateIds);
+
+        // Drivers may report SUCCESS_NO_INFO for batched rows; re-read which of those became NO_SHOW
+        Set<Long> unknown = new HashSet<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (updated[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(candidateIds.get(i));
+            }
+        }
+        Set<Long> confirmedNoShows = unknown.isEmpty() ? Set.of()
+                : new HashSet<>(parkingBookingRepository.findIdsByIdInAndStatus(List.copyOf(unknown), BookingStatus.NO_SHOW));
+
+        List<Long> spotIds = new ArrayList<>();
+        Map<ParkingLot, List<ParkingBooking>> releasedByLot = new LinkedHashMap<>();
+        int released = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            boolean markedNoShow = updated[i] == 1
+                    || (updated[i] == Statement.SUCCESS_NO_INFO && confirmedNoShows.contains(candidateIds.get(i)));
+            if (!markedNoShow) {
+                continue;
+            }
+
+            ParkingBooking booking = candidates.get(i);
+            accessTokenIndex.remove(booking.getAccessToken());
+            gatePassRevocations.revoke(booking);
+            if (booking.getParkingSpot() != null) {
+                spotIds.add(booking.getParkingSpot().getId());
+            }
+            releasedByLot.computeIfAbsent(booking.getParkingLot(), lot -> new ArrayList<>()).add(booking);
+            released++;
         }
 
-        // Update available spots count
+        parkingBookingJdbcRepository.updateSpotStatus(spotIds, SpotStatus.AVAILABLE);
+        for (Map.Entry<ParkingLot, List<ParkingBooking>> entry : releasedByLot.entrySet()) {
+            ParkingLot parkingLot = entry.getKey();
+            ReentrantLock lock = lotLockStripes.lockFor(parkingLot.getId());
+            lock.lock();
+            try {
+                entry.getValue().forEach(lotAvailabilityIndex::removeBooking);
+                availabilityCounters.adjust(parkingLot, entry.getValue().size());
+                promoteWaiters(parkingLot);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return released;
+    }
+
+    public WaitlistEntry joinWaitlist(ParkingBookingRequest request, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        ParkingLot parkingLot = parkingLotRepository.findById(request.getParkingLotId())
+                .orElseThrow(() -> new ResourceNotFoundException("Parking lot not found"));
+
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new IllegalStateException("End time must be after start time");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry(user, parkingLot, request.getStartTime(), request.getEndTime());
+        entry.setBookingType(request.getBookingType());
+        entry.setSpotType(request.getSpotType());
+        entry.setVehicleNumber(request.getVehicleNumber());
+
+        ReentrantLock lock = lotLockStripes.lockFor(parkingLot.getId());
+        lock.lock();
+        try {
+            // Room may have opened up since the caller was turned away
+            LotAvailabilityIndex.Hold hold = lotAvailabilityIndex.tryAdmit(parkingLot,
+                    request.getStartTime(), request.getEndTime(), request.getSpotType());
+            if (hold != null) {
+                ParkingBooking booking = book(user, parkingLot, hold, request.getStartTime(), request.getEndTime(),
+                        request.getBookingType(), request.getVehicleNumber(), null);
+                entry.setStatus(WaitlistStatus.PROMOTED);
+                entry.setBookingId(booking.getId());
+                return waitlistEntryRepository.save(entry);
+            }
+
+            WaitlistEntry saved = waitlistEntryRepository.save(entry);
+            TransactionHooks.afterCommit(() -> waitlist.add(saved));
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntry> getUserWaitlist(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        return waitlistEntryRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+    }
+
+    public WaitlistEntry leaveWaitlist(Long entryId, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                .filter(e -> e.getUser().getId().equals(user.getId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found"));
+
+        if (entry.getStatus() != WaitlistStatus.WAITING) {
+            throw new IllegalStateException("Cannot leave waitlist in status: " + entry.getStatus());
+        }
+
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+        TransactionHooks.afterCommit(() -> waitlist.remove(saved.getParkingLot().getId(), saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Gives a finished or cancelled booking's place back to the lot and offers it to
+     * the waitlist before the lot's lock is released, so a new request cannot take
+     * it first.
+     */
+    private void releaseAndPromote(ParkingBooking booking) {
         ParkingLot parkingLot = booking.getParkingLot();
-        parkingLot.setAvailableSpots(parkingLot.getAvailableSpots() + 1);
-        parkingLotRepository.save(parkingLot);
+        ReentrantLock lock = lotLockStripes.lockFor(parkingLot.getId());
+        lock.lock();
+        try {
+            lotAvailabilityIndex.removeBooking(booking);
 
-        return parkingBookingRepository.save(booking);
+            // Free up the parking spot
+            if (booking.getParkingSpot() != null) {
+                booking.getParkingSpot().setStatus(SpotStatus.AVAILABLE);
+                parkingSpotRepository.save(booking.getParkingSpot());
+            }
+
+            // Update available spots count
+            availabilityCounters.adjust(parkingLot, 1);
+
+            promoteWaiters(parkingLot);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public ParkingBooking validateQRAccess(String qrCode) {
-        return parkingBookingRepository.findByQrCode(qrCode)
-                .orElseThrow(() -> new ResourceNotFoundException("Invalid QR code"));
+    /**
+     * Books every waiter for the lot whose window now fits, in priority order.
+     * Callers hold the lot's stripe lock.
+     */
+    private void promoteWaiters(ParkingLot parkingLot) {
+        for (Waitlist.Waiter waiter : waitlist.candidates(parkingLot.getId())) {
+            LotAvailabilityIndex.Hold hold = lotAvailabilityIndex.tryAdmit(parkingLot,
+                    waiter.getStartTime(), waiter.getEndTime(), waiter.getSpotType());
+            if (hold == null) {
+                continue;
+            }
+
+            WaitlistEntry entry = waitlistEntryRepository.findById(waiter.getEntryId()).orElse(null);
+            if (entry == null || entry.getStatus() != WaitlistStatus.WAITING) {
+                lotAvailabilityIndex.release(parkingLot, hold);
+                waitlist.remove(parkingLot.getId(), waiter.getEntryId());
+                continue;
+            }
+
+            ParkingBooking booking = book(entry.getUser(), parkingLot, hold, waiter.getStartTime(),
+                    waiter.getEndTime(), waiter.getBookingType(), waiter.getVehicleNumber(), null);
+            entry.setStatus(WaitlistStatus.PROMOTED);
+            entry.setBookingId(booking.getId());
+            waitlistEntryRepository.save(entry);
+
+            waitlist.remove(parkingLot.getId(), waiter.getEntryId());
+            TransactionHooks.afterRollback(() -> waitlist.add(entry));
+        }
     }
 
-    public ParkingBooking validatePinAccess(Long bookingId, String accessPin) {
-        return parkingBookingRepository.findByIdAndAccessPin(bookingId, accessPin)
-                .orElseThrow(() -> new ResourceNotFoundException("Invalid booking ID or access PIN"));
+    public GatePassResponse getGatePass(Long bookingId, String username) {
+        ParkingBooking booking = getBookingById(bookingId, username);
+
+        if (booking.getStatus() != BookingStatus.CONFIRMED && booking.getStatus() != BookingStatus.ACTIVE) {
+            throw new IllegalStateException("Cannot issue gate pass for booking in status: " + booking.getStatus());
+        }
+
+        LocalDateTime validFrom = booking.getStartTime().minusMinutes(earlyEntryMinutes);
+        LocalDateTime validTo = gatePassRevocations.passExpiry(booking);
+        String pass = gatePassCodec.encode(booking.getId(), booking.getParkingLot().getId(), validFrom, validTo);
+        return new GatePassResponse(booking.getId(), booking.getParkingLot().getId(), validFrom, validTo, pass);
     }
 
-    private boolean hasBookingConflict(Long parkingLotId, LocalDateTime startTime, LocalDateTime endTime) {
-        Long activeBookings = parkingBookingRepository.countActiveBookingsInTimeRange(
-                parkingLotId, startTime, endTime);
-        
-        ParkingLot parkingLot = parkingLotRepository.findById(parkingLotId).orElse(null);
-        if (parkingLot == null) return true;
-        
-        return activeBookings >= parkingLot.getTotalSpots();
+    public byte[] getGatePassQRCode(Long bookingId, String username) {
+        String pass = getGatePass(bookingId, username).getPass();
+
+        try {
+            return qrCodeGenerator.renderBookingQRCode(pass);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate QR code", e);
+        }
     }
 
-    private Optional<ParkingSpot> findAvailableSpot(Long parkingLotId, LocalDateTime startTime, LocalDateTime endTime) {
-        List<ParkingSpot> availableSpots = parkingSpotRepository.findAvailableSpots(parkingLotId, startTime, endTime);
-        return availableSpots.stream().findFirst();
+    @Transactional(readOnly = true)
+    public RevocationListResponse getRevokedGatePasses(Long parkingLotId, Long sinceVersion) {
+        if (!parkingLotRepository.existsById(parkingLotId)) {
+            throw new ResourceNotFoundException("Parking lot not found");
+        }
+        return gatePassRevocations.getRevocations(parkingLotId, sinceVersion);
+    }
+
+    public byte[] getBookingQRCode(Long bookingId, String username) {
+        ParkingBooking booking = getBookingById(bookingId, username);
+
+        // Bookings made before access tokens existed get one on first request
+        if (booking.getAccessToken() == null) {
+            booking.setAccessToken(accessTokenUtils.generate());
+            accessTokenIndex.update(booking);
+        }
+
+        try {
+            return qrCodeGenerator.renderBookingQRCode(booking.getAccessToken());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate QR code", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public AccessValidationResponse validateQRAccess(String accessToken) {
+        if (!accessTokenUtils.isValid(accessToken)) {
+            throw new ResourceNotFoundException("Invalid QR code");
+        }
+
+        AccessValidationResponse access = accessTokenIndex.get(accessToken);
+        if (access != null) {
+            return access;
+        }
+        return parkingBookingRepository.findByAccessToken(accessToken)
+                .map(AccessValidationResponse::new)
+                .orElseThrow(() -> new ResourceNotFoundException("Invalid QR code"));
+    }
+
+    public ParkingBooking validatePinAccess(Long bookingId, String accessPin) {
+        return parkingBookingRepository.findByIdAndAccessPin(bookingId, accessPin)
+                .orElseThrow(() -> new ResourceNotFoundException("Invalid booking ID or access PIN"));
     }
 
     private String generateAccessPin() {
@@ -0,0 +1,239 @@
+package com.parkandride.service;
+
+import com.parkandride.model.RideType;
+import com.parkandride.util.GeoMath;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns a batch of shared-ride requests to open pools and new vehicles. Request
+ * to pool pairs are taken cheapest detour first across the whole batch; what is
+ * left is grouped around the requests with the most compatible neighbours, so
+ * each new vehicle starts as full as possible. The same batch is also replayed
+ * through the online greedy rule to count the vehicles batching saved.
+ */
+public class PoolMatcher {
+
+    private final double radiusMeters;
+    private final long windowMinutes;
+
+    public PoolMatcher(double radiusMeters, long windowMinutes) {
+        this.radiusMeters = radiusMeters;
+        this.windowMinutes = windowMinutes;
+    }
+
+    public Result match(List<Request> requests, List<OpenPool> pools) {
+        Result result = new Result();
+        Map<String, Integer> freeSeats = new HashMap<>();
+        pools.forEach(pool -> freeSeats.put(pool.routeId, pool.freeSeats));
+
+        // Existing pools first: every feasible pairing, cheapest detour first
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Request request = requests.get(i);
+            for (OpenPool pool : pools) {
+                if (compatible(pool.anchor, request)) {
+                    edges.add(new Edge(i, pool.routeId, detour(pool.anchor, request)));
+                }
+            }
+        }
+        edges.sort(Comparator.comparingDouble(edge -> edge.cost));
+
+        boolean[] assigned = new boolean[requests.size()];
+        for (Edge edge : edges) {
+            if (!assigned[edge.request] && freeSeats.get(edge.routeId) > 0) {
+                assigned[edge.request] = true;
+                freeSeats.merge(edge.routeId, -1, Integer::sum);
+                result.joined.put(requests.get(edge.request).rideId, edge.routeId);
+                result.detourMeters += edge.cost;
+            }
+        }
+
+        // New vehicles for the rest, anchored on whoever can take the most riders along
+        List<List<Integer>> neighbours = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            List<Integer> compatible = new ArrayList<>();
+            if (!assigned[i]) {
+                for (int j = 0; j < requests.size(); j++) {
+                    if (j != i && !assigned[j] && compatible(requests.get(i), requests.get(j))) {
+                        compatible.add(j);
+                    }
+                }
+                Request anchor = requests.get(i);
+                compatible.sort(Comparator.comparingDouble(j -> detour(anchor, requests.get(j))));
+            }
+            neighbours.add(compatible);
+        }
+
+        int remaining = requests.size() - result.joined.size();
+        while (remaining > 0) {
+            int best = -1;
+            int bestRiders = -1;
+            for (int i = 0; i < requests.size(); i++) {
+                if (!assigned[i]) {
+                    int riders = Math.min(requests.get(i).capacity - 1, countUnassigned(neighbours.get(i), assigned));
+                    if (riders > bestRiders) {
+                        best = i;
+                        bestRiders = riders;
+                    }
+                }
+            }
+
+            Request anchor = requests.get(best);
+            List<Long> group = new ArrayList<>();
+            group.add(anchor.rideId);
+            assigned[best] = true;
+            for (int j : neighbours.get(best)) {
+                if (group.size() == anchor.capacity) {
+                    break;
+                }
+                if (!assigned[j]) {
+                    assigned[j] = true;
+                    group.add(requests.get(j).rideId);
+                    result.detourMeters += detour(anchor, requests.get(j));
+                }
+            }
+            result.opened.add(group);
+            remaining -= group.size();
+        }
+
+        result.greedyVehicles = replayGreedy(requests, pools);
+        return result;
+    }
+
+    private static int countUnassigned(List<Integer> candidates, boolean[] assigned) {
+        int count = 0;
+        for (int candidate : candidates) {
+            if (!assigned[candidate]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Vehicles the online rule would have opened: each request in arrival order
+     * joins the closest pool with a free seat, or opens one.
+     */
+    private int replayGreedy(List<Request> requests, List<OpenPool> pools) {
+        Map<Request, Integer> open = new LinkedHashMap<>();
+        pools.forEach(pool -> open.put(pool.anchor, pool.freeSeats));
+
+        int vehicles = 0;
+        for (Request request : requests) {
+            Request closest = null;
+            for (Map.Entry<Request, Integer> entry : open.entrySet()) {
+                if (entry.getValue() > 0 && compatible(entry.getKey(), request)
+                        && (closest == null || detour(entry.getKey(), request) < detour(closest, request))) {
+                    closest = entry.getKey();
+                }
+            }
+            if (closest != null) {
+                open.merge(closest, -1, Integer::sum);
+            } else {
+                open.put(request, request.capacity - 1);
+                vehicles++;
+            }
+        }
+        return vehicles;
+    }
+
+    private boolean compatible(Request anchor, Request request) {
+        return anchor.rideType == request.rideType
+                && Math.abs(anchor.requestedMinute - request.requestedMinute) <= windowMinutes
+                && GeoMath.equirectangularMeters(anchor.pickupLat, anchor.pickupLon,
+                        request.pickupLat, request.pickupLon) <= radiusMeters
+                && GeoMath.equirectangularMeters(anchor.dropoffLat, anchor.dropoffLon,
+                        request.dropoffLat, request.dropoffLon) <= radiusMeters;
+    }
+
+    private static double detour(Request anchor, Request request) {
+        return GeoMath.equirectangularMeters(anchor.pickupLat, anchor.pickupLon, request.pickupLat, request.pickupLon)
+                + GeoMath.equirectangularMeters(anchor.dropoffLat, anchor.dropoffLon,
+                        request.dropoffLat, request.dropoffLon);
+    }
+
+    private static class Edge {
+        private final int request;
+        private final String routeId;
+        private final double cost;
+
+        Edge(int request, String routeId, double cost) {
+            this.request = request;
+            this.routeId = routeId;
+            this.cost = cost;
+        }
+    }
+
+    public static class Request {
+        private final Long rideId;
+        private final RideType rideType;
+        private final double pickupLat;
+        private final double pickupLon;
+        private final double dropoffLat;
+        private final double dropoffLon;
+        private final long requestedMinute;
+        private final int capacity;
+
+        public Request(Long rideId, RideType rideType, double pickupLat, double pickupLon,
+                       double dropoffLat, double dropoffLon, long requestedMinute, int capacity) {
+            this.rideId = rideId;
+            this.rideType = rideType;
+            this.pickupLat = pickupLat;
+            this.pickupLon = pickupLon;
+            this.dropoffLat = dropoffLat;
+            this.dropoffLon = dropoffLon;
+            this.requestedMinute = requestedMinute;
+            this.capacity = Math.max(1, capacity);
+        }
+    }
+
+    public static class OpenPool {
+        private final String routeId;
+        private final Request anchor;
+        private final int freeSeats;
+
+        public OpenPool(String routeId, Request anchor, int freeSeats) {
+            this.routeId = routeId;
+            this.anchor = anchor;
+            this.freeSeats = freeSeats;
+        }
+    }
+
+    public static class Result {
+        private final Map<Long, String> joined = new LinkedHashMap<>();
+        private final List<List<Long>> opened = new ArrayList<>();
+        private double detourMeters;
+        private int greedyVehicles;
+
+        // Ride id to the route of the existing pool it joins
+        public Map<Long, String> getJoined() { return joined; }
+
+        // New vehicles, each listed anchor first
+        public List<List<Long>> getOpened() { return opened; }
+
+        public double getDetourMeters() { return detourMeters; }
+        public int getGreedyVehicles() { return greedyVehicles; }
+
+        public int getVehiclesSaved() {
+            return greedyVehicles - opened.size();
+        }
+
+        // A ride with no coordinates to match on gets its own vehicle, as it would greedily
+        public void addUnmatched(Long rideId) {
+            opened.add(List.of(rideId));
+            greedyVehicles++;
+        }
+
+        // A planned join whose pool filled up first falls back to a vehicle of its own
+        public void reopen(Long rideId) {
+            joined.remove(rideId);
+            opened.add(List.of(rideId));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.parkandride.service;
+
+/**
+ * How shared rides are matched to vehicles.
+ */
+public enum PoolingMode {
+
+    /** Each ride joins the best open pool at booking time, or opens its own. */
+    GREEDY,
+
+    /** Rides wait for the next batch window and are matched together. */
+    BATCH
+}
\ No newline at end of file
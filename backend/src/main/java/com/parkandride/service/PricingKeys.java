@@ -0,0 +1,29 @@
+package com.parkandride.service;
+
+import com.parkandride.model.RideType;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cache keys for the pricing caches, built from only the inputs the price
+ * depends on so equivalent requests share an entry.
+ */
+public final class PricingKeys {
+
+    // Five decimal places is about a meter, well below what moves a fare
+    private static final double COORDINATE_SCALE = 100_000.0;
+
+    private PricingKeys() {}
+
+    public static List<Object> ride(Double pickupLat, Double pickupLon, Double dropoffLat, Double dropoffLon,
+                                    RideType rideType, LocalDateTime requestedTime) {
+        return Arrays.asList(coordinate(pickupLat), coordinate(pickupLon), coordinate(dropoffLat),
+                coordinate(dropoffLon), rideType, requestedTime.getHour());
+    }
+
+    private static Long coordinate(Double degrees) {
+        return degrees != null ? Math.round(degrees * COORDINATE_SCALE) : null;
+    }
+}
\ No newline at end of file
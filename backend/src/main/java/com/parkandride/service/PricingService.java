@@ -1,16 +1,24 @@
 package com.parkandride.service;
 
+import com.parkandride.config.CacheConfig;
+import com.parkandride.dto.ParkingBookingRequest;
 import com.parkandride.model.BookingType;
 import com.parkandride.model.ParkingLot;
 import com.parkandride.model.RideType;
+import com.parkandride.util.GeoMath;
+import com.parkandride.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 public class PricingService {
@@ -21,111 +29,117 @@ public class PricingService {
     @Value("${app.pricing.peak-multiplier:1.5}")
     private Double peakMultiplier;
 
-    @Value("${app.pricing.surge-multiplier:2.0}")
-    private Double surgeMultiplier;
+    @Autowired
+    private SurgePricing surgePricing;
+
+    private final ConcurrentMap<Long, TariffTable> tariffTables = new ConcurrentHashMap<>();
 
-    @Cacheable("parkingPricing")
     public BigDecimal calculateParkingPrice(ParkingLot parkingLot, LocalDateTime startTime, 
                                           LocalDateTime endTime, BookingType bookingType) {
-        long hours = ChronoUnit.HOURS.between(startTime, endTime);
-        if (hours == 0) hours = 1; // Minimum 1 hour charge
+        return Money.toRupees(quoteParking(parkingLot, startTime, endTime, bookingType));
+    }
 
-        BigDecimal basePrice = parkingLot.getBaseHourlyRate();
-        BigDecimal totalPrice = basePrice.multiply(BigDecimal.valueOf(hours));
+    /**
+     * Parking price in paise, including the lot's current surge.
+     */
+    public long quoteParking(ParkingLot parkingLot, LocalDateTime startTime, LocalDateTime endTime,
+                             BookingType bookingType) {
+        return tariffTable(parkingLot).quote(startTime, endTime, bookingType,
+                surgePricing.getMultiplier(parkingLot.getId()));
+    }
 
-        // Apply time-based multipliers
-        if (isPeakHour(startTime)) {
-            totalPrice = totalPrice.multiply(BigDecimal.valueOf(peakMultiplier));
+    public List<BigDecimal> calculateParkingPrices(ParkingLot parkingLot, List<ParkingBookingRequest> requests) {
+        TariffTable tariffTable = tariffTable(parkingLot);
+        long surge = surgePricing.getMultiplier(parkingLot.getId());
+        List<BigDecimal> prices = new ArrayList<>(requests.size());
+        for (ParkingBookingRequest request : requests) {
+            prices.add(Money.toRupees(tariffTable.quote(request.getStartTime(), request.getEndTime(),
+                    request.getBookingType(), surge)));
         }
+        return prices;
+    }
 
-        // Apply surge pricing based on demand (simplified)
-        if (isHighDemandPeriod(startTime)) {
-            totalPrice = totalPrice.multiply(BigDecimal.valueOf(surgeMultiplier));
+    /**
+     * The lot's compiled tariff, recompiled when its hourly rate has changed.
+     */
+    public TariffTable tariffTable(ParkingLot parkingLot) {
+        BigDecimal hourlyRate = parkingLot.getBaseHourlyRate() != null
+                ? parkingLot.getBaseHourlyRate() : BigDecimal.valueOf(baseRate);
+        TariffTable tariffTable = tariffTables.get(parkingLot.getId());
+        if (tariffTable == null || !tariffTable.isCompiledFrom(hourlyRate)) {
+            tariffTable = TariffTable.compile(hourlyRate, this::hourMultiplier, this::bookingTypeMultiplier);
+            tariffTables.put(parkingLot.getId(), tariffTable);
         }
+        return tariffTable;
+    }
 
-        // Apply booking type discounts
-        switch (bookingType) {
-            case DAILY:
-                totalPrice = totalPrice.multiply(BigDecimal.valueOf(0.9)); // 10% discount
-                break;
-            case MONTHLY:
-                totalPrice = totalPrice.multiply(BigDecimal.valueOf(0.8)); // 20% discount
-                break;
-            default:
-                break;
-        }
+    @EventListener
+    public void onParkingLotChanged(ParkingLotChangedEvent event) {
+        tariffTables.remove(event.getParkingLotId());
+    }
 
-        return totalPrice.setScale(2, RoundingMode.HALF_UP);
+    private double hourMultiplier(int hourOfWeek) {
+        return isPeakHour(hourOfWeek % 24) ? peakMultiplier : 1.0;
     }
 
-    @Cacheable("ridePricing")
+    private double bookingTypeMultiplier(BookingType bookingType) {
+        return switch (bookingType) {
+            case DAILY -> 0.9; // 10% discount
+            case MONTHLY -> 0.8; // 20% discount
+            default -> 1.0;
+        };
+    }
+
+    @Cacheable(cacheNames = CacheConfig.RIDE_PRICING,
+            key = "T(com.parkandride.service.PricingKeys).ride(#pickupLat, #pickupLon, #dropoffLat, #dropoffLon, #rideType, #requestedTime)")
     public BigDecimal calculateRideFare(Double pickupLat, Double pickupLon, 
                                        Double dropoffLat, Double dropoffLon, 
                                        RideType rideType, LocalDateTime requestedTime) {
         // Calculate distance (simplified)
         double distance = calculateDistance(pickupLat, pickupLon, dropoffLat, dropoffLon);
         
-        BigDecimal baseFare = getBaseFareByRideType(rideType);
-        BigDecimal distanceFare = BigDecimal.valueOf(distance * getPerKmRate(rideType));
+        // Sum in ten-thousandths of a paisa so the fare is rounded to paise only once, after the multiplier
+        long baseFare = getBaseFareByRideType(rideType) * TariffTable.UNITS_PER_PAISE;
+        long distanceFare = Math.round(distance * getPerKmRate(rideType) * TariffTable.UNITS_PER_PAISE);
         
-        BigDecimal totalFare = baseFare.add(distanceFare);
+        long totalFare = baseFare + distanceFare;
 
         // Apply time-based multipliers
-        if (isPeakHour(requestedTime)) {
-            totalFare = totalFare.multiply(BigDecimal.valueOf(peakMultiplier));
-        }
+        long multiplier = isPeakHour(requestedTime.getHour()) ? Money.basisPoints(peakMultiplier) : Money.BASIS_POINTS;
 
-        return totalFare.setScale(2, RoundingMode.HALF_UP);
+        return Money.toRupees(Money.divide(Math.multiplyExact(totalFare, multiplier),
+                TariffTable.UNITS_PER_PAISE * Money.BASIS_POINTS));
     }
 
-    private boolean isPeakHour(LocalDateTime dateTime) {
-        int hour = dateTime.getHour();
+    private boolean isPeakHour(int hour) {
         // Peak hours: 7-10 AM and 5-8 PM
         return (hour >= 7 && hour <= 10) || (hour >= 17 && hour <= 20);
     }
 
-    private boolean isHighDemandPeriod(LocalDateTime dateTime) {
-        // Simplified demand calculation - could be based on actual booking data
-        int dayOfWeek = dateTime.getDayOfWeek().getValue();
-        int hour = dateTime.getHour();
-        
-        // High demand on weekdays during office hours
-        return dayOfWeek <= 5 && hour >= 8 && hour <= 18;
-    }
-
     private double calculateDistance(Double lat1, Double lon1, Double lat2, Double lon2) {
         if (lat1 == null || lon1 == null || lat2 == null || lon2 == null) {
             return 5.0; // Default 5 km
         }
         
-        // Haversine formula
-        final int R = 6371; // Radius of the earth in km
-        
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return R * c; // Distance in km
+        return GeoMath.haversineMeters(lat1, lon1, lat2, lon2) / 1000; // Distance in km
     }
 
-    private BigDecimal getBaseFareByRideType(RideType rideType) {
+    // Fares in paise
+    private long getBaseFareByRideType(RideType rideType) {
         return switch (rideType) {
-            case CAB -> BigDecimal.valueOf(50);
-            case SHUTTLE -> BigDecimal.valueOf(30);
-            case E_RICKSHAW -> BigDecimal.valueOf(20);
-            case AUTO_RICKSHAW -> BigDecimal.valueOf(25);
+            case CAB -> Money.ofRupees(50);
+            case SHUTTLE -> Money.ofRupees(30);
+            case E_RICKSHAW -> Money.ofRupees(20);
+            case AUTO_RICKSHAW -> Money.ofRupees(25);
         };
     }
 
-    private double getPerKmRate(RideType rideType) {
+    private long getPerKmRate(RideType rideType) {
         return switch (rideType) {
-            case CAB -> 12.0;
-            case SHUTTLE -> 8.0;
-            case E_RICKSHAW -> 6.0;
-            case AUTO_RICKSHAW -> 10.0;
+            case CAB -> Money.ofRupees(12);
+            case SHUTTLE -> Money.ofRupees(8);
+            case E_RICKSHAW -> Money.ofRupees(6);
+            case AUTO_RICKSHAW -> Money.ofRupees(10);
         };
     }
 }
\ No newline at end of file
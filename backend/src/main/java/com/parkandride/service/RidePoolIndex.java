@@ -0,0 +1,378 @@
+package com.parkandride.service;
+
+import com.parkandride.model.RideBooking;
+import com.parkandride.model.RideStatus;
+import com.parkandride.model.RideType;
+import com.parkandride.repository.RideBookingRepository;
+import com.parkandride.util.GeoMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open shared rides bucketed by time slot, then by pickup and dropoff grid cell.
+ * A new request only looks at the slots inside the pooling window and the
+ * neighbouring cells around its own pickup and dropoff, and claims a seat with
+ * a compare-and-set so concurrent requests cannot overfill a ride.
+ */
+@Component
+public class RidePoolIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RidePoolIndex.class);
+
+    // Longitude cells are sized for this latitude cosine, which covers latitudes up to 60 degrees
+    private static final double MIN_COS_LATITUDE = 0.5;
+
+    @Autowired
+    private RideBookingRepository rideBookingRepository;
+
+    @Value("${app.pooling.radius-meters:1000}")
+    private double radiusMeters;
+
+    @Value("${app.pooling.window-minutes:15}")
+    private long windowMinutes;
+
+    @Value("${app.pooling.slot-minutes:5}")
+    private long slotMinutes;
+
+    // slot -> (pickup cell, dropoff cell) -> pools
+    private final ConcurrentSkipListMap<Long, ConcurrentMap<Long, List<Pool>>> slots = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Pool> pools = new ConcurrentHashMap<>();
+
+    // Shared rides waiting for the next batch when pooling runs in batch mode
+    private final ConcurrentLinkedQueue<Long> pending = new ConcurrentLinkedQueue<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(windowMinutes);
+        Map<String, List<RideBooking>> routes = new LinkedHashMap<>();
+        for (RideBooking ride : rideBookingRepository.findOpenSharedRides(RideStatus.CONFIRMED, cutoff)) {
+            routes.computeIfAbsent(ride.getRouteOptimizationId(), id -> new ArrayList<>()).add(ride);
+        }
+
+        routes.forEach((routeId, rides) -> {
+            // The ride that opened the pool sets its capacity and route
+            open(rides.get(0), rides.stream().map(RideBooking::getId).toList());
+        });
+        logger.info("Indexed {} open ride pools", pools.size());
+    }
+
+    /**
+     * Opens a pool for a shared ride that found no match.
+     */
+    public void open(RideBooking ride) {
+        open(ride, List.of(ride.getId()));
+    }
+
+    /**
+     * Opens a pool anchored on {@code ride} with {@code riderIds} already aboard.
+     */
+    public void open(RideBooking ride, List<Long> riderIds) {
+        Pool pool = toPool(ride);
+        if (pool != null) {
+            pool.riders.addAll(riderIds);
+            pool.seatsTaken.set(pool.riders.size());
+            add(pool);
+        }
+    }
+
+    public void enqueue(Long rideId) {
+        pending.add(rideId);
+    }
+
+    public List<Long> drainPending() {
+        List<Long> rideIds = new ArrayList<>();
+        for (Long rideId = pending.poll(); rideId != null; rideId = pending.poll()) {
+            rideIds.add(rideId);
+        }
+        return rideIds;
+    }
+
+    public PoolMatcher newMatcher() {
+        return new PoolMatcher(radiusMeters, windowMinutes);
+    }
+
+    public static PoolMatcher.Request toRequest(RideBooking ride) {
+        return new PoolMatcher.Request(ride.getId(), ride.getRideType(),
+                ride.getPickupLatitude(), ride.getPickupLongitude(),
+                ride.getDropoffLatitude(), ride.getDropoffLongitude(),
+                LotAvailabilityIndex.toMinutes(ride.getRequestedTime()),
+                capacity(ride));
+    }
+
+    /**
+     * Finds the closest open pool the ride fits and claims a seat in it, or
+     * returns null.
+     */
+    public Pool claim(RideBooking ride) {
+        if (!hasCoordinates(ride)) {
+            return null;
+        }
+
+        List<Pool> candidates = candidates(ride.getRideType(), ride.getPickupLatitude(), ride.getPickupLongitude(),
+                ride.getDropoffLatitude(), ride.getDropoffLongitude(), ride.getRequestedTime());
+        for (Pool pool : candidates) {
+            if (pool.tryClaimSeat(ride.getId())) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Open pools within the pooling radius at both ends and the pooling window in
+     * time, closest first.
+     */
+    public List<Pool> candidates(RideType rideType, double pickupLat, double pickupLon,
+                                 double dropoffLat, double dropoffLon, LocalDateTime requestedTime) {
+        long minute = LotAvailabilityIndex.toMinutes(requestedTime);
+        long pickupRow = row(pickupLat), pickupCol = col(pickupLon);
+        long dropoffRow = row(dropoffLat), dropoffCol = col(dropoffLon);
+
+        List<Pool> matches = new ArrayList<>();
+        ConcurrentNavigableMap<Long, ConcurrentMap<Long, List<Pool>>> window =
+                slots.subMap((minute - windowMinutes) / slotMinutes, true, (minute + windowMinutes) / slotMinutes, true);
+        for (ConcurrentMap<Long, List<Pool>> buckets : window.values()) {
+            for (long dr = -1; dr <= 1; dr++) {
+                for (long dc = -1; dc <= 1; dc++) {
+                    long pickupCell = cell(pickupRow + dr, pickupCol + dc);
+                    for (long er = -1; er <= 1; er++) {
+                        for (long ec = -1; ec <= 1; ec++) {
+                            List<Pool> bucket = buckets.get(pairKey(pickupCell, cell(dropoffRow + er, dropoffCol + ec)));
+                            if (bucket == null) {
+                                continue;
+                            }
+                            for (Pool pool : bucket) {
+                                if (pool.rideType != rideType || pool.isClosed() || !pool.hasFreeSeat()
+                                        || Math.abs(pool.requestedMinute - minute) > windowMinutes) {
+                                    continue;
+                                }
+                                if (pool.pickupDistance(pickupLat, pickupLon) <= radiusMeters
+                                        && pool.dropoffDistance(dropoffLat, dropoffLon) <= radiusMeters) {
+                                    matches.add(pool);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingDouble(pool -> pool.pickupDistance(pickupLat, pickupLon)
+                + pool.dropoffDistance(dropoffLat, dropoffLon)));
+        return matches;
+    }
+
+    public Pool get(String routeId) {
+        return routeId != null ? pools.get(routeId) : null;
+    }
+
+    /**
+     * Frees the ride's seat, e.g. when a pooled ride is cancelled or a claim rolls
+     * back. Releasing a ride that holds no seat is a no-op. The pool closes when
+     * its last rider leaves, and an anchor that leaves hands over to the rider
+     * with the lowest id.
+     */
+    public void releaseSeat(String routeId, Long rideId) {
+        Pool pool = get(routeId);
+        if (pool != null && pool.release(rideId)) {
+            pools.remove(routeId, pool);
+        }
+    }
+
+    /**
+     * Stops a pool taking riders once its vehicle is under way.
+     */
+    public void close(String routeId) {
+        Pool pool = routeId != null ? pools.remove(routeId) : null;
+        if (pool != null) {
+            pool.closed = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.pooling.prune-interval-ms:60000}")
+    public void pruneExpired() {
+        long minute = LotAvailabilityIndex.toMinutes(LocalDateTime.now());
+        ConcurrentNavigableMap<Long, ConcurrentMap<Long, List<Pool>>> expired =
+                slots.headMap((minute - windowMinutes) / slotMinutes);
+        expired.values().forEach(buckets -> buckets.values().forEach(bucket -> bucket.forEach(pool -> {
+            pool.closed = true;
+            pools.remove(pool.routeId, pool);
+        })));
+        expired.clear();
+    }
+
+    private void add(Pool pool) {
+        pools.put(pool.routeId, pool);
+        long pairKey = pairKey(cell(row(pool.pickupLat), col(pool.pickupLon)),
+                cell(row(pool.dropoffLat), col(pool.dropoffLon)));
+        slots.computeIfAbsent(pool.requestedMinute / slotMinutes, slot -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pairKey, key -> new CopyOnWriteArrayList<>())
+                .add(pool);
+    }
+
+    private Pool toPool(RideBooking ride) {
+        if (ride.getRouteOptimizationId() == null || !hasCoordinates(ride)) {
+            return null;
+        }
+        return new Pool(ride.getRouteOptimizationId(), ride.getId(), ride.getRideType(),
+                ride.getPickupLatitude(), ride.getPickupLongitude(),
+                ride.getDropoffLatitude(), ride.getDropoffLongitude(),
+                LotAvailabilityIndex.toMinutes(ride.getRequestedTime()), capacity(ride));
+    }
+
+    private static int capacity(RideBooking ride) {
+        return ride.getMaxPassengers() != null ? ride.getMaxPassengers() : 1;
+    }
+
+    public static boolean hasCoordinates(RideBooking ride) {
+        return ride.getPickupLatitude() != null && ride.getPickupLongitude() != null
+                && ride.getDropoffLatitude() != null && ride.getDropoffLongitude() != null;
+    }
+
+    // Cells are as wide as the pooling radius, so any match lies in a neighbouring cell
+    private long row(double latitude) {
+        return (long) Math.floor(latitude * GeoMath.METERS_PER_DEGREE / radiusMeters);
+    }
+
+    private long col(double longitude) {
+        return (long) Math.floor(longitude * GeoMath.METERS_PER_DEGREE * MIN_COS_LATITUDE / radiusMeters);
+    }
+
+    // Cells beyond 16 bits wrap; a wrapped cell only adds candidates that the distance check drops
+    private static long cell(long row, long col) {
+        return ((row & 0xFFFF) << 16) | (col & 0xFFFF);
+    }
+
+    private static long pairKey(long pickupCell, long dropoffCell) {
+        return (pickupCell << 32) | dropoffCell;
+    }
+
+    public static class Pool {
+        private static final int EMPTY = -1;
+
+        private final String routeId;
+        private volatile Long anchorRideId;
+        private final RideType rideType;
+        private final double pickupLat;
+        private final double pickupLon;
+        private final double dropoffLat;
+        private final double dropoffLon;
+        private final long requestedMinute;
+        private final int capacity;
+        private final Set<Long> riders = ConcurrentHashMap.newKeySet();
+
+        // Seats claimed, or EMPTY once the last rider has left so no claim can revive the pool
+        private final AtomicInteger seatsTaken = new AtomicInteger();
+        private volatile boolean closed;
+
+        Pool(String routeId, Long anchorRideId, RideType rideType, double pickupLat, double pickupLon,
+             double dropoffLat, double dropoffLon, long requestedMinute, int capacity) {
+            this.routeId = routeId;
+            this.anchorRideId = anchorRideId;
+            this.rideType = rideType;
+            this.pickupLat = pickupLat;
+            this.pickupLon = pickupLon;
+            this.dropoffLat = dropoffLat;
+            this.dropoffLon = dropoffLon;
+            this.requestedMinute = requestedMinute;
+            this.capacity = capacity;
+        }
+
+        boolean tryClaimSeat(Long rideId) {
+            while (!closed) {
+                int taken = seatsTaken.get();
+                if (taken == EMPTY || taken >= capacity) {
+                    return false;
+                }
+                if (seatsTaken.compareAndSet(taken, taken + 1)) {
+                    if (!riders.add(rideId)) {
+                        // Already aboard: give back the extra seat
+                        seatsTaken.decrementAndGet();
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Frees the ride's seat if it holds one and returns true when that left
+         * the pool empty and closed it.
+         */
+        synchronized boolean release(Long rideId) {
+            if (!riders.remove(rideId)) {
+                return false;
+            }
+            if (rideId.equals(anchorRideId)) {
+                anchorRideId = riders.stream().min(Long::compare).orElse(null);
+            }
+            while (true) {
+                int taken = seatsTaken.get();
+                if (taken <= 0) {
+                    return false;
+                }
+                int remaining = taken == 1 ? EMPTY : taken - 1;
+                if (seatsTaken.compareAndSet(taken, remaining)) {
+                    if (remaining == EMPTY) {
+                        closed = true;
+                        anchorRideId = null;
+                        return true;
+                    }
+                    return false;
+                }
+            }
+        }
+
+        boolean hasFreeSeat() {
+            int taken = seatsTaken.get();
+            return taken != EMPTY && taken < capacity;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        double pickupDistance(double latitude, double longitude) {
+            return GeoMath.equirectangularMeters(latitude, longitude, pickupLat, pickupLon);
+        }
+
+        double dropoffDistance(double latitude, double longitude) {
+            return GeoMath.equirectangularMeters(latitude, longitude, dropoffLat, dropoffLon);
+        }
+
+        PoolMatcher.OpenPool toOpenPool() {
+            PoolMatcher.Request anchor = new PoolMatcher.Request(anchorRideId, rideType,
+                    pickupLat, pickupLon, dropoffLat, dropoffLon, requestedMinute, capacity);
+            return new PoolMatcher.OpenPool(routeId, anchor, Math.max(0, capacity - getSeatsTaken()));
+        }
+
+        public String getRouteId() { return routeId; }
+        public Long getAnchorRideId() { return anchorRideId; }
+        public RideType getRideType() { return rideType; }
+        public int getCapacity() { return capacity; }
+        public int getSeatsTaken() { return Math.max(0, seatsTaken.get()); }
+    }
+}
\ No newline at end of file
@@ -6,13 +6,19 @@ import com.parkandride.model.*;
 import com.parkandride.repository.RideBookingRepository;
 import com.parkandride.repository.UserRepository;
 import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -31,6 +37,15 @@ public class RideService {
     @Autowired
     private PricingService pricingService;
 
+    @Autowired
+    private RidePoolIndex ridePoolIndex;
+
+    @Autowired
+    private DriverPool driverPool;
+
+    @Value("${app.pooling.mode:GREEDY}")
+    private PoolingMode poolingMode;
+
     public RideBooking createRideBooking(RideBookingRequest request, String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -61,14 +76,49 @@ public class RideService {
                 request.getRideType(), request.getRequestedTime());
         rideBooking.setEstimatedFare(estimatedFare);
 
-        // Handle ride pooling
-        if (request.getIsShared()) {
-            handleRidePooling(rideBooking);
+        // Dispatch claims drivers by ride id, so the ride is saved first
+        RideBooking saved = rideBookingRepository.save(rideBooking);
+
+        // Handle ride pooling; in batch mode shared rides stay REQUESTED until the next batch
+        boolean batched = request.getIsShared() && poolingMode == PoolingMode.BATCH;
+        if (batched) {
+            saved.setStatus(RideStatus.REQUESTED);
+        } else if (request.getIsShared()) {
+            handleRidePooling(saved);
         } else {
-            assignDriver(rideBooking);
+            assignDriver(saved);
         }
 
-        return rideBookingRepository.save(rideBooking);
+        if (batched) {
+            TransactionHooks.afterCommit(() -> ridePoolIndex.enqueue(saved.getId()));
+        } else {
+            openPoolOnDispatch(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Retries dispatch for rides that found no free driver when booked. Batched
+     * shared rides are left to the pooling batcher.
+     */
+    @Scheduled(fixedDelayString = "${app.dispatch.retry-interval-ms:10000}")
+    public void dispatchWaitingRides() {
+        List<RideBooking> waiting = rideBookingRepository.findAllById(
+                rideBookingRepository.findUndispatchedRideIds(RideStatus.REQUESTED));
+        for (RideBooking ride : waiting) {
+            if (tryAssignDriver(ride)) {
+                openPoolOnDispatch(ride);
+            }
+        }
+        rideBookingRepository.saveAll(waiting);
+    }
+
+    // A shared ride that got its own driver opens a pool others can join
+    private void openPoolOnDispatch(RideBooking ride) {
+        if (Boolean.TRUE.equals(ride.getIsShared()) && ride.getDriverId() != null
+                && ridePoolIndex.get(ride.getRouteOptimizationId()) == null) {
+            TransactionHooks.afterCommit(() -> ridePoolIndex.open(ride));
+        }
     }
 
     public List<RideBooking> getUserRideBookings(String username) {
@@ -87,6 +137,13 @@ public class RideService {
                 .orElseThrow(() -> new ResourceNotFoundException("Ride booking not found"));
     }
 
+    /**
+     * Whether the user is on a ride the driver is still serving.
+     */
+    public boolean isRidingWith(String username, Long driverId) {
+        return rideBookingRepository.existsByUserUsernameAndDriverIdAndStatusIn(username, driverId, DriverPool.BUSY_STATUSES);
+    }
+
     public RideBooking cancelRideBooking(Long rideId, String username) {
         RideBooking rideBooking = getRideBookingById(rideId, username);
 
@@ -95,6 +152,8 @@ public class RideService {
         }
 
         rideBooking.setStatus(RideStatus.CANCELLED);
+        leavePool(rideBooking);
+        releaseDriver(rideBooking);
         return rideBookingRepository.save(rideBooking);
     }
 
@@ -106,9 +165,16 @@ public class RideService {
         switch (status) {
             case PICKUP:
                 rideBooking.setActualPickupTime(LocalDateTime.now());
+                closePool(rideBooking);
                 break;
             case COMPLETED:
                 rideBooking.setActualDropoffTime(LocalDateTime.now());
+                leavePool(rideBooking);
+                releaseDriver(rideBooking);
+                break;
+            case CANCELLED:
+                leavePool(rideBooking);
+                releaseDriver(rideBooking);
                 break;
             default:
                 break;
@@ -117,21 +183,151 @@ public class RideService {
         return rideBookingRepository.save(rideBooking);
     }
 
+    // Pool members share the claim; the driver is only freed once no member is still riding
+    private void releaseDriver(RideBooking rideBooking) {
+        Long driverId = rideBooking.getDriverId();
+        Long rideId = rideBooking.getId();
+        String routeId = Boolean.TRUE.equals(rideBooking.getIsShared()) ? rideBooking.getRouteOptimizationId() : null;
+        if (driverId != null) {
+            TransactionHooks.afterCommit(() -> handOverDriver(driverId, rideId, routeId));
+        }
+    }
+
+    /**
+     * Passes the driver from a ride that has left to the lowest-id member still
+     * active on its route, or frees it when none is. Runs after commit and
+     * re-reads the successor after each move, so a successor that left at the
+     * same time hands the driver on in turn. A ride that never held the claim
+     * moves nothing.
+     */
+    private void handOverDriver(Long driverId, Long rideId, String routeId) {
+        Long holder = rideId;
+        while (true) {
+            Long successor = routeId == null ? null : rideBookingRepository
+                    .findFirstByRouteOptimizationIdAndDriverIdAndStatusInOrderById(routeId, driverId, DriverPool.BUSY_STATUSES)
+                    .map(RideBooking::getId)
+                    .orElse(null);
+            if (holder.equals(successor)) {
+                return;
+            }
+            if (successor == null) {
+                driverPool.release(driverId, holder);
+                return;
+            }
+            if (!driverPool.transfer(driverId, holder, successor)) {
+                return;
+            }
+            holder = successor;
+        }
+    }
+
+    // Frees the ride's seat; the pool closes once its last rider has left
+    private void leavePool(RideBooking rideBooking) {
+        if (Boolean.TRUE.equals(rideBooking.getIsShared())) {
+            String routeId = rideBooking.getRouteOptimizationId();
+            Long rideId = rideBooking.getId();
+            TransactionHooks.afterCommit(() -> ridePoolIndex.releaseSeat(routeId, rideId));
+        }
+    }
+
+    // A vehicle that has started picking up takes no more pool riders
+    private void closePool(RideBooking rideBooking) {
+        if (Boolean.TRUE.equals(rideBooking.getIsShared())) {
+            String routeId = rideBooking.getRouteOptimizationId();
+            TransactionHooks.afterCommit(() -> ridePoolIndex.close(routeId));
+        }
+    }
+
+    /**
+     * Matches a batch of waiting shared rides in one pass: rides join open pools
+     * where that costs the least detour, and the rest are grouped into new vehicles.
+     */
+    public PoolMatcher.Result matchSharedRides(List<Long> rideIds) {
+        Map<Long, RideBooking> rides = new LinkedHashMap<>();
+        List<PoolMatcher.Request> requests = new ArrayList<>();
+        Map<String, RidePoolIndex.Pool> pools = new LinkedHashMap<>();
+        List<Long> unmatched = new ArrayList<>();
+        for (RideBooking ride : rideBookingRepository.findAllById(rideIds)) {
+            if (ride.getStatus() != RideStatus.REQUESTED || ride.getRouteOptimizationId() != null) {
+                continue;
+            }
+            rides.put(ride.getId(), ride);
+            if (!RidePoolIndex.hasCoordinates(ride)) {
+                openVehicle(List.of(ride));
+                unmatched.add(ride.getId());
+                continue;
+            }
+            requests.add(RidePoolIndex.toRequest(ride));
+            ridePoolIndex.candidates(ride.getRideType(), ride.getPickupLatitude(), ride.getPickupLongitude(),
+                            ride.getDropoffLatitude(), ride.getDropoffLongitude(), ride.getRequestedTime())
+                    .forEach(pool -> pools.putIfAbsent(pool.getRouteId(), pool));
+        }
+
+        PoolMatcher.Result result = ridePoolIndex.newMatcher().match(requests,
+                pools.values().stream().map(RidePoolIndex.Pool::toOpenPool).toList());
+
+        List<Long> reopened = new ArrayList<>();
+        result.getJoined().forEach((rideId, routeId) -> {
+            RideBooking ride = rides.get(rideId);
+            RidePoolIndex.Pool pool = pools.get(routeId);
+            // Greedy bookings may have taken the seat since the batch was planned
+            if (pool.tryClaimSeat(rideId)) {
+                TransactionHooks.afterRollback(() -> ridePoolIndex.releaseSeat(routeId, rideId));
+                RideBooking anchor = findAnchor(pool);
+                if (anchor != null) {
+                    ride.setRouteOptimizationId(routeId);
+                    ride.setStatus(RideStatus.CONFIRMED);
+                    copyDriverDetails(anchor, ride);
+                    return;
+                }
+                ridePoolIndex.close(routeId);
+            }
+            openVehicle(List.of(ride));
+            reopened.add(rideId);
+        });
+        result.getOpened().forEach(group -> openVehicle(group.stream().map(rides::get).toList()));
+
+        // Count the fallbacks so the stats reflect the vehicles actually opened
+        unmatched.forEach(result::addUnmatched);
+        reopened.forEach(result::reopen);
+
+        rideBookingRepository.saveAll(rides.values());
+        return result;
+    }
+
+    // The first ride anchors the vehicle; the others ride along with its driver
+    private void openVehicle(List<RideBooking> group) {
+        RideBooking anchor = group.get(0);
+        if (!tryAssignDriver(anchor)) {
+            // Nobody free nearby: the group waits for the next batch
+            group.forEach(ride -> TransactionHooks.afterCommit(() -> ridePoolIndex.enqueue(ride.getId())));
+            return;
+        }
+        String routeId = UUID.randomUUID().toString();
+        anchor.setRouteOptimizationId(routeId);
+        for (RideBooking ride : group.subList(1, group.size())) {
+            ride.setRouteOptimizationId(routeId);
+            ride.setStatus(RideStatus.CONFIRMED);
+            copyDriverDetails(anchor, ride);
+        }
+        List<Long> riderIds = group.stream().map(RideBooking::getId).toList();
+        TransactionHooks.afterCommit(() -> ridePoolIndex.open(anchor, riderIds));
+    }
+
     private void handleRidePooling(RideBooking rideBooking) {
-        // Find existing shared rides in the same area and time window
-        LocalDateTime windowStart = rideBooking.getRequestedTime().minusMinutes(15);
-        LocalDateTime windowEnd = rideBooking.getRequestedTime().plusMinutes(15);
-        
-        List<RideBooking> availableSharedRides = rideBookingRepository.findAvailableSharedRides();
-        
-        // Simple pooling logic - in real implementation, this would use route optimization
-        for (RideBooking existingRide : availableSharedRides) {
-            if (isWithinPoolingDistance(rideBooking, existingRide)) {
-                rideBooking.setRouteOptimizationId(existingRide.getRouteOptimizationId());
+        // Join the closest open shared ride going the same way in the same window
+        RidePoolIndex.Pool pool = ridePoolIndex.claim(rideBooking);
+        if (pool != null) {
+            Long rideId = rideBooking.getId();
+            TransactionHooks.afterRollback(() -> ridePoolIndex.releaseSeat(pool.getRouteId(), rideId));
+            RideBooking existingRide = findAnchor(pool);
+            if (existingRide != null) {
+                rideBooking.setRouteOptimizationId(pool.getRouteId());
                 rideBooking.setStatus(RideStatus.CONFIRMED);
                 copyDriverDetails(existingRide, rideBooking);
                 return;
             }
+            ridePoolIndex.close(pool.getRouteId());
         }
         
         // No suitable shared ride found, create new one
@@ -139,47 +335,42 @@ public class RideService {
         assignDriver(rideBooking);
     }
 
-    private boolean isWithinPoolingDistance(RideBooking ride1, RideBooking ride2) {
-        // Simple distance check - in real implementation, use proper geospatial calculations
-        double pickupDistance = calculateDistance(
-                ride1.getPickupLatitude(), ride1.getPickupLongitude(),
-                ride2.getPickupLatitude(), ride2.getPickupLongitude());
-        
-        double dropoffDistance = calculateDistance(
-                ride1.getDropoffLatitude(), ride1.getDropoffLongitude(),
-                ride2.getDropoffLatitude(), ride2.getDropoffLongitude());
-        
-        return pickupDistance <= 1000 && dropoffDistance <= 1000; // 1km radius
+    // The anchor hands over as riders leave; an emptied pool, or one whose anchor has finished, has none
+    private RideBooking findAnchor(RidePoolIndex.Pool pool) {
+        Long anchorRideId = pool.getAnchorRideId();
+        return anchorRideId == null ? null : rideBookingRepository.findById(anchorRideId)
+                .filter(anchor -> anchor.getDriverId() != null && DriverPool.BUSY_STATUSES.contains(anchor.getStatus()))
+                .orElse(null);
     }
 
-    private double calculateDistance(Double lat1, Double lon1, Double lat2, Double lon2) {
-        if (lat1 == null || lon1 == null || lat2 == null || lon2 == null) {
-            return Double.MAX_VALUE;
+    // With no free driver nearby the ride waits as REQUESTED until dispatchWaitingRides finds one
+    private void assignDriver(RideBooking rideBooking) {
+        if (!tryAssignDriver(rideBooking)) {
+            rideBooking.setStatus(RideStatus.REQUESTED);
         }
-        
-        // Haversine formula for distance calculation
-        final int R = 6371; // Radius of the earth in km
-        
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return R * c * 1000; // Distance in meters
     }
 
-    private void assignDriver(RideBooking rideBooking) {
-        // Mock driver assignment - in real implementation, this would integrate with driver service
+    private boolean tryAssignDriver(RideBooking rideBooking) {
+        DriverPool.DriverState driver = driverPool.dispatch(rideBooking.getRideType(),
+                rideBooking.getPickupLatitude(), rideBooking.getPickupLongitude(), rideBooking.getId());
+        if (driver == null) {
+            return false;
+        }
+        Long rideId = rideBooking.getId();
+        TransactionHooks.afterRollback(() -> driverPool.release(driver.getId(), rideId));
+
         rideBooking.setStatus(RideStatus.CONFIRMED);
-        rideBooking.setDriverName("Driver " + (rideBooking.getId() % 100));
-        rideBooking.setDriverPhone("+91" + (9000000000L + (rideBooking.getId() % 100000)));
-        rideBooking.setVehicleNumber("KA" + String.format("%02d", rideBooking.getId() % 100) + "AB1234");
-        rideBooking.setVehicleModel(getVehicleModelByType(rideBooking.getRideType()));
+        rideBooking.setDriverId(driver.getId());
+        rideBooking.setDriverName(driver.getName());
+        rideBooking.setDriverPhone(driver.getPhone());
+        rideBooking.setVehicleNumber(driver.getVehicleNumber());
+        rideBooking.setVehicleModel(driver.getVehicleModel() != null
+                ? driver.getVehicleModel() : getVehicleModelByType(rideBooking.getRideType()));
+        return true;
     }
 
     private void copyDriverDetails(RideBooking sourceRide, RideBooking targetRide) {
+        targetRide.setDriverId(sourceRide.getDriverId());
         targetRide.setDriverName(sourceRide.getDriverName());
         targetRide.setDriverPhone(sourceRide.getDriverPhone());
         targetRide.setVehicleNumber(sourceRide.getVehicleNumber());
@@ -0,0 +1,148 @@
+package com.parkandride.service;
+
+import java.util.Arrays;
+
+/**
+ * One bit per spot per 15-minute slot over a rolling horizon, stored as a ring of
+ * long rows. A set bit means the spot is booked for at least part of that slot.
+ */
+public class SlotOccupancyMatrix {
+
+    public static final int SLOT_MINUTES = 15;
+
+    private final int spotCount;
+    private final int words;
+    private final int horizonSlots;
+    private final long[] bits;
+    private final long[] scratch;
+
+    // Absolute index of the earliest slot held in the ring
+    private long baseSlot;
+
+    public SlotOccupancyMatrix(int spotCount, int horizonSlots, long baseSlot) {
+        this.spotCount = spotCount;
+        this.words = Math.max(1, (spotCount + 63) >>> 6);
+        this.horizonSlots = horizonSlots;
+        this.bits = new long[horizonSlots * words];
+        this.scratch = new long[words];
+        this.baseSlot = baseSlot;
+    }
+
+    public static long slotOf(long minute) {
+        return Math.floorDiv(minute, SLOT_MINUTES);
+    }
+
+    public long getBaseSlot() {
+        return baseSlot;
+    }
+
+    public long getEndSlot() {
+        return baseSlot + horizonSlots;
+    }
+
+    public void mark(int spot, long fromMinute, long toMinute) {
+        int word = spot >>> 6;
+        long bit = 1L << spot;
+        for (long slot = firstSlot(fromMinute), end = endSlot(toMinute); slot < end; slot++) {
+            bits[row(slot) + word] |= bit;
+        }
+    }
+
+    public void clear(int spot, long fromMinute, long toMinute) {
+        int word = spot >>> 6;
+        long bit = ~(1L << spot);
+        for (long slot = firstSlot(fromMinute), end = endSlot(toMinute); slot < end; slot++) {
+            bits[row(slot) + word] &= bit;
+        }
+    }
+
+    /**
+     * ORs the rows of [fromSlot, toSlot), clipped to the horizon, into a shared scratch
+     * buffer. The result is only valid until the next call.
+     */
+    public long[] busySpots(long fromSlot, long toSlot) {
+        Arrays.fill(scratch, 0L);
+        long from = Math.max(fromSlot, baseSlot);
+        long to = Math.min(toSlot, getEndSlot());
+        for (long slot = from; slot < to; slot++) {
+            int offset = row(slot);
+            for (int w = 0; w < words; w++) {
+                scratch[w] |= bits[offset + w];
+            }
+        }
+        return scratch;
+    }
+
+    /**
+     * Returns the first spot index at or after {@code from} whose bit is clear in
+     * {@code mask}, or -1 if there is none.
+     */
+    public int nextClear(long[] mask, int from) {
+        for (int w = from >>> 6; w < words; w++) {
+            long free = ~mask[w];
+            if (w == from >>> 6) {
+                free &= -1L << from;
+            }
+            if (free != 0) {
+                int spot = (w << 6) + Long.numberOfTrailingZeros(free);
+                return spot < spotCount ? spot : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Like {@link #nextClear(long[], int)} but only considers spots whose bit is set
+     * in {@code allowed}, e.g. the spots of one type.
+     */
+    public int nextClear(long[] mask, long[] allowed, int from) {
+        for (int w = from >>> 6; w < words; w++) {
+            long free = ~mask[w] & allowed[w];
+            if (w == from >>> 6) {
+                free &= -1L << from;
+            }
+            if (free != 0) {
+                int spot = (w << 6) + Long.numberOfTrailingZeros(free);
+                return spot < spotCount ? spot : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A spot set sized for this matrix, for use with {@link #nextClear(long[], long[], int)}.
+     */
+    public long[] newSpotSet() {
+        return new long[words];
+    }
+
+    /**
+     * Moves the start of the horizon forward, clearing rows that fall off the front
+     * so they can be reused for the slots that appear at the back. Returns the old
+     * end slot; callers must re-mark bookings that reach past it.
+     */
+    public long advanceTo(long newBaseSlot) {
+        long oldEnd = getEndSlot();
+        if (newBaseSlot <= baseSlot) {
+            return oldEnd;
+        }
+        long cleared = Math.min(newBaseSlot - baseSlot, horizonSlots);
+        for (long slot = baseSlot; slot < baseSlot + cleared; slot++) {
+            Arrays.fill(bits, row(slot), row(slot) + words, 0L);
+        }
+        baseSlot = newBaseSlot;
+        return oldEnd;
+    }
+
+    private long firstSlot(long fromMinute) {
+        return Math.max(slotOf(fromMinute), baseSlot);
+    }
+
+    private long endSlot(long toMinute) {
+        return Math.min(slotOf(toMinute - 1) + 1, getEndSlot());
+    }
+
+    private int row(long slot) {
+        return (int) Math.floorMod(slot, (long) horizonSlots) * words;
+    }
+}
@@ -0,0 +1,54 @@
+package com.parkandride.service;
+
+import com.parkandride.model.SpotType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which spot types may serve a booking, in order of preference. A booking that
+ * asks for a type gets that type first and then its configured fallbacks; one
+ * that does not ask takes spots in the default order, which keeps accessible and
+ * charging spots for last. Within a type, the configured strategy picks the spot.
+ */
+@Component
+public class SpotAllocationPolicy {
+
+    private final SpotAllocationStrategy strategy;
+    private final List<SpotType> defaultOrder;
+    private final Map<SpotType, List<SpotType>> candidates = new EnumMap<>(SpotType.class);
+
+    public SpotAllocationPolicy(
+            @Value("${app.allocation.strategy:BEST_FIT}") SpotAllocationStrategy strategy,
+            @Value("${app.allocation.default-order:REGULAR,COMPACT,ELECTRIC,DISABLED}") List<SpotType> defaultOrder,
+            @Value("${app.allocation.fallback.regular:COMPACT}") List<SpotType> regularFallback,
+            @Value("${app.allocation.fallback.compact:}") List<SpotType> compactFallback,
+            @Value("${app.allocation.fallback.disabled:REGULAR}") List<SpotType> disabledFallback,
+            @Value("${app.allocation.fallback.electric:}") List<SpotType> electricFallback) {
+        this.strategy = strategy;
+        this.defaultOrder = List.copyOf(defaultOrder);
+        candidates.put(SpotType.REGULAR, withFallback(SpotType.REGULAR, regularFallback));
+        candidates.put(SpotType.COMPACT, withFallback(SpotType.COMPACT, compactFallback));
+        candidates.put(SpotType.DISABLED, withFallback(SpotType.DISABLED, disabledFallback));
+        candidates.put(SpotType.ELECTRIC, withFallback(SpotType.ELECTRIC, electricFallback));
+    }
+
+    public SpotAllocationStrategy getStrategy() {
+        return strategy;
+    }
+
+    public List<SpotType> candidates(SpotType requested) {
+        return requested == null ? defaultOrder : candidates.get(requested);
+    }
+
+    private static List<SpotType> withFallback(SpotType type, List<SpotType> fallback) {
+        List<SpotType> order = new ArrayList<>();
+        order.add(type);
+        fallback.stream().filter(t -> !order.contains(t)).forEach(order::add);
+        return List.copyOf(order);
+    }
+}
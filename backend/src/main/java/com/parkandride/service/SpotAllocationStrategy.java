@@ -0,0 +1,36 @@
+package com.parkandride.service;
+
+/**
+ * How a lot chooses between spots that are all free for a requested window.
+ * Each candidate is scored from the free gap around the window; the lowest score
+ * wins and a score of zero is taken straight away. Unbounded gap sides are passed
+ * as {@code Long.MIN_VALUE} and {@code Long.MAX_VALUE}.
+ */
+public enum SpotAllocationStrategy {
+
+    /** Takes the first free spot in spot-number order. */
+    FIRST_FIT {
+        @Override
+        public long score(long gapStart, long gapEnd, long start, long end) {
+            return 0;
+        }
+    },
+
+    /**
+     * Takes the spot whose free gap fits the window most tightly, leaving the long
+     * empty stretches on other spots for long bookings.
+     */
+    BEST_FIT {
+        @Override
+        public long score(long gapStart, long gapEnd, long start, long end) {
+            long before = gapStart == Long.MIN_VALUE ? OPEN_GAP : start - gapStart;
+            long after = gapEnd == Long.MAX_VALUE ? OPEN_GAP : gapEnd - end;
+            return before + after;
+        }
+    };
+
+    // Slack charged for an unbounded side; larger than any real gap in minutes
+    private static final long OPEN_GAP = 1L << 40;
+
+    public abstract long score(long gapStart, long gapEnd, long start, long end);
+}
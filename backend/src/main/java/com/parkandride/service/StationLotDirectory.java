@@ -0,0 +1,125 @@
+package com.parkandride.service;
+
+import com.parkandride.model.ParkingLot;
+import com.parkandride.model.ParkingLotStatus;
+import com.parkandride.repository.ParkingLotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Active parking lots grouped by metro station, each group sorted by distance
+ * from the station. The grouping only changes on admin edits, which rebuild it;
+ * available spots are read from the live counters per request, so booking
+ * traffic never invalidates anything here.
+ */
+@Service
+public class StationLotDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(StationLotDirectory.class);
+
+    private static final Comparator<ParkingLot> BY_DISTANCE_FROM_METRO = Comparator.comparing(
+            ParkingLot::getDistanceFromMetro, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private AvailabilityCounters availabilityCounters;
+
+    private final Map<Long, ParkingLot> lots = new LinkedHashMap<>();
+    private volatile Directory directory = new Directory(List.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void loadAll() {
+        lots.clear();
+        parkingLotRepository.findAll().forEach(parkingLot -> lots.put(parkingLot.getId(), new ParkingLot(parkingLot)));
+        rebuild();
+        logger.info("Indexed {} active parking lots across {} metro stations",
+                directory.active.length, directory.byStation.size());
+    }
+
+    @EventListener
+    public synchronized void onParkingLotChanged(ParkingLotChangedEvent event) {
+        if (event.isDeleted()) {
+            lots.remove(event.getParkingLotId());
+        } else {
+            lots.put(event.getParkingLotId(), new ParkingLot(event.getParkingLot()));
+        }
+        rebuild();
+    }
+
+    public List<ParkingLot> getByStation(String stationName) {
+        return withAvailability(directory.byStation.getOrDefault(stationName, new ParkingLot[0]), false);
+    }
+
+    public List<ParkingLot> getActive(boolean availableOnly) {
+        return withAvailability(directory.active, availableOnly);
+    }
+
+    /**
+     * The active lots among {@code parkingLotIds}, in the order given.
+     */
+    public List<ParkingLot> getActive(Collection<Long> parkingLotIds, boolean availableOnly) {
+        Directory current = directory;
+        return withAvailability(parkingLotIds.stream()
+                .distinct()
+                .map(current.byId::get)
+                .filter(Objects::nonNull)
+                .toArray(ParkingLot[]::new), availableOnly);
+    }
+
+    private List<ParkingLot> withAvailability(ParkingLot[] parkingLots, boolean availableOnly) {
+        List<ParkingLot> results = new ArrayList<>(parkingLots.length);
+        for (ParkingLot parkingLot : parkingLots) {
+            int availableSpots = availabilityCounters.get(parkingLot);
+            if (availableOnly && availableSpots == 0) {
+                continue;
+            }
+            ParkingLot result = new ParkingLot(parkingLot);
+            result.setAvailableSpots(availableSpots);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private void rebuild() {
+        directory = new Directory(lots.values().stream()
+                .filter(parkingLot -> parkingLot.getStatus() == ParkingLotStatus.ACTIVE)
+                .sorted(BY_DISTANCE_FROM_METRO)
+                .toList());
+    }
+
+    private static class Directory {
+        private final ParkingLot[] active;
+        private final Map<Long, ParkingLot> byId = new HashMap<>();
+        private final Map<String, ParkingLot[]> byStation = new HashMap<>();
+
+        Directory(List<ParkingLot> sorted) {
+            this.active = sorted.toArray(new ParkingLot[0]);
+
+            Map<String, List<ParkingLot>> groups = new HashMap<>();
+            for (ParkingLot parkingLot : active) {
+                byId.put(parkingLot.getId(), parkingLot);
+                if (parkingLot.getMetroStationName() != null) {
+                    groups.computeIfAbsent(parkingLot.getMetroStationName(), station -> new ArrayList<>()).add(parkingLot);
+                }
+            }
+            groups.forEach((station, group) -> byStation.put(station, group.toArray(new ParkingLot[0])));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.parkandride.service;
+
+import com.parkandride.model.ParkingLot;
+import com.parkandride.util.Money;
+import com.parkandride.util.SlidingWindowCounter;
+import com.parkandride.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-lot surge multipliers from live occupancy and the recent booking arrival
+ * rate. Multipliers are recomputed on a short schedule and read from a snapshot,
+ * so quoting never does the demand math itself. A full lot prices above its
+ * emptier neighbours, which nudges demand toward them.
+ */
+@Component
+public class SurgePricing {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurgePricing.class);
+
+    public static final long NO_SURGE = Money.BASIS_POINTS;
+
+    private static final int WINDOW_BUCKETS = 12;
+
+    @Autowired
+    private StationLotDirectory stationLotDirectory;
+
+    @Value("${app.pricing.surge-multiplier:2.0}")
+    private double maxMultiplier;
+
+    @Value("${app.pricing.surge.occupancy-threshold:0.7}")
+    private double occupancyThreshold;
+
+    // Arrivals per hour, as a share of the lot's spots, at which the arrival signal saturates
+    @Value("${app.pricing.surge.arrival-rate-ceiling:0.5}")
+    private double arrivalRateCeiling;
+
+    @Value("${app.pricing.surge.arrival-weight:0.3}")
+    private double arrivalWeight;
+
+    @Value("${app.pricing.surge.window-minutes:60}")
+    private long windowMinutes;
+
+    // Multipliers move in steps so quotes stay stable between refreshes
+    @Value("${app.pricing.surge.step:0.05}")
+    private double step;
+
+    private final ConcurrentMap<Long, SlidingWindowCounter> arrivals = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> multipliers = Map.of();
+
+    /**
+     * Counts a booking toward its lot's arrival rate once it commits.
+     */
+    public void recordArrivals(ParkingLot parkingLot, int count) {
+        Long parkingLotId = parkingLot.getId();
+        TransactionHooks.afterCommit(() -> {
+            SlidingWindowCounter counter = arrivals.computeIfAbsent(parkingLotId,
+                    id -> new SlidingWindowCounter(WINDOW_BUCKETS, windowMinutes * 60_000 / WINDOW_BUCKETS));
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                counter.record(now);
+            }
+        });
+    }
+
+    /**
+     * The lot's current multiplier in basis points.
+     */
+    public long getMultiplier(Long parkingLotId) {
+        return multipliers.getOrDefault(parkingLotId, NO_SURGE);
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.surge.refresh-ms:5000}", initialDelayString = "${app.pricing.surge.refresh-ms:5000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Map<Long, Long> next = new HashMap<>();
+        Set<Long> active = new HashSet<>();
+        for (ParkingLot parkingLot : stationLotDirectory.getActive(false)) {
+            active.add(parkingLot.getId());
+            int totalSpots = parkingLot.getTotalSpots() != null ? parkingLot.getTotalSpots() : 0;
+            if (totalSpots <= 0) {
+                continue;
+            }
+
+            double occupancy = 1.0 - (double) parkingLot.getAvailableSpots() / totalSpots;
+            double occupancyDemand = clamp((occupancy - occupancyThreshold) / (1.0 - occupancyThreshold));
+
+            SlidingWindowCounter counter = arrivals.get(parkingLot.getId());
+            double arrivalDemand = 0;
+            if (counter != null) {
+                double perHour = counter.sum(now) * 3_600_000.0 / counter.getWindowMillis();
+                arrivalDemand = clamp(perHour / totalSpots / arrivalRateCeiling);
+            }
+
+            double demand = (1.0 - arrivalWeight) * occupancyDemand + arrivalWeight * arrivalDemand;
+            // The epsilon keeps a demand that lands on a step, like 0.7 / 0.05, from flooring to the one below
+            double multiplier = 1.0 + Math.floor(demand * (maxMultiplier - 1.0) / step + 1e-9) * step;
+            long basisPoints = Money.basisPoints(multiplier);
+            if (basisPoints != NO_SURGE) {
+                next.put(parkingLot.getId(), basisPoints);
+            }
+        }
+
+        arrivals.keySet().retainAll(active);
+        multipliers = next;
+        logger.debug("Refreshed surge multipliers, {} lots surging", next.size());
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.parkandride.service;
+
+import com.parkandride.model.BookingType;
+import com.parkandride.util.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A lot's hourly tariff compiled into one fixed-point price per hour of the week
+ * and booking type, in ten-thousandths of a paisa. Prefix sums over the week make
+ * a quote a constant number of array reads however long the booking is; the
+ * total is rounded to whole paise once, after any multiplier.
+ */
+public final class TariffTable {
+
+    public static final int HOURS_PER_WEEK = 7 * 24;
+    public static final int SCALE = 6;
+    public static final long UNITS_PER_PAISE = 10_000;
+
+    private final BigDecimal hourlyRate;
+
+    // prefixSums[type][h] is the price of hours [0, h) of the week, so [h] - [0] covers h hours from Monday 00:00
+    private final long[][] prefixSums;
+
+    private TariffTable(BigDecimal hourlyRate, long[][] prefixSums) {
+        this.hourlyRate = hourlyRate;
+        this.prefixSums = prefixSums;
+    }
+
+    /**
+     * @param hourMultiplier time-of-week multiplier for an hour index, Monday 00:00 being 0
+     * @param typeMultiplier discount or premium for each booking type
+     */
+    public static TariffTable compile(BigDecimal hourlyRate, IntToDoubleFunction hourMultiplier,
+                                      ToDoubleFunction<BookingType> typeMultiplier) {
+        BookingType[] types = BookingType.values();
+        long[][] prefixSums = new long[types.length][HOURS_PER_WEEK + 1];
+        for (BookingType type : types) {
+            BigDecimal typeRate = hourlyRate.multiply(BigDecimal.valueOf(typeMultiplier.applyAsDouble(type)));
+            long[] sums = prefixSums[type.ordinal()];
+            for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                long price = typeRate.multiply(BigDecimal.valueOf(hourMultiplier.applyAsDouble(hour)))
+                        .setScale(SCALE, RoundingMode.HALF_UP)
+                        .unscaledValue()
+                        .longValueExact();
+                sums[hour + 1] = sums[hour] + price;
+            }
+        }
+        return new TariffTable(hourlyRate, prefixSums);
+    }
+
+    public static int hourOfWeek(LocalDateTime dateTime) {
+        return (dateTime.getDayOfWeek().getValue() - 1) * 24 + dateTime.getHour();
+    }
+
+    /**
+     * Price of a booking in paise, billed per whole hour (at least one) with each
+     * hour charged at the tariff of the clock hour it starts in.
+     */
+    public long quote(LocalDateTime startTime, LocalDateTime endTime, BookingType bookingType) {
+        return quote(startTime, endTime, bookingType, Money.BASIS_POINTS);
+    }
+
+    public long quote(LocalDateTime startTime, LocalDateTime endTime, BookingType bookingType,
+                      long multiplierBasisPoints) {
+        long hours = Math.max(1, ChronoUnit.HOURS.between(startTime, endTime));
+        long units = sum(hourOfWeek(startTime), hours, bookingType);
+        return Money.divide(Math.multiplyExact(units, multiplierBasisPoints), UNITS_PER_PAISE * Money.BASIS_POINTS);
+    }
+
+    long sum(int fromHourOfWeek, long hours, BookingType bookingType) {
+        long[] sums = prefixSums[bookingType.ordinal()];
+        long weeks = hours / HOURS_PER_WEEK;
+        int remainder = (int) (hours % HOURS_PER_WEEK);
+
+        long total = weeks * sums[HOURS_PER_WEEK];
+        int end = fromHourOfWeek + remainder;
+        if (end <= HOURS_PER_WEEK) {
+            total += sums[end] - sums[fromHourOfWeek];
+        } else {
+            total += sums[HOURS_PER_WEEK] - sums[fromHourOfWeek] + sums[end - HOURS_PER_WEEK];
+        }
+        return total;
+    }
+
+    public boolean isCompiledFrom(BigDecimal hourlyRate) {
+        return this.hourlyRate.compareTo(hourlyRate) == 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.parkandride.service;
+
+import com.parkandride.model.BookingType;
+import com.parkandride.model.SpotType;
+import com.parkandride.model.WaitlistEntry;
+import com.parkandride.model.WaitlistStatus;
+import com.parkandride.repository.WaitlistEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory, per-lot queues of waitlist entries still waiting for a place. Waiters
+ * for earlier windows come first, then those who joined earlier. The
+ * waitlist_entries table is the durable copy and is read back at startup.
+ */
+@Component
+public class Waitlist {
+
+    private static final Logger logger = LoggerFactory.getLogger(Waitlist.class);
+
+    private static final Comparator<Waiter> PRIORITY = Comparator
+            .comparing((Waiter waiter) -> waiter.startTime)
+            .thenComparing(waiter -> waiter.joinedAt)
+            .thenComparingLong(waiter -> waiter.entryId);
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    private final ConcurrentMap<Long, NavigableSet<Waiter>> queues = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAll() {
+        List<WaitlistEntry> waiting = waitlistEntryRepository.findByStatus(WaitlistStatus.WAITING);
+        waiting.forEach(this::add);
+        logger.info("Loaded {} waitlist entries", waiting.size());
+    }
+
+    public void add(WaitlistEntry entry) {
+        NavigableSet<Waiter> queue = queues.computeIfAbsent(entry.getParkingLot().getId(), id -> new TreeSet<>(PRIORITY));
+        synchronized (queue) {
+            queue.add(new Waiter(entry));
+        }
+    }
+
+    public void remove(Long parkingLotId, Long entryId) {
+        NavigableSet<Waiter> queue = queues.get(parkingLotId);
+        if (queue != null) {
+            synchronized (queue) {
+                queue.removeIf(waiter -> waiter.entryId == entryId);
+            }
+        }
+    }
+
+    /**
+     * Waiters for the lot in priority order. Waiters whose window has already begun
+     * are dropped; they are marked expired in the database separately.
+     */
+    public List<Waiter> candidates(Long parkingLotId) {
+        NavigableSet<Waiter> queue = queues.get(parkingLotId);
+        if (queue == null) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (queue) {
+            queue.removeIf(waiter -> !waiter.startTime.isAfter(now));
+            return new ArrayList<>(queue);
+        }
+    }
+
+    @Scheduled(fixedRate = 300000)
+    @Transactional
+    public void expireStarted() {
+        LocalDateTime now = LocalDateTime.now();
+        for (NavigableSet<Waiter> queue : queues.values()) {
+            synchronized (queue) {
+                queue.removeIf(waiter -> !waiter.startTime.isAfter(now));
+            }
+        }
+        int expired = waitlistEntryRepository.expireStarted(now);
+        if (expired > 0) {
+            logger.debug("Expired {} waitlist entries whose window has begun", expired);
+        }
+    }
+
+    /**
+     * Snapshot of an entry's booking request, so queues do not hold on to entities.
+     */
+    public static class Waiter {
+        private final long entryId;
+        private final Long userId;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final BookingType bookingType;
+        private final SpotType spotType;
+        private final String vehicleNumber;
+        private final LocalDateTime joinedAt;
+
+        private Waiter(WaitlistEntry entry) {
+            this.entryId = entry.getId();
+            this.userId = entry.getUser().getId();
+            this.startTime = entry.getStartTime();
+            this.endTime = entry.getEndTime();
+            this.bookingType = entry.getBookingType();
+            this.spotType = entry.getSpotType();
+            this.vehicleNumber = entry.getVehicleNumber();
+            this.joinedAt = entry.getCreatedAt() != null ? entry.getCreatedAt() : LocalDateTime.now();
+        }
+
+        public long getEntryId() { return entryId; }
+        public Long getUserId() { return userId; }
+        public LocalDateTime getStartTime() { return startTime; }
+        public LocalDateTime getEndTime() { return endTime; }
+        public BookingType getBookingType() { return bookingType; }
+        public SpotType getSpotType() { return spotType; }
+        public String getVehicleNumber() { return vehicleNumber; }
+    }
+}
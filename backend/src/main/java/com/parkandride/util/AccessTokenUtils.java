@@ -0,0 +1,84 @@
+package com.parkandride.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Issues the compact access tokens carried in booking QR codes: a random nonce
+ * followed by a truncated HMAC of it, so forged tokens can be rejected without
+ * a lookup.
+ */
+@Component
+public class AccessTokenUtils {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int NONCE_BYTES = 9;
+    private static final int TAG_BYTES = 6;
+
+    public static final int TOKEN_LENGTH = 20; // base64url of NONCE_BYTES + TAG_BYTES
+
+    @Value("${app.access-token.secret}")
+    private String accessTokenSecret;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    void init() {
+        SecretKeySpec key = new SecretKeySpec(accessTokenSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise access token signer", e);
+            }
+        });
+    }
+
+    public String generate() {
+        byte[] token = new byte[NONCE_BYTES + TAG_BYTES];
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+
+        System.arraycopy(nonce, 0, token, 0, NONCE_BYTES);
+        System.arraycopy(sign(nonce), 0, token, NONCE_BYTES, TAG_BYTES);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    public boolean isValid(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return false;
+        }
+
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        byte[] nonce = new byte[NONCE_BYTES];
+        System.arraycopy(decoded, 0, nonce, 0, NONCE_BYTES);
+        byte[] expected = new byte[TAG_BYTES];
+        System.arraycopy(sign(nonce), 0, expected, 0, TAG_BYTES);
+        byte[] actual = new byte[TAG_BYTES];
+        System.arraycopy(decoded, NONCE_BYTES, actual, 0, TAG_BYTES);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private byte[] sign(byte[] nonce) {
+        return macs.get().doFinal(nonce);
+    }
+}
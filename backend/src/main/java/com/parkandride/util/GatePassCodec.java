@@ -0,0 +1,125 @@
+package com.parkandride.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Encodes and verifies gate passes: booking id, lot id and validity window signed
+ * with a key shared with the barrier controllers, so a gate can admit a car without
+ * calling the backend. Layout before base64url: version (1), booking id (8),
+ * lot id (8), valid-from and valid-to in epoch minutes (4 + 4), HMAC-SHA256 tag (16).
+ */
+@Component
+public class GatePassCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "GP1.";
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_BYTES = 25;
+    private static final int TAG_BYTES = 16;
+
+    @Value("${app.gate-pass.secret}")
+    private String gatePassSecret;
+
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    void init() {
+        SecretKeySpec key = new SecretKeySpec(gatePassSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise gate pass signer", e);
+            }
+        });
+    }
+
+    public String encode(Long bookingId, Long parkingLotId, LocalDateTime validFrom, LocalDateTime validTo) {
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_BYTES + TAG_BYTES);
+        buffer.put(VERSION)
+                .putLong(bookingId)
+                .putLong(parkingLotId)
+                .putInt(toEpochMinutes(validFrom))
+                .putInt(toEpochMinutes(validTo));
+
+        byte[] tag = macs.get().doFinal(Arrays.copyOf(buffer.array(), PAYLOAD_BYTES));
+        buffer.put(tag, 0, TAG_BYTES);
+        return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Returns the decoded pass if the signature checks out, otherwise null. Expiry
+     * and revocation are left to the caller.
+     */
+    public GatePass verify(String pass) {
+        if (pass == null || !pass.startsWith(PREFIX)) {
+            return null;
+        }
+
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(pass.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (decoded.length != PAYLOAD_BYTES + TAG_BYTES || decoded[0] != VERSION) {
+            return null;
+        }
+
+        byte[] expected = Arrays.copyOf(macs.get().doFinal(Arrays.copyOf(decoded, PAYLOAD_BYTES)), TAG_BYTES);
+        byte[] actual = Arrays.copyOfRange(decoded, PAYLOAD_BYTES, PAYLOAD_BYTES + TAG_BYTES);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(decoded, 1, PAYLOAD_BYTES - 1);
+        return new GatePass(buffer.getLong(), buffer.getLong(),
+                fromEpochMinutes(buffer.getInt()), fromEpochMinutes(buffer.getInt()));
+    }
+
+    private static int toEpochMinutes(LocalDateTime dateTime) {
+        return (int) (dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    private static LocalDateTime fromEpochMinutes(int minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+
+    public static class GatePass {
+        private final long bookingId;
+        private final long parkingLotId;
+        private final LocalDateTime validFrom;
+        private final LocalDateTime validTo;
+
+        public GatePass(long bookingId, long parkingLotId, LocalDateTime validFrom, LocalDateTime validTo) {
+            this.bookingId = bookingId;
+            this.parkingLotId = parkingLotId;
+            this.validFrom = validFrom;
+            this.validTo = validTo;
+        }
+
+        public long getBookingId() { return bookingId; }
+        public long getParkingLotId() { return parkingLotId; }
+        public LocalDateTime getValidFrom() { return validFrom; }
+        public LocalDateTime getValidTo() { return validTo; }
+
+        public boolean isValidAt(LocalDateTime time) {
+            return !time.isBefore(validFrom) && time.isBefore(validTo);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.parkandride.util;
+
+/**
+ * Great-circle distances in meters. The batch variants take parallel primitive
+ * arrays with precomputed latitude cosines so the inner loop is straight-line
+ * arithmetic with no boxing or repeated trig on the fixed point.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    public static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180.0;
+
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180.0;
+
+    private GeoMath() {}
+
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        return haversine(lat1, lon1, Math.cos(lat1 * RADIANS_PER_DEGREE),
+                lat2, lon2, Math.cos(lat2 * RADIANS_PER_DEGREE));
+    }
+
+    /**
+     * Haversine distance from one point to each point in {@code [from, to)},
+     * written to the same index of {@code out}.
+     */
+    public static void haversineMeters(double lat, double lon, double[] lats, double[] lons, double[] cosLats,
+                                       int from, int to, double[] out) {
+        double cosLat = Math.cos(lat * RADIANS_PER_DEGREE);
+        for (int i = from; i < to; i++) {
+            out[i] = haversine(lat, lon, cosLat, lats[i], lons[i], cosLats[i]);
+        }
+    }
+
+    /**
+     * Flat-earth approximation, well under 0.1% off the haversine distance for
+     * points a few kilometers apart and several times cheaper.
+     */
+    public static double equirectangularMeters(double lat1, double lon1, double lat2, double lon2) {
+        double x = (lon2 - lon1) * Math.cos((lat1 + lat2) * 0.5 * RADIANS_PER_DEGREE);
+        double y = lat2 - lat1;
+        return Math.sqrt(x * x + y * y) * METERS_PER_DEGREE;
+    }
+
+    public static void equirectangularMeters(double lat, double lon, double[] lats, double[] lons,
+                                             int from, int to, double[] out) {
+        // The midpoint cosine barely moves over short distances, so use the fixed point's;
+        // this costs about 3e-5 relative error per kilometer of separation
+        double cosLat = Math.cos(lat * RADIANS_PER_DEGREE);
+        for (int i = from; i < to; i++) {
+            double x = (lons[i] - lon) * cosLat;
+            double y = lats[i] - lat;
+            out[i] = Math.sqrt(x * x + y * y) * METERS_PER_DEGREE;
+        }
+    }
+
+    public static double cosLatitude(double latitude) {
+        return Math.cos(latitude * RADIANS_PER_DEGREE);
+    }
+
+    private static double haversine(double lat1, double lon1, double cosLat1, double lat2, double lon2, double cosLat2) {
+        double sinLat = Math.sin((lat2 - lat1) * 0.5 * RADIANS_PER_DEGREE);
+        double sinLon = Math.sin((lon2 - lon1) * 0.5 * RADIANS_PER_DEGREE);
+        double a = sinLat * sinLat + cosLat1 * cosLat2 * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.parkandride.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of long ids keyed by an integer tick. Level 0 has one
+ * bucket per tick; each higher level has buckets spanning a whole turn of the
+ * level below and is cascaded down as time reaches it. Scheduling is O(1) and
+ * advancing costs O(1) per tick plus O(levels) per entry over its lifetime.
+ * Entries cannot be cancelled; callers check whether a fired id still applies.
+ */
+public class HierarchicalTimingWheel {
+
+    private final int wheelBits;
+    private final int wheelMask;
+    private final int levels;
+    private final Bucket[][] buckets;
+    private final Bucket due = new Bucket();
+    private final Bucket overflow = new Bucket();
+
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(int wheelBits, int levels, long startTick) {
+        this.wheelBits = wheelBits;
+        this.wheelMask = (1 << wheelBits) - 1;
+        this.levels = levels;
+        this.buckets = new Bucket[levels][1 << wheelBits];
+        for (Bucket[] level : buckets) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = new Bucket();
+            }
+        }
+        this.currentTick = startTick;
+    }
+
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Schedules {@code id} to fire at {@code tick}. Ticks that have already passed
+     * fire on the next advance.
+     */
+    public synchronized void schedule(long id, long tick) {
+        place(id, tick);
+        size++;
+    }
+
+    /**
+     * Moves time forward to {@code tick}, passing every id whose tick has been
+     * reached to {@code expired}. Returns the number of ids fired.
+     */
+    public synchronized int advanceTo(long tick, LongConsumer expired) {
+        int fired = drain(due, expired);
+        while (currentTick < tick) {
+            currentTick++;
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (wheelBits * level)) - 1)) == 0) {
+                    cascade(buckets[level][(int) (currentTick >>> (wheelBits * level)) & wheelMask]);
+                    if (level == levels - 1) {
+                        cascade(overflow);
+                    }
+                }
+            }
+            fired += drain(due, expired);
+            fired += drain(buckets[0][(int) currentTick & wheelMask], expired);
+        }
+        size -= fired;
+        return fired;
+    }
+
+    private void place(long id, long tick) {
+        long delta = tick - currentTick;
+        if (delta <= 0) {
+            due.add(id, tick);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < 1L << (wheelBits * (level + 1))) {
+                buckets[level][(int) (tick >>> (wheelBits * level)) & wheelMask].add(id, tick);
+                return;
+            }
+        }
+        overflow.add(id, tick);
+    }
+
+    private void cascade(Bucket bucket) {
+        int count = bucket.size;
+        long[] ids = bucket.ids;
+        long[] ticks = bucket.ticks;
+        bucket.reset();
+        for (int i = 0; i < count; i++) {
+            place(ids[i], ticks[i]);
+        }
+    }
+
+    private int drain(Bucket bucket, LongConsumer expired) {
+        int count = bucket.size;
+        for (int i = 0; i < count; i++) {
+            expired.accept(bucket.ids[i]);
+        }
+        bucket.clear();
+        return count;
+    }
+
+    private static class Bucket {
+        private static final long[] EMPTY = new long[0];
+
+        private long[] ids = EMPTY;
+        private long[] ticks = EMPTY;
+        private int size;
+
+        void add(long id, long tick) {
+            if (size == ids.length) {
+                int capacity = Math.max(4, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                ticks = Arrays.copyOf(ticks, capacity);
+            }
+            ids[size] = id;
+            ticks[size] = tick;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        // Hands the arrays to the caller; the bucket starts again empty
+        void reset() {
+            ids = EMPTY;
+            ticks = EMPTY;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.parkandride.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Decodes driver location batches into primitive arrays. The binary form is a
+ * run of big-endian 24-byte records: driver id (8), timestamp in epoch millis
+ * (8), latitude and longitude in units of 1e-7 degree (4 + 4). The NDJSON form
+ * has one object per line with driverId, latitude, longitude and an optional
+ * timestamp; short keys lat, lon and ts are accepted too. A ping stamped more
+ * than the allowed clock skew ahead of now is rejected, since the store would
+ * otherwise treat every real ping after it as stale.
+ */
+public final class LocationBatchCodec {
+
+    public static final int RECORD_BYTES = 24;
+
+    private static final double E7 = 1e7;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private LocationBatchCodec() {}
+
+    public static Batch decodeBinary(byte[] body, long nowMillis, long maxSkewMillis) {
+        if (body.length % RECORD_BYTES != 0) {
+            throw new IllegalStateException("Binary location batch must be whole " + RECORD_BYTES + "-byte records");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        Batch batch = new Batch(body.length / RECORD_BYTES, nowMillis + maxSkewMillis);
+        while (buffer.hasRemaining()) {
+            long driverId = buffer.getLong();
+            long timestamp = buffer.getLong();
+            double latitude = buffer.getInt() / E7;
+            double longitude = buffer.getInt() / E7;
+            batch.add(driverId, timestamp > 0 ? timestamp : nowMillis, latitude, longitude);
+        }
+        return batch;
+    }
+
+    public static Batch decodeNdjson(byte[] body, long nowMillis, long maxSkewMillis) {
+        Batch batch = new Batch(Math.max(16, body.length / 64), nowMillis + maxSkewMillis);
+        try (JsonParser parser = JSON.createParser(body)) {
+            // Root-level objects may follow one another separated only by whitespace
+            for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalStateException("Location batch lines must be JSON objects");
+                }
+                long driverId = 0;
+                long timestamp = nowMillis;
+                double latitude = Double.NaN;
+                double longitude = Double.NaN;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    switch (field) {
+                        case "driverId" -> driverId = parser.getValueAsLong();
+                        case "latitude", "lat" -> latitude = parser.getValueAsDouble(Double.NaN);
+                        case "longitude", "lon" -> longitude = parser.getValueAsDouble(Double.NaN);
+                        case "timestamp", "ts" -> timestamp = parser.getValueAsLong(nowMillis);
+                        default -> {
+                            if (value.isStructStart()) {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                }
+                batch.add(driverId, timestamp, latitude, longitude);
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed NDJSON location batch: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read NDJSON location batch", e);
+        }
+        return batch;
+    }
+
+    /**
+     * Decoded pings; entries with no driver id, an impossible position or a
+     * timestamp from the future are counted as rejected instead of being kept.
+     */
+    public static final class Batch {
+        private final long latestTimestamp;
+        private long[] driverIds;
+        private long[] timestamps;
+        private double[] latitudes;
+        private double[] longitudes;
+        private int size;
+        private int rejected;
+
+        Batch(int capacity, long latestTimestamp) {
+            this.latestTimestamp = latestTimestamp;
+            driverIds = new long[capacity];
+            timestamps = new long[capacity];
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+        }
+
+        void add(long driverId, long timestamp, double latitude, double longitude) {
+            if (driverId <= 0 || timestamp > latestTimestamp
+                    || !(Math.abs(latitude) <= 90) || !(Math.abs(longitude) <= 180)) {
+                rejected++;
+                return;
+            }
+            if (size == driverIds.length) {
+                int capacity = size * 2;
+                driverIds = Arrays.copyOf(driverIds, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+            }
+            driverIds[size] = driverId;
+            timestamps[size] = timestamp;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        /**
+         * Keeps only the pings for one driver, counting the rest as rejected.
+         */
+        public void retainDriver(long driverId) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (driverIds[i] == driverId) {
+                    driverIds[kept] = driverIds[i];
+                    timestamps[kept] = timestamps[i];
+                    latitudes[kept] = latitudes[i];
+                    longitudes[kept] = longitudes[i];
+                    kept++;
+                }
+            }
+            rejected += size - kept;
+            size = kept;
+        }
+
+        public long[] getDriverIds() { return driverIds; }
+        public long[] getTimestamps() { return timestamps; }
+        public double[] getLatitudes() { return latitudes; }
+        public double[] getLongitudes() { return longitudes; }
+        public int getSize() { return size; }
+        public int getRejected() { return rejected; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.parkandride.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of location pings held in
+ * primitive arrays. Producers claim a run of slots with one CAS, fill them and
+ * publish each slot by stamping its sequence; the consumer reads slots in
+ * sequence order and stops at the first one not yet published. A full ring
+ * drops what does not fit rather than blocking the caller.
+ */
+public class LocationRingBuffer {
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(long driverId, long timestampMillis, double latitude, double longitude);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final long[] driverIds;
+    private final long[] timestamps;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+
+    // Next sequence to read; written only by the consumer
+    private volatile long consumed;
+
+    public LocationRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.driverIds = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Offers entries {@code from} to {@code from + count} and returns how many fit.
+     */
+    public int offer(long[] ids, long[] times, double[] lats, double[] lons, int from, int count) {
+        long start;
+        int accepted;
+        do {
+            start = claimed.get();
+            accepted = (int) Math.min(count, capacity - (start - consumed));
+            if (accepted <= 0) {
+                return 0;
+            }
+        } while (!claimed.compareAndSet(start, start + accepted));
+
+        for (int i = 0; i < accepted; i++) {
+            long sequence = start + i;
+            int index = (int) (sequence & mask);
+            driverIds[index] = ids[from + i];
+            timestamps[index] = times[from + i];
+            latitudes[index] = lats[from + i];
+            longitudes[index] = lons[from + i];
+            published.lazySet(index, sequence);
+        }
+        return accepted;
+    }
+
+    /**
+     * Hands up to {@code max} published entries to the consumer, in order. Must
+     * only be called from the one consumer thread.
+     */
+    public int drain(Consumer consumer, int max) {
+        long sequence = consumed;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (sequence & mask);
+            if (published.get(index) != sequence) {
+                break;
+            }
+            consumer.accept(driverIds[index], timestamps[index], latitudes[index], longitudes[index]);
+            sequence++;
+            drained++;
+        }
+        if (drained > 0) {
+            consumed = sequence;
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, claimed.get() - consumed);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
\ No newline at end of file
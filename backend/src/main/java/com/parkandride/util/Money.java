@@ -0,0 +1,54 @@
+package com.parkandride.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money as a long count of paise. Pricing works on these longs and
+ * converts to BigDecimal rupees only where amounts are stored or returned.
+ * Rounding is half up throughout, matching the BigDecimal code it replaces.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long PAISE_PER_RUPEE = 100;
+    public static final long BASIS_POINTS = 10_000;
+
+    private Money() {}
+
+    public static long ofRupees(long rupees) {
+        return Math.multiplyExact(rupees, PAISE_PER_RUPEE);
+    }
+
+    public static long fromRupees(BigDecimal rupees) {
+        return rupees.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toRupees(long paise) {
+        return BigDecimal.valueOf(paise, SCALE);
+    }
+
+    /**
+     * {@code amount / divisor} rounded half up, for amounts in finer units or
+     * scaled by a multiplier.
+     */
+    public static long divide(long amount, long divisor) {
+        if (amount < 0) {
+            return -divide(-amount, divisor);
+        }
+        long quotient = amount / divisor;
+        return (amount % divisor) * 2 >= divisor ? quotient + 1 : quotient;
+    }
+
+    public static long multiply(long paise, double factor) {
+        return divide(Math.multiplyExact(paise, basisPoints(factor)), BASIS_POINTS);
+    }
+
+    public static long multiplyBasisPoints(long paise, long basisPoints) {
+        return divide(Math.multiplyExact(paise, basisPoints), BASIS_POINTS);
+    }
+
+    public static long basisPoints(double factor) {
+        return Math.round(factor * BASIS_POINTS);
+    }
+}
\ No newline at end of file
@@ -2,31 +2,81 @@ package com.parkandride.util;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Component
 public class QRCodeGenerator {
 
+    private static final int BOOKING_QR_SIZE = 200;
+
+    // QRCodeWriter holds no state, so one instance serves every thread
+    private static final QRCodeWriter QR_CODE_WRITER = new QRCodeWriter();
+
+    private final ThreadLocal<ByteArrayOutputStream> buffers =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(2048));
+    private final ThreadLocal<BufferedImage> images = new ThreadLocal<>();
+
+    private final Map<String, byte[]> recentRenders;
+
+    public QRCodeGenerator(@Value("${app.qr.cache-size:1024}") int cacheSize) {
+        this.recentRenders = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
     public String generateQRCodeBase64(String text, int width, int height) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, width, height);
+        return Base64.getEncoder().encodeToString(renderPng(text, width, height));
+    }
+
+    public byte[] renderBookingQRCode(String accessToken) throws WriterException, IOException {
+        byte[] png = recentRenders.get(accessToken);
+        if (png == null) {
+            png = renderPng(accessToken, BOOKING_QR_SIZE, BOOKING_QR_SIZE);
+            recentRenders.put(accessToken, png);
+        }
+        return png;
+    }
+
+    public byte[] renderPng(String text, int width, int height) throws WriterException, IOException {
+        BitMatrix bitMatrix = QR_CODE_WRITER.encode(text, BarcodeFormat.QR_CODE, width, height);
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-        byte[] qrCodeBytes = outputStream.toByteArray();
+        BufferedImage image = imageFor(bitMatrix.getWidth(), bitMatrix.getHeight());
+        WritableRaster raster = image.getRaster();
+        for (int y = 0; y < bitMatrix.getHeight(); y++) {
+            for (int x = 0; x < bitMatrix.getWidth(); x++) {
+                // TYPE_BYTE_BINARY palette: 0 is black, 1 is white
+                raster.setSample(x, y, 0, bitMatrix.get(x, y) ? 0 : 1);
+            }
+        }
 
-        return Base64.getEncoder().encodeToString(qrCodeBytes);
+        ByteArrayOutputStream outputStream = buffers.get();
+        outputStream.reset();
+        ImageIO.write(image, "PNG", outputStream);
+        return outputStream.toByteArray();
     }
 
-    public String generateBookingQRCode(Long bookingId, String accessPin) throws WriterException, IOException {
-        String qrData = String.format("BOOKING:%d:PIN:%s", bookingId, accessPin);
-        return generateQRCodeBase64(qrData, 200, 200);
+    private BufferedImage imageFor(int width, int height) {
+        BufferedImage image = images.get();
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+            images.set(image);
+        }
+        return image;
     }
-}
\ No newline at end of file
+}
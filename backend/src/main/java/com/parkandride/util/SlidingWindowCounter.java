@@ -0,0 +1,49 @@
+package com.parkandride.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free event count over a sliding window, kept as a ring of time buckets.
+ * A bucket is reset by whichever writer first lands in it after it has aged out;
+ * an increment racing with that reset can be lost, which a rate estimate tolerates.
+ */
+public class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray epochs;
+
+    public SlidingWindowCounter(int buckets, long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+        this.counts = new AtomicLongArray(buckets);
+        this.epochs = new AtomicLongArray(buckets);
+    }
+
+    public void record(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int index = (int) (epoch % counts.length());
+        long seen = epochs.get(index);
+        if (seen != epoch && epochs.compareAndSet(index, seen, epoch)) {
+            counts.set(index, 0);
+        }
+        counts.incrementAndGet(index);
+    }
+
+    /**
+     * Events recorded in the buckets that overlap the last window.
+     */
+    public long sum(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            if (epoch - epochs.get(i) < counts.length()) {
+                total += counts.get(i);
+            }
+        }
+        return total;
+    }
+
+    public long getWindowMillis() {
+        return bucketMillis * counts.length();
+    }
+}
\ No newline at end of file
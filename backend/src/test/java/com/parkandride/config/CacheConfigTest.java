@@ -0,0 +1,70 @@
+package com.parkandride.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        CacheConfig cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "defaultSpec", "maximumSize=10,expireAfterWrite=10m,recordStats");
+        ReflectionTestUtils.setField(cacheConfig, "ridePricingSpec", "maximumSize=20,expireAfterAccess=10m,recordStats");
+        ReflectionTestUtils.setField(cacheConfig, "parkingQuotesSpec", "maximumSize=30,expireAfterWrite=5m,recordStats");
+        cacheManager = cacheConfig.cacheManager();
+    }
+
+    @Test
+    void namedCachesAreRegisteredUpFrontWithTheirOwnSpecs() {
+        assertTrue(cacheManager.getCacheNames().containsAll(List.of(CacheConfig.RIDE_PRICING, CacheConfig.PARKING_QUOTES)));
+
+        assertEquals(20, maximumSize(CacheConfig.RIDE_PRICING));
+        assertTrue(nativeCache(CacheConfig.RIDE_PRICING).policy().expireAfterAccess().isPresent());
+        assertEquals(30, maximumSize(CacheConfig.PARKING_QUOTES));
+        assertTrue(nativeCache(CacheConfig.PARKING_QUOTES).policy().expireAfterWrite().isPresent());
+    }
+
+    @Test
+    void otherCachesFallBackToTheBoundedDefault() {
+        assertEquals(10, maximumSize("somethingElse"));
+        assertTrue(nativeCache("somethingElse").policy().isRecordingStats());
+    }
+
+    @Test
+    void cachesStayBoundedAndRecordStats() {
+        Cache<Object, Object> ridePricing = nativeCache(CacheConfig.RIDE_PRICING);
+        for (int i = 0; i < 1_000; i++) {
+            cacheManager.getCache(CacheConfig.RIDE_PRICING).put(i, i);
+        }
+        cacheManager.getCache(CacheConfig.RIDE_PRICING).get(-1);
+        ridePricing.cleanUp();
+
+        assertTrue(ridePricing.estimatedSize() <= 20);
+        assertTrue(ridePricing.stats().evictionCount() > 0);
+        assertEquals(1, ridePricing.stats().missCount());
+    }
+
+    @Test
+    void nullValuesAreNotCached() {
+        assertThrows(IllegalArgumentException.class,
+                () -> cacheManager.getCache(CacheConfig.PARKING_QUOTES).put("quote", null));
+    }
+
+    private long maximumSize(String name) {
+        return nativeCache(name).policy().eviction().orElseThrow().getMaximum();
+    }
+
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
\ No newline at end of file
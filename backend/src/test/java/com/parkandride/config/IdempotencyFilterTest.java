@@ -0,0 +1,204 @@
+package com.parkandride.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private static final String PATH = "/api/parking/bookings";
+
+    private IdempotencyFilter filter;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter();
+        ReflectionTestUtils.setField(filter, "paths", List.of(PATH));
+        ReflectionTestUtils.setField(filter, "maxEntries", 100);
+        ReflectionTestUtils.setField(filter, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(filter, "waitSeconds", 5L);
+        runs = new AtomicInteger();
+    }
+
+    @Test
+    void replaysTheStoredResponse() throws Exception {
+        FilterChain chain = respond(HttpServletResponse.SC_OK, "x".repeat(1000));
+
+        MockHttpServletResponse first = send("key-1", "{\"lot\":1}", chain);
+        MockHttpServletResponse second = send("key-1", "{\"lot\":1}", chain);
+
+        assertEquals(1, runs.get());
+        assertEquals(200, second.getStatus());
+        assertEquals("application/json", second.getContentType());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void keysAreScopedToThePath() throws Exception {
+        ReflectionTestUtils.setField(filter, "paths", List.of(PATH, "/api/rides/bookings"));
+        FilterChain chain = respond(HttpServletResponse.SC_OK, "booked");
+
+        send("key-1", "{}", chain);
+        MockHttpServletRequest ride = request("key-1", "{}");
+        ride.setRequestURI("/api/rides/bookings");
+        filter.doFilter(ride, new MockHttpServletResponse(), chain);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void rejectsAReusedKeyWithADifferentBody() throws Exception {
+        FilterChain chain = respond(HttpServletResponse.SC_OK, "booked");
+
+        send("key-1", "{\"lot\":1}", chain);
+        MockHttpServletResponse mismatch = send("key-1", "{\"lot\":2}", chain);
+
+        assertEquals(1, runs.get());
+        assertEquals(422, mismatch.getStatus());
+    }
+
+    @Test
+    void runsAgainAfterAServerError() throws Exception {
+        FilterChain chain = (request, response) -> {
+            int run = runs.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(run == 1 ? 503 : 201);
+            response.getWriter().write("run " + run);
+        };
+
+        MockHttpServletResponse failed = send("key-1", "{}", chain);
+        MockHttpServletResponse retried = send("key-1", "{}", chain);
+        MockHttpServletResponse replayed = send("key-1", "{}", chain);
+
+        assertEquals(503, failed.getStatus());
+        assertEquals(201, retried.getStatus());
+        assertEquals("run 2", replayed.getContentAsString());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void retryWaitsForTheRequestInFlight() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = (request, response) -> {
+            runs.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+            response.getWriter().write("booked once");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> original = executor.submit(() -> send("key-1", "{}", chain));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<MockHttpServletResponse> retry = executor.submit(() -> send("key-1", "{}", chain));
+            Thread.sleep(100);
+            assertFalse(retry.isDone(), "the retry waits for the original");
+            release.countDown();
+
+            assertEquals(201, original.get(5, TimeUnit.SECONDS).getStatus());
+            MockHttpServletResponse replayed = retry.get(5, TimeUnit.SECONDS);
+            assertEquals(201, replayed.getStatus());
+            assertEquals("booked once", replayed.getContentAsString());
+            assertEquals(1, runs.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void evictionKeepsRequestsInFlight() throws Exception {
+        ReflectionTestUtils.setField(filter, "maxEntries", 1);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            runs.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> original = executor.submit(() -> send("slow", "{}", slow));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            // Pushes the map over its limit while the slow request is still running
+            send("other-1", "{}", respond(200, "a"));
+            send("other-2", "{}", respond(200, "b"));
+
+            Future<MockHttpServletResponse> retry = executor.submit(() -> send("slow", "{}", slow));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(201, original.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals("true", retry.get(5, TimeUnit.SECONDS).getHeader(IdempotencyFilter.REPLAYED_HEADER));
+            assertEquals(3, runs.get(), "the slow request ran once");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void ignoresRequestsWithoutAKey() throws Exception {
+        FilterChain chain = respond(HttpServletResponse.SC_OK, "booked");
+
+        send(null, "{}", chain);
+        send(null, "{}", chain);
+
+        assertEquals(2, runs.get());
+    }
+
+    private FilterChain respond(int status, String body) {
+        return (request, response) -> {
+            runs.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setStatus(status);
+            response.getWriter().write(body);
+        };
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(key, body), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PATH);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.AllocationSimulationResponse;
+import com.parkandride.dto.AllocationSimulationResult;
+import com.parkandride.exception.ResourceNotFoundException;
+import com.parkandride.model.BookingStatus;
+import com.parkandride.model.ParkingBooking;
+import com.parkandride.model.ParkingLot;
+import com.parkandride.model.ParkingSpot;
+import com.parkandride.model.SpotStatus;
+import com.parkandride.model.SpotType;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.repository.ParkingLotRepository;
+import com.parkandride.repository.ParkingSpotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AllocationSimulatorTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 2);
+    private static final LocalDateTime DAY_START = DATE.atStartOfDay();
+
+    private AllocationSimulator simulator;
+    private ParkingLotRepository parkingLotRepository;
+    private ParkingLot parkingLot;
+    private final List<ParkingSpot> spots = new ArrayList<>();
+    private final List<ParkingBooking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = new ParkingLot();
+        parkingLot.setId(1L);
+
+        parkingLotRepository = mock(ParkingLotRepository.class);
+        when(parkingLotRepository.existsById(1L)).thenReturn(true);
+        ParkingSpotRepository parkingSpotRepository = mock(ParkingSpotRepository.class);
+        when(parkingSpotRepository.findByParkingLotIdOrderBySpotNumberAsc(1L)).thenReturn(spots);
+        ParkingBookingRepository parkingBookingRepository = mock(ParkingBookingRepository.class);
+        when(parkingBookingRepository.findByParkingLotIdAndStartTimeGreaterThanEqualAndStartTimeLessThanOrderByCreatedAtAsc(
+                eq(1L), any(), any())).thenReturn(bookings);
+
+        simulator = new AllocationSimulator();
+        ReflectionTestUtils.setField(simulator, "parkingLotRepository", parkingLotRepository);
+        ReflectionTestUtils.setField(simulator, "parkingSpotRepository", parkingSpotRepository);
+        ReflectionTestUtils.setField(simulator, "parkingBookingRepository", parkingBookingRepository);
+        ReflectionTestUtils.setField(simulator, "spotAllocationPolicy", new SpotAllocationPolicy(
+                SpotAllocationStrategy.BEST_FIT, List.of(SpotType.REGULAR), List.of(), List.of(), List.of(), List.of()));
+    }
+
+    /**
+     * First fit parks the third booking on the spot with the long free stretch, so
+     * the long fourth booking no longer fits anywhere; best fit tucks it into the
+     * other spot's exact gap instead.
+     */
+    @Test
+    void bestFitKeepsRoomThatFirstFitFragments() {
+        spot(11L, SpotStatus.AVAILABLE);
+        spot(12L, SpotStatus.AVAILABLE);
+        spot(13L, SpotStatus.OUT_OF_ORDER);
+        booking(0, 60, BookingStatus.CONFIRMED);
+        booking(0, 120, BookingStatus.CONFIRMED);
+        booking(120, 240, BookingStatus.CONFIRMED);
+        booking(300, 400, BookingStatus.CANCELLED);
+        booking(60, 240, BookingStatus.CONFIRMED);
+
+        AllocationSimulationResponse response = simulator.simulate(1L, DATE);
+
+        assertEquals(2, response.getSpots());
+        AllocationSimulationResult firstFit = result(response, SpotAllocationStrategy.FIRST_FIT);
+        AllocationSimulationResult bestFit = result(response, SpotAllocationStrategy.BEST_FIT);
+        assertEquals(4, firstFit.getRequested());
+        assertEquals(3, firstFit.getAccepted());
+        assertEquals(4, bestFit.getAccepted());
+        assertEquals(8.0, bestFit.getBookedHours());
+        assertEquals(480.0 / (2 * 24 * 60), bestFit.getUtilization(), 1e-9);
+    }
+
+    @Test
+    void onlyCountsTheSimulatedDayTowardsUtilization() {
+        spot(11L, SpotStatus.AVAILABLE);
+        booking(23 * 60, 26 * 60, BookingStatus.CONFIRMED);
+
+        AllocationSimulationResult bestFit = result(simulator.simulate(1L, DATE), SpotAllocationStrategy.BEST_FIT);
+
+        assertEquals(1, bestFit.getAccepted());
+        assertEquals(1.0, bestFit.getBookedHours());
+    }
+
+    @Test
+    void unknownLotIsRejected() {
+        when(parkingLotRepository.existsById(2L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> simulator.simulate(2L, DATE));
+    }
+
+    private void spot(Long id, SpotStatus status) {
+        ParkingSpot spot = new ParkingSpot("S" + id, parkingLot);
+        spot.setId(id);
+        spot.setStatus(status);
+        spots.add(spot);
+    }
+
+    private void booking(int startMinute, int endMinute, BookingStatus status) {
+        ParkingBooking booking = new ParkingBooking(null, parkingLot, DAY_START.plusMinutes(startMinute),
+                DAY_START.plusMinutes(endMinute), BigDecimal.TEN);
+        booking.setStatus(status);
+        bookings.add(booking);
+    }
+
+    private static AllocationSimulationResult result(AllocationSimulationResponse response, SpotAllocationStrategy strategy) {
+        return response.getResults().stream()
+                .filter(result -> result.getStrategy().equals(strategy.name()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.parkandride.service;
+
+import com.parkandride.model.ParkingLot;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.repository.ParkingLotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityCountersTest {
+
+    private static final int TOTAL_SPOTS = 10;
+
+    private AvailabilityCounters counters;
+    private ParkingLot parkingLot;
+    // Bookings holding a spot as committed in the database
+    private final AtomicLong committedHolding = new AtomicLong();
+    private Runnable duringBookingCount = () -> {};
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = new ParkingLot();
+        parkingLot.setId(1L);
+        parkingLot.setTotalSpots(TOTAL_SPOTS);
+        parkingLot.setAvailableSpots(TOTAL_SPOTS);
+
+        ParkingLotRepository parkingLotRepository = mock(ParkingLotRepository.class);
+        when(parkingLotRepository.findAll()).thenReturn(List.of(parkingLot));
+        ParkingBookingRepository parkingBookingRepository = mock(ParkingBookingRepository.class);
+        when(parkingBookingRepository.countByParkingLotAndStatusIn(anyList())).thenAnswer(call -> {
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{1L, committedHolding.get()});
+            duringBookingCount.run();
+            return rows;
+        });
+
+        counters = new AvailabilityCounters();
+        ReflectionTestUtils.setField(counters, "parkingLotRepository", parkingLotRepository);
+        ReflectionTestUtils.setField(counters, "parkingBookingRepository", parkingBookingRepository);
+        ReflectionTestUtils.setField(counters, "jdbcTemplate", mock(JdbcTemplate.class));
+        counters.loadAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void leavesABookingInFlightAlone() {
+        TransactionSynchronizationManager.initSynchronization();
+        counters.adjust(parkingLot, -1);
+
+        counters.reconcile();
+        assertEquals(TOTAL_SPOTS - 1, counters.get(parkingLot), "the uncommitted booking is not undone");
+
+        committedHolding.incrementAndGet();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        counters.reconcile();
+        assertEquals(TOTAL_SPOTS - 1, counters.get(parkingLot));
+    }
+
+    @Test
+    void rollbackRestoresTheCount() {
+        TransactionSynchronizationManager.initSynchronization();
+        counters.adjust(parkingLot, -1);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        counters.reconcile();
+        assertEquals(TOTAL_SPOTS, counters.get(parkingLot));
+    }
+
+    @Test
+    void correctsDriftOnAQuietLotInOneRun() {
+        // A booking committed by another node, or a lost update
+        committedHolding.set(3);
+
+        counters.reconcile();
+        assertEquals(TOTAL_SPOTS - 3, counters.get(parkingLot));
+    }
+
+    @Test
+    void skipsALotThatChangedWhileBookingsWereCounted() {
+        committedHolding.set(3);
+        // Commits between the database read and the comparison
+        duringBookingCount = () -> counters.adjust(parkingLot, -1);
+
+        counters.reconcile();
+        assertEquals(TOTAL_SPOTS - 1, counters.get(parkingLot), "busy lot waits for the next run");
+
+        duringBookingCount = () -> {};
+        committedHolding.incrementAndGet();
+        counters.reconcile();
+        assertEquals(TOTAL_SPOTS - 4, counters.get(parkingLot));
+    }
+
+    @Test
+    void correctionKeepsAdjustmentsMadeMeanwhile() {
+        committedHolding.set(2);
+        counters.reconcile();
+        counters.adjust(parkingLot, 1);
+        committedHolding.decrementAndGet();
+
+        counters.reconcile();
+        assertEquals(TOTAL_SPOTS - 1, counters.get(parkingLot));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
\ No newline at end of file
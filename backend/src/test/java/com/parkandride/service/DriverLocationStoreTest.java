@@ -0,0 +1,196 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.DriverLocationResponse;
+import com.parkandride.model.Driver;
+import com.parkandride.model.RideType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DriverLocationStoreTest {
+
+    private static final long BASE = 1_792_000_000_000L;
+    private static final double STEP = 1e-6;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DriverPool driverPool;
+    private DriverLocationStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        driverPool = new DriverPool();
+        ReflectionTestUtils.setField(driverPool, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(driverPool, "cellSizeMeters", 1000.0);
+        ReflectionTestUtils.setField(driverPool, "maxRadiusMeters", 10000.0);
+        driverPool.init();
+        store = startStore(driverPool);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        store.stop();
+    }
+
+    @Test
+    void keepsLatestPingAndDropsStaleOnes() {
+        register(1);
+
+        store.offer(1, BASE + 2_000, 28.61, 77.21);
+        store.offer(1, BASE + 1_000, 28.50, 77.10);
+        awaitTimestamp(1, BASE + 2_000);
+        store.offer(1, BASE + 3_000, 28.62, 77.22);
+        awaitTimestamp(1, BASE + 3_000);
+
+        DriverLocationResponse latest = store.getLatest(1L);
+        assertEquals(28.62, (double) latest.getLatitude());
+        assertEquals(77.22, (double) latest.getLongitude());
+        assertEquals(1.0, meterRegistry.counter("locations.stale").count());
+        assertEquals(28.62, driverPool.get(1L).getLatitude(), "dispatch sees the move");
+    }
+
+    @Test
+    void ignoresUnknownDrivers() {
+        register(1);
+
+        store.offer(99, BASE, 28.6, 77.2);
+        store.offer(1, BASE, 28.6, 77.2);
+        awaitTimestamp(1, BASE);
+
+        assertNull(store.getLatest(99L));
+        assertEquals(1, store.getTrackedDrivers());
+        assertEquals(1.0, meterRegistry.counter("locations.unknown.driver").count());
+    }
+
+    @Test
+    void dropsAPingThatFailsAndKeepsDraining() throws InterruptedException {
+        DriverPool failingPool = new DriverPool() {
+            @Override
+            public boolean updateLocation(Long driverId, double latitude, double longitude) {
+                if (driverId == 2L) {
+                    throw new IllegalStateException("poisoned ping");
+                }
+                return super.updateLocation(driverId, latitude, longitude);
+            }
+        };
+        ReflectionTestUtils.setField(failingPool, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(failingPool, "cellSizeMeters", 1000.0);
+        ReflectionTestUtils.setField(failingPool, "maxRadiusMeters", 10000.0);
+        failingPool.init();
+        store.stop();
+        driverPool = failingPool;
+        store = startStore(failingPool);
+        register(1);
+        register(2);
+
+        store.offer(2, BASE, 28.6, 77.2);
+        store.offer(1, BASE, 28.61, 77.21);
+        awaitTimestamp(1, BASE);
+        store.offer(2, BASE + 1_000, 28.6, 77.2);
+        store.offer(1, BASE + 1_000, 28.62, 77.22);
+        awaitTimestamp(1, BASE + 1_000);
+
+        assertNull(store.getLatest(2L));
+        assertEquals(2.0, meterRegistry.counter("locations.failed").count());
+        assertEquals(0, store.getQueueDepth());
+    }
+
+    /**
+     * Each ping encodes one counter in its latitude, longitude and timestamp, so a
+     * read that mixes two pings shows up as fields that disagree. Enough drivers
+     * are fed to grow the table while readers are on it.
+     */
+    @Test
+    void seqlockReadsNeverSeeTornPositions() throws Exception {
+        int drivers = 3_000;
+        for (int id = 1; id <= drivers; id++) {
+            register(id);
+        }
+
+        AtomicReference<String> torn = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted() && torn.get() == null) {
+                for (long id = 1; id <= 3; id++) {
+                    DriverLocationResponse location = store.getLatest(id);
+                    if (location == null) {
+                        continue;
+                    }
+                    long k = location.getRecordedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - BASE;
+                    long fromLatitude = Math.round((location.getLatitude() - 28.0) / STEP);
+                    long fromLongitude = Math.round((location.getLongitude() - 77.0) / STEP);
+                    if (fromLatitude != k || fromLongitude != k) {
+                        torn.set("driver " + id + ": ts " + k + ", lat " + fromLatitude + ", lon " + fromLongitude);
+                    }
+                    reads.incrementAndGet();
+                }
+                Thread.yield();
+            }
+        });
+        reader.start();
+
+        // Growing the table under the reader, then hammering the slots it watches
+        long k = 0;
+        for (int id = 1; id <= drivers; id++) {
+            k++;
+            store.offer(id, BASE + k, 28.0 + k * STEP, 77.0 + k * STEP);
+        }
+        awaitTimestamp(drivers, BASE + k);
+        long last = 0;
+        for (int i = 0; i < 30_000; i++) {
+            k++;
+            last = i % 3 + 1;
+            store.offer(last, BASE + k, 28.0 + k * STEP, 77.0 + k * STEP);
+        }
+        awaitTimestamp(last, BASE + k);
+        reader.interrupt();
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertNull(torn.get());
+        assertTrue(reads.get() > 0);
+        assertEquals(drivers, store.getTrackedDrivers());
+    }
+
+    private DriverLocationStore startStore(DriverPool pool) {
+        DriverLocationStore started = new DriverLocationStore();
+        ReflectionTestUtils.setField(started, "driverPool", pool);
+        ReflectionTestUtils.setField(started, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(started, "ringCapacity", 65536);
+        ReflectionTestUtils.setField(started, "historyEnabled", false);
+        ReflectionTestUtils.setField(started, "historyIntervalSeconds", 30L);
+        ReflectionTestUtils.setField(started, "historyBatchSize", 500);
+        ReflectionTestUtils.setField(started, "historyFlushMillis", 5000L);
+        started.start();
+        return started;
+    }
+
+    private void register(long id) {
+        Driver driver = new Driver("Driver " + id, "+91" + id, "DL-" + id, null, RideType.CAB);
+        driver.setId(id);
+        driver.setLatitude(28.6);
+        driver.setLongitude(77.2);
+        driverPool.register(driver);
+    }
+
+    private void awaitTimestamp(long driverId, long timestampMillis) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            DriverLocationResponse location = store.getLatest(driverId);
+            if (location != null && location.getRecordedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    == timestampMillis) {
+                return;
+            }
+            Thread.yield();
+        }
+        fail("driver " + driverId + " never reached " + timestampMillis);
+    }
+}
\ No newline at end of file
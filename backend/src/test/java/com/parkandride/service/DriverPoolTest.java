@@ -0,0 +1,196 @@
+package com.parkandride.service;
+
+import com.parkandride.model.Driver;
+import com.parkandride.model.RideType;
+import com.parkandride.util.GeoMath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DriverPoolTest {
+
+    private static final double CENTER_LAT = 28.6139;
+    private static final double CENTER_LON = 77.2090;
+    private static final double MAX_RADIUS_METERS = 10000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DriverPool driverPool;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        driverPool = new DriverPool();
+        ReflectionTestUtils.setField(driverPool, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(driverPool, "cellSizeMeters", 1000.0);
+        ReflectionTestUtils.setField(driverPool, "maxRadiusMeters", MAX_RADIUS_METERS);
+        driverPool.init();
+    }
+
+    @Test
+    void dispatchClaimsNearestFreeDriver() {
+        Random random = new Random(24);
+        List<Driver> drivers = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            Driver driver = driver(id, RideType.CAB, CENTER_LAT + (random.nextDouble() - 0.5) * 0.2,
+                    CENTER_LON + (random.nextDouble() - 0.5) * 0.2);
+            drivers.add(driver);
+            driverPool.register(driver);
+        }
+
+        for (long rideId = 1; rideId <= 100; rideId++) {
+            double lat = CENTER_LAT + (random.nextDouble() - 0.5) * 0.2;
+            double lon = CENTER_LON + (random.nextDouble() - 0.5) * 0.2;
+            Driver nearest = null;
+            double best = Double.MAX_VALUE;
+            for (Driver driver : drivers) {
+                double distance = GeoMath.equirectangularMeters(lat, lon, driver.getLatitude(), driver.getLongitude());
+                if (driverPool.get(driver.getId()).isFree() && distance <= MAX_RADIUS_METERS && distance < best) {
+                    best = distance;
+                    nearest = driver;
+                }
+            }
+
+            DriverPool.DriverState claimed = driverPool.dispatch(RideType.CAB, lat, lon, rideId);
+            assertNotNull(claimed);
+            assertEquals(nearest.getId(), claimed.getId(), "ride " + rideId);
+            assertEquals(rideId, (long) claimed.getRideId());
+        }
+    }
+
+    @Test
+    void dispatchOnlyTakesDriversOfTheRideType() {
+        driverPool.register(driver(1, RideType.SHUTTLE, CENTER_LAT, CENTER_LON));
+
+        assertNull(driverPool.dispatch(RideType.CAB, CENTER_LAT, CENTER_LON, 10L));
+        assertEquals(1L, (long) driverPool.dispatch(RideType.SHUTTLE, CENTER_LAT, CENTER_LON, 11L).getId());
+        assertNull(driverPool.dispatch(RideType.SHUTTLE, CENTER_LAT, CENTER_LON, 12L), "the only shuttle is busy");
+    }
+
+    @Test
+    void releaseAndTransferOnlyMoveTheHoldersClaim() {
+        driverPool.register(driver(1, RideType.CAB, CENTER_LAT, CENTER_LON));
+        driverPool.dispatch(RideType.CAB, CENTER_LAT, CENTER_LON, 10L);
+
+        assertFalse(driverPool.release(1L, 11L));
+        assertFalse(driverPool.transfer(1L, 11L, 12L));
+        assertTrue(driverPool.transfer(1L, 10L, 12L));
+        assertFalse(driverPool.release(1L, 10L));
+        assertTrue(driverPool.release(1L, 12L));
+        assertTrue(driverPool.get(1L).isFree());
+    }
+
+    @Test
+    void reRegisteringKeepsTheCurrentRide() {
+        driverPool.register(driver(1, RideType.CAB, CENTER_LAT, CENTER_LON));
+        driverPool.dispatch(RideType.CAB, CENTER_LAT, CENTER_LON, 10L);
+
+        driverPool.register(driver(1, RideType.CAB, CENTER_LAT + 0.01, CENTER_LON));
+
+        assertEquals(10L, (long) driverPool.get(1L).getRideId());
+        assertNull(driverPool.dispatch(RideType.CAB, CENTER_LAT, CENTER_LON, 11L));
+        assertTrue(driverPool.release(1L, 10L));
+        assertEquals(11L, (long) driverPool.dispatch(RideType.CAB, CENTER_LAT, CENTER_LON, 11L).getRideId());
+    }
+
+    /**
+     * Dispatchers with and without a pickup position race each other, releases
+     * and drivers being re-registered. No driver may ever be held by two rides.
+     */
+    @Test
+    void concurrentDispatchNeverDoubleAssigns() throws Exception {
+        int drivers = 40;
+        for (long id = 1; id <= drivers; id++) {
+            driverPool.register(driver(id, RideType.CAB, CENTER_LAT + id * 1e-4, CENTER_LON));
+        }
+
+        int threads = 8;
+        AtomicLong nextRideId = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger dispatched = new AtomicInteger();
+        ConcurrentMap<Long, Long> holders = new ConcurrentHashMap<>();
+        List<String> conflicts = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            boolean withPosition = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 5_000; i++) {
+                    long rideId = nextRideId.incrementAndGet();
+                    DriverPool.DriverState driver = withPosition
+                            ? driverPool.dispatch(RideType.CAB, CENTER_LAT, CENTER_LON, rideId)
+                            : driverPool.dispatch(RideType.CAB, null, null, rideId);
+                    if (driver == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    dispatched.incrementAndGet();
+                    Long other = holders.putIfAbsent(driver.getId(), rideId);
+                    if (other != null) {
+                        synchronized (conflicts) {
+                            conflicts.add("driver " + driver.getId() + " given ride " + rideId + " while on " + other);
+                        }
+                        continue;
+                    }
+                    Thread.yield();
+                    holders.remove(driver.getId(), rideId);
+                    assertTrue(driverPool.release(driver.getId(), rideId), "the holder can always release");
+                }
+                return null;
+            }));
+        }
+        Future<?> registrar = executor.submit(() -> {
+            start.await();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+                long id = 1 + random.nextInt(drivers);
+                driverPool.register(driver(id, RideType.CAB, CENTER_LAT + id * 1e-4, CENTER_LON + random.nextDouble() * 1e-3));
+                Thread.yield();
+            }
+            return null;
+        });
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        registrar.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(List.of(), conflicts);
+        assertEquals(0.0, meterRegistry.counter("dispatch.double.assignments").count());
+        assertTrue(dispatched.get() > 0);
+        for (long id = 1; id <= drivers; id++) {
+            assertTrue(driverPool.get(id).isFree(), "driver " + id + " was released");
+        }
+    }
+
+    private static Driver driver(long id, RideType rideType, double latitude, double longitude) {
+        Driver driver = new Driver("Driver " + id, "+91" + id, "DL-" + id, null, rideType);
+        driver.setId(id);
+        driver.setLatitude(latitude);
+        driver.setLongitude(longitude);
+        return driver;
+    }
+}
\ No newline at end of file
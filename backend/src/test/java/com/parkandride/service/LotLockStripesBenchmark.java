@@ -0,0 +1,78 @@
+package com.parkandride.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission throughput under the lot stripes. One stripe stands in for the old
+ * lot-wide serialization; 64 is the default pool. The critical section burns a
+ * fixed amount of CPU in place of the capacity check and spot choice.
+ *
+ * <p>{@link #main} sweeps 1 to 16 threads. Run with {@code mvn test-compile
+ * exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.parkandride.service.LotLockStripesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LotLockStripesBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+
+    @Param({"1", "64"})
+    private int stripeCount;
+
+    @Param({"4", "200"})
+    private int lots;
+
+    private LotLockStripes stripes;
+    private long[] admitted;
+
+    @Setup
+    public void setUp() {
+        stripes = new LotLockStripes(stripeCount);
+        admitted = new long[lots];
+    }
+
+    @Benchmark
+    public void admit() {
+        int lot = ThreadLocalRandom.current().nextInt(lots);
+        ReentrantLock lock = stripes.lockFor((long) lot + 1);
+        lock.lock();
+        try {
+            Blackhole.consumeCPU(64);
+            admitted[lot]++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREAD_COUNTS) {
+            new Runner(new OptionsBuilder()
+                    .include(LotLockStripesBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
\ No newline at end of file
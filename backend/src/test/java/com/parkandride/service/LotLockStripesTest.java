@@ -0,0 +1,106 @@
+package com.parkandride.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LotLockStripesTest {
+
+    @Test
+    void stripeCountIsRoundedUpToPowerOfTwo() {
+        LotLockStripes stripes = new LotLockStripes(48);
+
+        Set<ReentrantLock> distinct = new HashSet<>();
+        for (long lotId = 1; lotId <= 10_000; lotId++) {
+            distinct.add(stripes.lockFor(lotId));
+        }
+        assertEquals(64, distinct.size());
+    }
+
+    @Test
+    void sameLotAlwaysGetsSameLock() {
+        LotLockStripes stripes = new LotLockStripes(64);
+
+        assertSame(stripes.lockFor(17L), stripes.lockFor(17L));
+    }
+
+    @Test
+    void neighbouringLotsSpreadAcrossStripes() {
+        LotLockStripes stripes = new LotLockStripes(64);
+
+        Set<ReentrantLock> distinct = new HashSet<>();
+        for (long lotId = 1; lotId <= 32; lotId++) {
+            distinct.add(stripes.lockFor(lotId));
+        }
+        assertTrue(distinct.size() >= 24, "sequential lot ids should rarely share a stripe: " + distinct.size());
+    }
+
+    /**
+     * Contention run for the admission pattern: check capacity, then take a spot,
+     * under the lot's stripe. Many threads racing for a few lots must fill each lot
+     * exactly to capacity and never beyond it.
+     */
+    @Test
+    void admissionUnderStripeNeverOverbooks() throws Exception {
+        LotLockStripes stripes = new LotLockStripes(8);
+        int lots = 6;
+        int capacity = 500;
+        int threads = 16;
+        int attemptsPerThread = 1_000;
+        int[] taken = new int[lots];
+        AtomicInteger admitted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    int lot = ThreadLocalRandom.current().nextInt(lots);
+                    ReentrantLock lock = stripes.lockFor((long) lot + 1);
+                    lock.lock();
+                    try {
+                        // Plain read-modify-write: only the stripe lock keeps it consistent
+                        int current = taken[lot];
+                        if (current < capacity) {
+                            Thread.yield();
+                            taken[lot] = current + 1;
+                            admitted.incrementAndGet();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int total = 0;
+        for (int lot = 0; lot < lots; lot++) {
+            assertTrue(taken[lot] <= capacity, "lot " + lot + " overbooked: " + taken[lot]);
+            total += taken[lot];
+        }
+        assertEquals(admitted.get(), total, "admissions lost or double-counted");
+        assertEquals(lots * capacity, total, "16k attempts for 3k spots should fill every lot");
+    }
+}
\ No newline at end of file
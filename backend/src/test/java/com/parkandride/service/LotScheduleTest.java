@@ -0,0 +1,158 @@
+package com.parkandride.service;
+
+import com.parkandride.model.SpotType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LotScheduleTest {
+
+    private static final List<SpotType> REGULAR = List.of(SpotType.REGULAR);
+
+    @Test
+    void occupancyIsHalfOpen() {
+        LotSchedule schedule = schedule(2, 96, SpotType.REGULAR, SpotType.REGULAR);
+        schedule.addBooking(1, null, 0, 60);
+        schedule.addBooking(2, null, 60, 120);
+
+        assertEquals(1, schedule.maxOccupancy(0, 120));
+        assertTrue(schedule.hasCapacity(30, 90));
+
+        schedule.addBooking(3, null, 30, 90);
+        assertEquals(2, schedule.maxOccupancy(0, 120));
+        assertFalse(schedule.hasCapacity(59, 61));
+        assertTrue(schedule.hasCapacity(90, 200));
+
+        schedule.removeBooking(3);
+        assertEquals(1, schedule.maxOccupancy(0, 120));
+        assertEquals(0, schedule.maxOccupancy(120, 180));
+    }
+
+    @Test
+    void rejectsDuplicateAndEmptyBookings() {
+        LotSchedule schedule = schedule(1, 96, SpotType.REGULAR);
+
+        assertTrue(schedule.addBooking(1, 101L, 0, 60));
+        assertFalse(schedule.addBooking(1, null, 60, 120));
+        assertFalse(schedule.addBooking(2, null, 60, 60));
+        assertFalse(schedule.removeBooking(2));
+        assertEquals(1, schedule.maxOccupancy(0, 200));
+    }
+
+    @Test
+    void bookingOnATakenSpotIsCountedButNotAssigned() {
+        LotSchedule schedule = schedule(2, 96, SpotType.REGULAR, SpotType.REGULAR);
+        schedule.addBooking(1, 101L, 0, 60);
+        schedule.addBooking(2, 101L, 30, 90);
+
+        assertEquals(101L, schedule.spotOf(1));
+        assertNull(schedule.spotOf(2));
+        assertEquals(2, schedule.maxOccupancy(30, 60));
+    }
+
+    @Test
+    void spotSharingASlotWithAnotherBookingIsStillFreeOutsideIt() {
+        LotSchedule schedule = schedule(1, 96, SpotType.REGULAR);
+        schedule.addBooking(1, 101L, 0, 10);
+
+        assertEquals(101L, schedule.findFreeSpot(10, 25, REGULAR, SpotAllocationStrategy.FIRST_FIT));
+        assertNull(schedule.findFreeSpot(5, 25, REGULAR, SpotAllocationStrategy.FIRST_FIT));
+        assertEquals(List.of(101L), schedule.findFreeSpots(10, 25, null));
+        assertEquals(List.of(), schedule.findFreeSpots(9, 25, null));
+    }
+
+    @Test
+    void findsTheFirstRequestedTypeWithAFreeSpot() {
+        LotSchedule schedule = schedule(3, 96, SpotType.REGULAR, SpotType.ELECTRIC, SpotType.ELECTRIC);
+        List<SpotType> electricFirst = List.of(SpotType.ELECTRIC, SpotType.REGULAR);
+
+        assertEquals(102L, schedule.findFreeSpot(0, 60, electricFirst, SpotAllocationStrategy.FIRST_FIT));
+        schedule.addBooking(1, 102L, 0, 60);
+        schedule.addBooking(2, 103L, 0, 60);
+        assertEquals(101L, schedule.findFreeSpot(0, 60, electricFirst, SpotAllocationStrategy.FIRST_FIT));
+        assertNull(schedule.findFreeSpot(0, 60, List.of(SpotType.ELECTRIC), SpotAllocationStrategy.FIRST_FIT));
+        assertEquals(List.of(101L), schedule.findFreeSpots(0, 60, SpotType.REGULAR));
+    }
+
+    @Test
+    void bestFitTakesTheTightestGap() {
+        LotSchedule schedule = schedule(3, 96, SpotType.REGULAR, SpotType.REGULAR, SpotType.REGULAR);
+        // Spot 101 is open before and after; 102 has a 60 minute gap; 103 fits exactly
+        schedule.addBooking(1, 102L, 0, 60);
+        schedule.addBooking(2, 102L, 180, 240);
+        schedule.addBooking(3, 103L, 0, 90);
+        schedule.addBooking(4, 103L, 150, 240);
+
+        assertEquals(101L, schedule.findFreeSpot(90, 150, REGULAR, SpotAllocationStrategy.FIRST_FIT));
+        assertEquals(103L, schedule.findFreeSpot(90, 150, REGULAR, SpotAllocationStrategy.BEST_FIT));
+        assertEquals(102L, schedule.findFreeSpot(60, 120, REGULAR, SpotAllocationStrategy.BEST_FIT));
+    }
+
+    @Test
+    void removingABookingKeepsItsNeighbourOnASharedSlot() {
+        LotSchedule schedule = schedule(1, 96, SpotType.REGULAR);
+        schedule.addBooking(1, 101L, 0, 20);
+        schedule.addBooking(2, 101L, 20, 60);
+
+        schedule.removeBooking(1);
+        assertEquals(101L, schedule.findFreeSpot(0, 20, REGULAR, SpotAllocationStrategy.FIRST_FIT));
+        assertNull(schedule.findFreeSpot(0, 45, REGULAR, SpotAllocationStrategy.FIRST_FIT));
+
+        schedule.removeBooking(2);
+        assertEquals(101L, schedule.findFreeSpot(0, 90, REGULAR, SpotAllocationStrategy.FIRST_FIT));
+    }
+
+    @Test
+    void moveBookingOnlyOntoAFreeSpot() {
+        LotSchedule schedule = schedule(2, 96, SpotType.REGULAR, SpotType.REGULAR);
+        schedule.addBooking(1, 101L, 0, 60);
+        schedule.addBooking(2, 102L, 30, 90);
+
+        assertFalse(schedule.moveBooking(1, 102L));
+        assertFalse(schedule.moveBooking(1, 999L));
+        assertEquals(101L, schedule.spotOf(1));
+
+        schedule.removeBooking(2);
+        assertTrue(schedule.moveBooking(1, 102L));
+        assertEquals(102L, schedule.spotOf(1));
+        assertEquals(101L, schedule.findFreeSpot(0, 60, REGULAR, SpotAllocationStrategy.FIRST_FIT));
+    }
+
+    @Test
+    void rekeyMovesTheBookingToItsNewId() {
+        LotSchedule schedule = schedule(1, 96, SpotType.REGULAR);
+        schedule.addBooking(-1, 101L, 0, 60);
+
+        assertTrue(schedule.rekey(-1, 7));
+        assertFalse(schedule.rekey(-1, 8));
+        assertEquals(101L, schedule.spotOf(7));
+        assertTrue(schedule.removeBooking(7));
+        assertEquals(0, schedule.maxOccupancy(0, 60));
+    }
+
+    @Test
+    void pruningRollsTheHorizonForward() {
+        // Eight slots: minutes 0 to 120
+        LotSchedule schedule = schedule(2, 8, SpotType.REGULAR, SpotType.REGULAR);
+        schedule.addBooking(1, 101L, 0, 30);
+        schedule.addBooking(2, 102L, 90, 200);
+
+        assertEquals(1, schedule.pruneBefore(120));
+        assertEquals(0, schedule.maxOccupancy(0, 30));
+
+        // Slots 8 and 9 reuse the rows that held booking 1
+        assertEquals(101L, schedule.findFreeSpot(120, 150, REGULAR, SpotAllocationStrategy.FIRST_FIT));
+        assertEquals(List.of(101L), schedule.findFreeSpots(150, 195, null));
+        assertEquals(102L, schedule.spotOf(2));
+        assertEquals(List.of(101L, 102L), schedule.findFreeSpots(200, 240, null));
+    }
+
+    // Spots are numbered 101, 102, ... in the order of their types
+    private static LotSchedule schedule(int capacity, int horizonSlots, SpotType... types) {
+        List<Long> spotIds = LongStream.rangeClosed(101, 100 + types.length).boxed().toList();
+        return new LotSchedule(capacity, spotIds, List.of(types), horizonSlots, 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.parkandride.service;
+
+import com.parkandride.model.ParkingLot;
+import com.parkandride.repository.ParkingLotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LotSpatialIndexTest {
+
+    // Connaught Place, New Delhi
+    private static final double LATITUDE = 28.6315;
+    private static final double LONGITUDE = 77.2167;
+
+    private LotSpatialIndex index;
+    private final List<ParkingLot> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ParkingLotRepository parkingLotRepository = mock(ParkingLotRepository.class);
+        when(parkingLotRepository.findAll()).thenReturn(stored);
+        AvailabilityCounters availabilityCounters = mock(AvailabilityCounters.class);
+        when(availabilityCounters.get(any())).thenAnswer(call -> call.<ParkingLot>getArgument(0).getId() % 2 == 0 ? 5 : 0);
+
+        index = new LotSpatialIndex();
+        ReflectionTestUtils.setField(index, "parkingLotRepository", parkingLotRepository);
+        ReflectionTestUtils.setField(index, "availabilityCounters", availabilityCounters);
+        ReflectionTestUtils.setField(index, "cellSizeMeters", 1000.0);
+    }
+
+    @Test
+    void radiusQueryReturnsLotsInsideNearestFirst() {
+        stored.add(lot(1L, 0.020));
+        stored.add(lot(2L, 0.004));
+        stored.add(lot(3L, 0.009));
+        index.loadAll();
+
+        // 0.009 degrees of latitude is about 1 km
+        assertEquals(List.of(2L, 3L), ids(index.findWithinRadius(LATITUDE, LONGITUDE, 1500, false)));
+        assertEquals(List.of(2L), ids(index.findWithinRadius(LATITUDE, LONGITUDE, 1500, true)));
+        assertTrue(index.findWithinRadius(LATITUDE, LONGITUDE, 100, false).isEmpty());
+    }
+
+    @Test
+    void nearestSearchesOutwardsPastEmptyRings() {
+        stored.add(lot(1L, 0.050));
+        stored.add(lot(2L, -0.030));
+        stored.add(lot(3L, 0.100));
+        index.loadAll();
+
+        assertEquals(List.of(2L, 1L), ids(index.findNearest(LATITUDE, LONGITUDE, 2, false)));
+        assertEquals(List.of(2L), ids(index.findNearest(LATITUDE, LONGITUDE, 5, true)));
+    }
+
+    @Test
+    void queriesSeeLotsAddedAfterTheIndexGrew() {
+        stored.add(lot(1L, 0.001));
+        index.loadAll();
+        assertEquals(List.of(1L), ids(index.findWithinRadius(LATITUDE, LONGITUDE, 5000, false)));
+
+        // A larger grid than the distance buffer this thread has used so far
+        for (long id = 2; id <= 40; id++) {
+            index.onParkingLotChanged(ParkingLotChangedEvent.saved(lot(id, 0.001 * id)));
+        }
+        List<Long> nearby = ids(index.findWithinRadius(LATITUDE, LONGITUDE, 5000, false));
+        assertEquals(40, nearby.size());
+        assertEquals(1L, nearby.get(0));
+        assertEquals(40L, nearby.get(39));
+
+        index.onParkingLotChanged(ParkingLotChangedEvent.deleted(1L));
+        assertEquals(List.of(2L, 3L), ids(index.findNearest(LATITUDE, LONGITUDE, 2, false)));
+    }
+
+    private static ParkingLot lot(Long id, double northOffset) {
+        ParkingLot parkingLot = new ParkingLot("Lot " + id, "Address " + id, LATITUDE + northOffset, LONGITUDE,
+                50, BigDecimal.TEN);
+        parkingLot.setId(id);
+        return parkingLot;
+    }
+
+    private static List<Long> ids(List<ParkingLot> parkingLots) {
+        return parkingLots.stream().map(ParkingLot::getId).toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.LotQuote;
+import com.parkandride.dto.ParkingQuoteRequest;
+import com.parkandride.dto.ParkingQuoteResponse;
+import com.parkandride.model.BookingType;
+import com.parkandride.model.ParkingLot;
+import com.parkandride.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ParkingQuotesTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+    private static final LocalDateTime END = START.plusHours(3);
+
+    private ParkingQuotes parkingQuotes;
+    private StationLotDirectory stationLotDirectory;
+    private LotSpatialIndex lotSpatialIndex;
+
+    @BeforeEach
+    void setUp() {
+        PricingService pricingService = mock(PricingService.class);
+        // Lot n costs n hundred rupees and 25 paise
+        when(pricingService.quoteParking(any(), any(), any(), any()))
+                .thenAnswer(call -> call.<ParkingLot>getArgument(0).getId() * 10_000 + 25);
+        stationLotDirectory = mock(StationLotDirectory.class);
+        lotSpatialIndex = mock(LotSpatialIndex.class);
+
+        parkingQuotes = new ParkingQuotes();
+        ReflectionTestUtils.setField(parkingQuotes, "pricingService", pricingService);
+        ReflectionTestUtils.setField(parkingQuotes, "stationLotDirectory", stationLotDirectory);
+        ReflectionTestUtils.setField(parkingQuotes, "lotSpatialIndex", lotSpatialIndex);
+        ReflectionTestUtils.setField(parkingQuotes, "cacheManager", new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(parkingQuotes, "ttlMinutes", 5L);
+        ReflectionTestUtils.setField(parkingQuotes, "parallelThreshold", 64);
+        parkingQuotes.init();
+    }
+
+    @Test
+    void quotesEachRequestedLotInOrder() {
+        when(stationLotDirectory.getActive(List.of(3L, 1L), true)).thenReturn(List.of(lot(3L), lot(1L)));
+
+        ParkingQuoteResponse response = parkingQuotes.quote(byIds(List.of(3L, 1L), true), "rider");
+
+        assertNotNull(response.getQuoteId());
+        assertEquals(START, response.getStartTime());
+        assertEquals(BookingType.HOURLY, response.getBookingType());
+        assertTrue(response.getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(4)));
+        List<LotQuote> quotes = response.getQuotes();
+        assertEquals(List.of(3L, 1L), quotes.stream().map(LotQuote::getParkingLotId).toList());
+        assertEquals(Money.toRupees(30_025), quotes.get(0).getTotalAmount());
+        assertEquals("Rajiv Chowk", quotes.get(0).getMetroStationName());
+        assertEquals(7, quotes.get(0).getAvailableSpots());
+    }
+
+    @Test
+    void quotesNearbyLotsWithoutIds() {
+        when(lotSpatialIndex.findWithinRadius(28.63, 77.21, 2000.0, false)).thenReturn(List.of(lot(5L)));
+        ParkingQuoteRequest request = request();
+        request.setLatitude(28.63);
+        request.setLongitude(77.21);
+        request.setRadiusInMeters(2000.0);
+
+        ParkingQuoteResponse response = parkingQuotes.quote(request, "rider");
+
+        assertEquals(List.of(5L), response.getQuotes().stream().map(LotQuote::getParkingLotId).toList());
+    }
+
+    @Test
+    void largeSearchesArePricedInParallelWithTheSameResults() {
+        List<Long> ids = LongStream.rangeClosed(1, 200).boxed().toList();
+        when(stationLotDirectory.getActive(eq(ids), anyBoolean())).thenReturn(ids.stream().map(ParkingQuotesTest::lot).toList());
+
+        ParkingQuoteResponse response = parkingQuotes.quote(byIds(ids, false), "rider");
+
+        for (int i = 0; i < ids.size(); i++) {
+            LotQuote quote = response.getQuotes().get(i);
+            assertEquals(ids.get(i), quote.getParkingLotId());
+            assertEquals(Money.toRupees(ids.get(i) * 10_000 + 25), quote.getTotalAmount());
+        }
+        assertEquals(Money.toRupees(1_500_025), redeem(response.getQuoteId(), "rider", 150L));
+    }
+
+    @Test
+    void redeemsOnlyTheQuotedLotWindowAndUser() {
+        when(stationLotDirectory.getActive(anyList(), anyBoolean())).thenReturn(List.of(lot(1L), lot(2L)));
+        String quoteId = parkingQuotes.quote(byIds(List.of(1L, 2L), false), "rider").getQuoteId();
+
+        assertEquals(Money.toRupees(20_025), redeem(quoteId, "rider", 2L));
+        assertEquals(Money.toRupees(20_025), redeem(quoteId, "rider", 2L), "a quote can be redeemed until it expires");
+        assertNull(redeem(quoteId, "someone-else", 2L));
+        assertNull(redeem(quoteId, "rider", 3L));
+        assertNull(parkingQuotes.redeem(quoteId, "rider", 1L, START, END.plusHours(1), BookingType.HOURLY));
+        assertNull(parkingQuotes.redeem(quoteId, "rider", 1L, START.minusHours(1), END, BookingType.HOURLY));
+        assertNull(parkingQuotes.redeem(quoteId, "rider", 1L, START, END, BookingType.DAILY));
+        assertNull(redeem("unknown", "rider", 1L));
+        assertNull(redeem(null, "rider", 1L));
+    }
+
+    @Test
+    void expiredQuotesAreNotRedeemed() {
+        ReflectionTestUtils.setField(parkingQuotes, "ttlMinutes", -1L);
+        when(stationLotDirectory.getActive(anyList(), anyBoolean())).thenReturn(List.of(lot(1L)));
+        String quoteId = parkingQuotes.quote(byIds(List.of(1L), false), "rider").getQuoteId();
+
+        assertNull(redeem(quoteId, "rider", 1L));
+    }
+
+    @Test
+    void everyQuoteGetsItsOwnId() {
+        when(stationLotDirectory.getActive(anyList(), anyBoolean())).thenReturn(List.of(lot(1L)));
+
+        String first = parkingQuotes.quote(byIds(List.of(1L), false), "rider").getQuoteId();
+        String second = parkingQuotes.quote(byIds(List.of(1L), false), "rider").getQuoteId();
+
+        assertNotEquals(first, second);
+        assertEquals(16, first.length());
+    }
+
+    @Test
+    void rejectsEmptyWindowsAndRequestsWithNoLots() {
+        ParkingQuoteRequest backwards = byIds(List.of(1L), false);
+        backwards.setEndTime(START);
+        assertThrows(IllegalStateException.class, () -> parkingQuotes.quote(backwards, "rider"));
+
+        assertThrows(IllegalStateException.class, () -> parkingQuotes.quote(byIds(List.of(), false), "rider"));
+        ParkingQuoteRequest noLongitude = request();
+        noLongitude.setLatitude(28.63);
+        assertThrows(IllegalStateException.class, () -> parkingQuotes.quote(noLongitude, "rider"));
+    }
+
+    private BigDecimal redeem(String quoteId, String username, Long parkingLotId) {
+        return parkingQuotes.redeem(quoteId, username, parkingLotId, START, END, BookingType.HOURLY);
+    }
+
+    private static ParkingQuoteRequest byIds(List<Long> parkingLotIds, boolean availableOnly) {
+        ParkingQuoteRequest request = request();
+        request.setParkingLotIds(parkingLotIds);
+        request.setAvailableOnly(availableOnly);
+        return request;
+    }
+
+    private static ParkingQuoteRequest request() {
+        ParkingQuoteRequest request = new ParkingQuoteRequest();
+        request.setStartTime(START);
+        request.setEndTime(END);
+        request.setBookingType(BookingType.HOURLY);
+        return request;
+    }
+
+    private static ParkingLot lot(Long id) {
+        ParkingLot parkingLot = new ParkingLot();
+        parkingLot.setId(id);
+        parkingLot.setName("Lot " + id);
+        parkingLot.setMetroStationName("Rajiv Chowk");
+        parkingLot.setAvailableSpots(7);
+        return parkingLot;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.parkandride.service;
+
+import com.parkandride.model.BookingStatus;
+import com.parkandride.model.BookingType;
+import com.parkandride.model.ParkingBooking;
+import com.parkandride.model.ParkingLot;
+import com.parkandride.model.User;
+import com.parkandride.model.WaitlistEntry;
+import com.parkandride.model.WaitlistStatus;
+import com.parkandride.repository.ParkingBookingJdbcRepository;
+import com.parkandride.repository.ParkingBookingRepository;
+import com.parkandride.repository.ParkingSpotRepository;
+import com.parkandride.repository.UserRepository;
+import com.parkandride.repository.WaitlistEntryRepository;
+import com.parkandride.util.AccessTokenUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Waitlist promotion through the service: a real Waitlist and lot stripes, with a
+ * lot whose free places are counted by the mocked availability index.
+ */
+class ParkingServiceWaitlistTest {
+
+    private static final LocalDateTime TOMORROW = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    private ParkingService parkingService;
+    private Waitlist waitlist;
+    private ParkingLot parkingLot;
+    private User owner;
+
+    private final AtomicInteger freePlaces = new AtomicInteger();
+    private final AtomicLong ids = new AtomicLong(100);
+    private final Map<Long, WaitlistEntry> entries = new HashMap<>();
+    private final Map<Long, ParkingBooking> bookings = new HashMap<>();
+    private final List<Long> promoted = new ArrayList<>();
+
+    private ParkingBookingRepository parkingBookingRepository;
+    private ParkingBookingJdbcRepository parkingBookingJdbcRepository;
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = new ParkingLot();
+        parkingLot.setId(1L);
+        owner = user(1L, "owner");
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("owner")).thenReturn(Optional.of(owner));
+
+        parkingBookingRepository = mock(ParkingBookingRepository.class);
+        when(parkingBookingRepository.findById(any())).thenAnswer(call -> Optional.ofNullable(bookings.get(call.<Long>getArgument(0))));
+        when(parkingBookingRepository.save(any())).thenAnswer(call -> {
+            ParkingBooking booking = call.getArgument(0);
+            if (booking.getId() == null) {
+                booking.setId(ids.incrementAndGet());
+            }
+            bookings.put(booking.getId(), booking);
+            return booking;
+        });
+
+        WaitlistEntryRepository waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+        when(waitlistEntryRepository.findById(any())).thenAnswer(call -> Optional.ofNullable(entries.get(call.<Long>getArgument(0))));
+        when(waitlistEntryRepository.save(any())).thenAnswer(call -> {
+            WaitlistEntry entry = call.getArgument(0);
+            if (entry.getStatus() == WaitlistStatus.PROMOTED) {
+                promoted.add(entry.getId());
+            }
+            return entry;
+        });
+
+        LotAvailabilityIndex lotAvailabilityIndex = mock(LotAvailabilityIndex.class);
+        when(lotAvailabilityIndex.tryAdmit(any(), any(), any(), any())).thenAnswer(call ->
+                freePlaces.getAndUpdate(free -> Math.max(0, free - 1)) > 0 ? mock(LotAvailabilityIndex.Hold.class) : null);
+
+        PricingService pricingService = mock(PricingService.class);
+        when(pricingService.calculateParkingPrice(any(), any(), any(), any())).thenReturn(BigDecimal.TEN);
+        AccessTokenUtils accessTokenUtils = mock(AccessTokenUtils.class);
+        when(accessTokenUtils.generate()).thenAnswer(call -> "token-" + ids.incrementAndGet());
+
+        parkingBookingJdbcRepository = mock(ParkingBookingJdbcRepository.class);
+        when(parkingBookingJdbcRepository.markNoShow(anyList())).thenAnswer(call -> {
+            int[] updated = new int[call.<List<Long>>getArgument(0).size()];
+            Arrays.fill(updated, 1);
+            return updated;
+        });
+
+        waitlist = new Waitlist();
+        ReflectionTestUtils.setField(waitlist, "waitlistEntryRepository", waitlistEntryRepository);
+
+        parkingService = new ParkingService();
+        ReflectionTestUtils.setField(parkingService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(parkingService, "parkingBookingRepository", parkingBookingRepository);
+        ReflectionTestUtils.setField(parkingService, "parkingBookingJdbcRepository", parkingBookingJdbcRepository);
+        ReflectionTestUtils.setField(parkingService, "parkingSpotRepository", mock(ParkingSpotRepository.class));
+        ReflectionTestUtils.setField(parkingService, "waitlistEntryRepository", waitlistEntryRepository);
+        ReflectionTestUtils.setField(parkingService, "lotAvailabilityIndex", lotAvailabilityIndex);
+        ReflectionTestUtils.setField(parkingService, "pricingService", pricingService);
+        ReflectionTestUtils.setField(parkingService, "accessTokenUtils", accessTokenUtils);
+        ReflectionTestUtils.setField(parkingService, "accessTokenIndex", mock(AccessTokenIndex.class));
+        ReflectionTestUtils.setField(parkingService, "availabilityCounters", mock(AvailabilityCounters.class));
+        ReflectionTestUtils.setField(parkingService, "gatePassRevocations", mock(GatePassRevocations.class));
+        ReflectionTestUtils.setField(parkingService, "bookingDeadlines", mock(BookingDeadlines.class));
+        ReflectionTestUtils.setField(parkingService, "surgePricing", mock(SurgePricing.class));
+        ReflectionTestUtils.setField(parkingService, "lotLockStripes", new LotLockStripes(8));
+        ReflectionTestUtils.setField(parkingService, "waitlist", waitlist);
+    }
+
+    @Test
+    void promotesEarlierWindowsFirstThenEarlierJoiners() {
+        WaitlistEntry lateWindow = waiter(11L, TOMORROW.plusHours(3), TOMORROW.minusDays(3));
+        WaitlistEntry joinedSecond = waiter(12L, TOMORROW, TOMORROW.minusDays(1));
+        WaitlistEntry joinedFirst = waiter(13L, TOMORROW, TOMORROW.minusDays(2));
+
+        freePlaces.set(2);
+        parkingService.cancelBooking(booking(BookingStatus.CONFIRMED).getId(), "owner");
+
+        assertEquals(List.of(13L, 12L), promoted);
+        assertEquals(WaitlistStatus.PROMOTED, joinedFirst.getStatus());
+        assertEquals(WaitlistStatus.PROMOTED, joinedSecond.getStatus());
+        assertNotNull(joinedFirst.getBookingId());
+        assertEquals(WaitlistStatus.WAITING, lateWindow.getStatus());
+        assertEquals(List.of(11L), entryIds(waitlist.candidates(parkingLot.getId())));
+    }
+
+    @Test
+    void cancellationPromotesTheHeadOfTheQueue() {
+        WaitlistEntry first = waiter(21L, TOMORROW, TOMORROW.minusDays(2));
+        WaitlistEntry second = waiter(22L, TOMORROW, TOMORROW.minusDays(1));
+        ParkingBooking cancelled = booking(BookingStatus.CONFIRMED);
+
+        freePlaces.set(1);
+        parkingService.cancelBooking(cancelled.getId(), "owner");
+
+        assertEquals(BookingStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(List.of(21L), promoted);
+        ParkingBooking promotedBooking = bookings.get(first.getBookingId());
+        assertSame(first.getUser(), promotedBooking.getUser());
+        assertEquals(TOMORROW, promotedBooking.getStartTime());
+        assertEquals(WaitlistStatus.WAITING, second.getStatus());
+    }
+
+    @Test
+    void noShowReleasePromotesWaiters() {
+        WaitlistEntry waiting = waiter(31L, TOMORROW, TOMORROW.minusDays(1));
+        ParkingBooking noShow = booking(BookingStatus.CONFIRMED);
+        when(parkingBookingRepository.findPendingArrivalsByIdIn(List.of(noShow.getId()))).thenReturn(List.of(noShow));
+
+        freePlaces.set(1);
+        assertEquals(1, parkingService.releaseNoShows(List.of(noShow.getId())));
+
+        assertEquals(List.of(31L), promoted);
+        assertEquals(WaitlistStatus.PROMOTED, waiting.getStatus());
+        assertTrue(waitlist.candidates(parkingLot.getId()).isEmpty());
+    }
+
+    @Test
+    void skipsWaitersThatLeftAndDoesNotBookThem() {
+        WaitlistEntry left = waiter(41L, TOMORROW, TOMORROW.minusDays(2));
+        WaitlistEntry stays = waiter(42L, TOMORROW, TOMORROW.minusDays(1));
+
+        parkingService.leaveWaitlist(41L, left.getUser().getUsername());
+        assertEquals(WaitlistStatus.CANCELLED, left.getStatus());
+
+        freePlaces.set(1);
+        parkingService.cancelBooking(booking(BookingStatus.CONFIRMED).getId(), "owner");
+
+        assertEquals(List.of(42L), promoted);
+        assertNull(left.getBookingId());
+        assertEquals(WaitlistStatus.PROMOTED, stays.getStatus());
+    }
+
+    @Test
+    void waitersStayQueuedWhileThereIsNoRoom() {
+        WaitlistEntry waiting = waiter(51L, TOMORROW, TOMORROW.minusDays(1));
+
+        freePlaces.set(0);
+        parkingService.cancelBooking(booking(BookingStatus.CONFIRMED).getId(), "owner");
+
+        assertTrue(promoted.isEmpty());
+        assertEquals(WaitlistStatus.WAITING, waiting.getStatus());
+        assertEquals(List.of(51L), entryIds(waitlist.candidates(parkingLot.getId())));
+    }
+
+    private WaitlistEntry waiter(Long id, LocalDateTime startTime, LocalDateTime joinedAt) {
+        User user = user(id, "waiter-" + id);
+        UserRepository userRepository = (UserRepository) ReflectionTestUtils.getField(parkingService, "userRepository");
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+
+        WaitlistEntry entry = new WaitlistEntry(user, parkingLot, startTime, startTime.plusHours(2));
+        entry.setId(id);
+        entry.setBookingType(BookingType.HOURLY);
+        entry.setStatus(WaitlistStatus.WAITING);
+        ReflectionTestUtils.setField(entry, "createdAt", joinedAt);
+        entries.put(id, entry);
+        waitlist.add(entry);
+        return entry;
+    }
+
+    private ParkingBooking booking(BookingStatus status) {
+        ParkingBooking booking = new ParkingBooking(owner, parkingLot, TOMORROW, TOMORROW.plusHours(2), BigDecimal.TEN);
+        booking.setStatus(status);
+        return parkingBookingRepository.save(booking);
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User(username, username + "@example.com", "secret", username);
+        user.setId(id);
+        return user;
+    }
+
+    private static List<Long> entryIds(List<Waitlist.Waiter> waiters) {
+        return waiters.stream().map(Waitlist.Waiter::getEntryId).toList();
+    }
+}
\ No newline at end of file
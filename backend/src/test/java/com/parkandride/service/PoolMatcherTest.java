@@ -0,0 +1,56 @@
+package com.parkandride.service;
+
+import com.parkandride.model.RideType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolMatcherTest {
+
+    private final PoolMatcher matcher = new PoolMatcher(1000, 15);
+
+    @Test
+    void batchingGroupsNeighboursIntoFewerVehiclesThanGreedy() {
+        PoolMatcher.Result result = matcher.match(List.of(
+                request(1L, 0.000), request(2L, 0.001), request(3L, 0.002), request(4L, 0.003)), List.of());
+
+        assertEquals(1, result.getOpened().size());
+        assertEquals(4, result.getOpened().get(0).size());
+        assertTrue(result.getGreedyVehicles() >= result.getOpened().size());
+    }
+
+    @Test
+    void ridesJoinAnOpenPoolUpToItsFreeSeats() {
+        PoolMatcher.OpenPool pool = new PoolMatcher.OpenPool("route-1", request(99L, 0.0), 1);
+
+        PoolMatcher.Result result = matcher.match(List.of(request(1L, 0.002), request(2L, 0.001)), List.of(pool));
+
+        assertEquals("route-1", result.getJoined().get(2L), "the smaller detour takes the seat");
+        assertNull(result.getJoined().get(1L));
+        assertEquals(List.of(List.of(1L)), result.getOpened());
+    }
+
+    @Test
+    void fallbacksCountAsOpenedVehicles() {
+        PoolMatcher.OpenPool pool = new PoolMatcher.OpenPool("route-1", request(99L, 0.0), 1);
+        PoolMatcher.Result result = matcher.match(List.of(request(1L, 0.001)), List.of(pool));
+        int saved = result.getVehiclesSaved();
+
+        // The planned seat was taken before the batch committed
+        result.reopen(1L);
+        assertTrue(result.getJoined().isEmpty());
+        assertEquals(saved - 1, result.getVehiclesSaved());
+
+        // A ride without coordinates costs a vehicle either way
+        result.addUnmatched(7L);
+        assertEquals(saved - 1, result.getVehiclesSaved());
+        assertEquals(List.of(List.of(1L), List.of(7L)), result.getOpened());
+    }
+
+    private static PoolMatcher.Request request(Long rideId, double offset) {
+        return new PoolMatcher.Request(rideId, RideType.CAB, 28.6139 + offset, 77.2090,
+                28.5355 + offset, 77.3910, 600, 4);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.parkandride.service;
+
+import com.parkandride.model.RideType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingKeysTest {
+
+    private static final LocalDateTime NINE_AM = LocalDateTime.of(2026, 3, 2, 9, 5, 17);
+
+    @Test
+    void requestsThatPriceTheSameShareAKey() {
+        Object key = PricingKeys.ride(28.613912, 77.209021, 28.535516, 77.391026, RideType.CAB, NINE_AM);
+
+        // Under a meter away and later in the same hour
+        assertEquals(key, PricingKeys.ride(28.6139121, 77.2090214, 28.5355158, 77.3910261, RideType.CAB,
+                NINE_AM.plusMinutes(40)));
+        // Only the hour is kept, not the day
+        assertEquals(key, PricingKeys.ride(28.613912, 77.209021, 28.535516, 77.391026, RideType.CAB,
+                NINE_AM.plusDays(1)));
+    }
+
+    @Test
+    void anythingThatMovesThePriceChangesTheKey() {
+        Object key = PricingKeys.ride(28.613912, 77.209021, 28.535516, 77.391026, RideType.CAB, NINE_AM);
+
+        assertNotEquals(key, PricingKeys.ride(28.61392, 77.209021, 28.535516, 77.391026, RideType.CAB, NINE_AM));
+        assertNotEquals(key, PricingKeys.ride(28.535516, 77.391026, 28.613912, 77.209021, RideType.CAB, NINE_AM));
+        assertNotEquals(key, PricingKeys.ride(28.613912, 77.209021, 28.535516, 77.391026, RideType.AUTO_RICKSHAW, NINE_AM));
+        assertNotEquals(key, PricingKeys.ride(28.613912, 77.209021, 28.535516, 77.391026, RideType.CAB,
+                NINE_AM.plusHours(1)));
+    }
+
+    @Test
+    void missingCoordinatesStayDistinctFromZero() {
+        Object missing = PricingKeys.ride(null, 77.209021, 28.535516, 77.391026, RideType.CAB, NINE_AM);
+
+        assertEquals(Arrays.asList(null, 7_720_902L, 2_853_552L, 7_739_103L, RideType.CAB, 9), missing);
+        assertNotEquals(missing, PricingKeys.ride(0.0, 77.209021, 28.535516, 77.391026, RideType.CAB, NINE_AM));
+    }
+}
\ No newline at end of file
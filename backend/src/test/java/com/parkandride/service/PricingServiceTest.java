@@ -0,0 +1,162 @@
+package com.parkandride.service;
+
+import com.parkandride.dto.ParkingBookingRequest;
+import com.parkandride.model.BookingType;
+import com.parkandride.model.ParkingLot;
+import com.parkandride.model.RideType;
+import com.parkandride.util.GeoMath;
+import com.parkandride.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricingServiceTest {
+
+    private static final LocalDateTime OFF_PEAK = LocalDateTime.of(2026, 10, 16, 13, 0);
+    private static final LocalDateTime PEAK = LocalDateTime.of(2026, 10, 16, 8, 30);
+
+    private static final Map<RideType, int[]> RUPEES = Map.of(
+            RideType.CAB, new int[]{50, 12},
+            RideType.SHUTTLE, new int[]{30, 8},
+            RideType.E_RICKSHAW, new int[]{20, 6},
+            RideType.AUTO_RICKSHAW, new int[]{25, 10});
+
+    private PricingService pricingService;
+    private SurgePricing surgePricing;
+
+    @BeforeEach
+    void setUp() {
+        surgePricing = mock(SurgePricing.class);
+        when(surgePricing.getMultiplier(any())).thenReturn(Money.BASIS_POINTS);
+
+        pricingService = new PricingService();
+        ReflectionTestUtils.setField(pricingService, "baseRate", 50.0);
+        ReflectionTestUtils.setField(pricingService, "peakMultiplier", 1.5);
+        ReflectionTestUtils.setField(pricingService, "surgePricing", surgePricing);
+    }
+
+    @Test
+    void parkingPriceAppliesTheLotTariffAndItsSurge() {
+        ParkingLot parkingLot = lot(1L, "40");
+
+        assertEquals(new BigDecimal("80.00"), pricingService.calculateParkingPrice(parkingLot, OFF_PEAK, OFF_PEAK.plusHours(2),
+                BookingType.HOURLY));
+        assertEquals(new BigDecimal("72.00"), pricingService.calculateParkingPrice(parkingLot, OFF_PEAK, OFF_PEAK.plusHours(2),
+                BookingType.DAILY));
+        // Two billed hours, both at the peak multiplier
+        assertEquals(new BigDecimal("120.00"), pricingService.calculateParkingPrice(parkingLot, PEAK, PEAK.plusHours(2),
+                BookingType.HOURLY));
+
+        when(surgePricing.getMultiplier(1L)).thenReturn(15_000L);
+        assertEquals(12_000, pricingService.quoteParking(parkingLot, OFF_PEAK, OFF_PEAK.plusHours(2), BookingType.HOURLY));
+    }
+
+    @Test
+    void tariffIsCompiledOncePerLotAndRate() {
+        ParkingLot parkingLot = lot(1L, "40");
+        TariffTable compiled = pricingService.tariffTable(parkingLot);
+
+        assertSame(compiled, pricingService.tariffTable(lot(1L, "40.00")));
+        assertNotSame(compiled, pricingService.tariffTable(lot(2L, "40")));
+
+        parkingLot.setBaseHourlyRate(new BigDecimal("45"));
+        TariffTable recompiled = pricingService.tariffTable(parkingLot);
+        assertNotSame(compiled, recompiled);
+        assertEquals(new BigDecimal("90.00"), pricingService.calculateParkingPrice(parkingLot, OFF_PEAK, OFF_PEAK.plusHours(2),
+                BookingType.HOURLY));
+
+        pricingService.onParkingLotChanged(ParkingLotChangedEvent.deleted(1L));
+        assertNotSame(recompiled, pricingService.tariffTable(parkingLot));
+    }
+
+    @Test
+    void lotWithoutARateUsesTheBaseRate() {
+        assertEquals(new BigDecimal("100.00"), pricingService.calculateParkingPrice(lot(1L, null), OFF_PEAK,
+                OFF_PEAK.plusHours(2), BookingType.HOURLY));
+    }
+
+    @Test
+    void batchPricesMatchSinglePrices() {
+        ParkingLot parkingLot = lot(1L, "37.33");
+        when(surgePricing.getMultiplier(1L)).thenReturn(12_500L);
+        List<ParkingBookingRequest> requests = List.of(
+                parkingRequest(OFF_PEAK, 3, BookingType.HOURLY),
+                parkingRequest(PEAK, 30, BookingType.DAILY),
+                parkingRequest(PEAK.minusDays(3), 24 * 31, BookingType.MONTHLY));
+
+        List<BigDecimal> prices = pricingService.calculateParkingPrices(parkingLot, requests);
+
+        for (int i = 0; i < requests.size(); i++) {
+            ParkingBookingRequest request = requests.get(i);
+            assertEquals(pricingService.calculateParkingPrice(parkingLot, request.getStartTime(), request.getEndTime(),
+                    request.getBookingType()), prices.get(i));
+        }
+    }
+
+    @Test
+    void missingCoordinatesDefaultToFiveKilometres() {
+        assertEquals(new BigDecimal("110.00"), pricingService.calculateRideFare(null, null, null, null, RideType.CAB, OFF_PEAK));
+        assertEquals(new BigDecimal("165.00"), pricingService.calculateRideFare(null, null, null, null, RideType.CAB, PEAK));
+    }
+
+    @Test
+    void rideFareIsRoundedOnceAfterThePeakMultiplier() {
+        Random random = new Random(21);
+        for (int i = 0; i < 20_000; i++) {
+            double pickupLat = 28.4 + random.nextDouble() * 0.4;
+            double pickupLon = 77.0 + random.nextDouble() * 0.4;
+            double dropoffLat = 28.4 + random.nextDouble() * 0.4;
+            double dropoffLon = 77.0 + random.nextDouble() * 0.4;
+            RideType rideType = RideType.values()[random.nextInt(RideType.values().length)];
+            LocalDateTime requestedTime = random.nextBoolean() ? PEAK : OFF_PEAK;
+
+            assertEquals(reference(pickupLat, pickupLon, dropoffLat, dropoffLon, rideType, requestedTime),
+                    pricingService.calculateRideFare(pickupLat, pickupLon, dropoffLat, dropoffLon, rideType, requestedTime));
+        }
+    }
+
+    private static ParkingLot lot(Long id, String hourlyRate) {
+        ParkingLot parkingLot = new ParkingLot();
+        parkingLot.setId(id);
+        parkingLot.setBaseHourlyRate(hourlyRate != null ? new BigDecimal(hourlyRate) : null);
+        return parkingLot;
+    }
+
+    private static ParkingBookingRequest parkingRequest(LocalDateTime startTime, int hours, BookingType bookingType) {
+        ParkingBookingRequest request = new ParkingBookingRequest();
+        request.setParkingLotId(1L);
+        request.setStartTime(startTime);
+        request.setEndTime(startTime.plusHours(hours));
+        request.setBookingType(bookingType);
+        return request;
+    }
+
+    /**
+     * BigDecimal fare with the distance part kept to a millionth of a rupee and a
+     * single half-up rounding to paise at the end.
+     */
+    private static BigDecimal reference(double pickupLat, double pickupLon, double dropoffLat, double dropoffLon,
+                                        RideType rideType, LocalDateTime requestedTime) {
+        int[] rupees = RUPEES.get(rideType);
+        double distanceKm = GeoMath.haversineMeters(pickupLat, pickupLon, dropoffLat, dropoffLon) / 1000;
+        BigDecimal fare = BigDecimal.valueOf(rupees[0])
+                .add(BigDecimal.valueOf(distanceKm).multiply(BigDecimal.valueOf(rupees[1])).setScale(6, RoundingMode.HALF_UP));
+        int hour = requestedTime.getHour();
+        if ((hour >= 7 && hour <= 10) || (hour >= 17 && hour <= 20)) {
+            fare = fare.multiply(new BigDecimal("1.5"));
+        }
+        return fare.setScale(2, RoundingMode.HALF_UP);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,313 @@
+package com.parkandride.service;
+
+import com.parkandride.model.RideBooking;
+import com.parkandride.model.RideType;
+import com.parkandride.repository.RideBookingRepository;
+import com.parkandride.util.GeoMath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RidePoolIndexTest {
+
+    private static final double RADIUS_METERS = 1000;
+    private static final long WINDOW_MINUTES = 15;
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 10, 16, 12, 0);
+
+    private RidePoolIndex index;
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        index = new RidePoolIndex();
+        ReflectionTestUtils.setField(index, "radiusMeters", RADIUS_METERS);
+        ReflectionTestUtils.setField(index, "windowMinutes", WINDOW_MINUTES);
+        ReflectionTestUtils.setField(index, "slotMinutes", 5L);
+        nextId = 1;
+    }
+
+    @Test
+    void candidatesMatchBruteForceScan() {
+        Random random = new Random(22);
+        List<RideBooking> opened = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            RideBooking ride = randomRide(random);
+            index.open(ride);
+            opened.add(ride);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            RideBooking query = randomRide(random);
+            List<RidePoolIndex.Pool> candidates = index.candidates(query.getRideType(),
+                    query.getPickupLatitude(), query.getPickupLongitude(),
+                    query.getDropoffLatitude(), query.getDropoffLongitude(), query.getRequestedTime());
+
+            Set<String> expected = new TreeSet<>();
+            for (RideBooking ride : opened) {
+                if (matches(ride, query)) {
+                    expected.add(ride.getRouteOptimizationId());
+                }
+            }
+            Set<String> actual = new TreeSet<>();
+            candidates.forEach(pool -> actual.add(pool.getRouteId()));
+            assertEquals(expected, actual, "candidates for query " + i);
+
+            for (int j = 1; j < candidates.size(); j++) {
+                assertTrue(cost(candidates.get(j - 1), query) <= cost(candidates.get(j), query), "closest first");
+            }
+        }
+    }
+
+    @Test
+    void claimsStopAtCapacity() {
+        RideBooking anchor = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 3);
+        index.open(anchor);
+
+        RidePoolIndex.Pool pool = index.get(anchor.getRouteOptimizationId());
+        RideBooking second = nearby(anchor);
+        assertSame(pool, index.claim(second));
+        assertSame(pool, index.claim(second), "claiming again keeps the same seat");
+        assertSame(pool, index.claim(nearby(anchor)));
+        assertNull(index.claim(nearby(anchor)));
+        assertEquals(3, pool.getSeatsTaken());
+    }
+
+    @Test
+    void duplicateReleaseFreesOnlyOneSeat() {
+        RideBooking anchor = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 4);
+        index.open(anchor);
+        RideBooking rider = nearby(anchor);
+        index.claim(rider);
+        index.claim(nearby(anchor));
+        RidePoolIndex.Pool pool = index.get(anchor.getRouteOptimizationId());
+
+        index.releaseSeat(pool.getRouteId(), rider.getId());
+        index.releaseSeat(pool.getRouteId(), rider.getId());
+        index.releaseSeat(pool.getRouteId(), 999L);
+
+        assertEquals(2, pool.getSeatsTaken());
+        assertFalse(pool.isClosed());
+    }
+
+    @Test
+    void lastRiderLeavingClosesPool() {
+        RideBooking anchor = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 4);
+        index.open(anchor);
+        RideBooking rider = nearby(anchor);
+        RidePoolIndex.Pool pool = index.claim(rider);
+
+        index.releaseSeat(pool.getRouteId(), rider.getId());
+        index.releaseSeat(pool.getRouteId(), anchor.getId());
+        index.releaseSeat(pool.getRouteId(), anchor.getId());
+
+        assertTrue(pool.isClosed());
+        assertEquals(0, pool.getSeatsTaken());
+        assertNull(pool.getAnchorRideId());
+        assertNull(index.get(pool.getRouteId()));
+        assertNull(index.claim(nearby(anchor)), "an emptied pool takes no new riders");
+        assertFalse(pool.tryClaimSeat(12345L));
+    }
+
+    @Test
+    void anchorLeavingHandsOverToLowestRemainingRider() {
+        RideBooking anchor = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 4);
+        index.open(anchor);
+        RideBooking second = nearby(anchor);
+        RideBooking third = nearby(anchor);
+        index.claim(third);
+        RidePoolIndex.Pool pool = index.claim(second);
+
+        index.releaseSeat(pool.getRouteId(), anchor.getId());
+
+        assertFalse(pool.isClosed());
+        assertEquals(second.getId(), pool.getAnchorRideId());
+        assertEquals(2, pool.getSeatsTaken());
+        assertSame(pool, index.get(pool.getRouteId()));
+    }
+
+    @Test
+    void openWithGroupCountsEachRiderOnce() {
+        RideBooking anchor = ride(RideType.SHUTTLE, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 6);
+        RideBooking other = nearby(anchor);
+        index.open(anchor, List.of(anchor.getId(), other.getId(), other.getId()));
+
+        RidePoolIndex.Pool pool = index.get(anchor.getRouteOptimizationId());
+        assertEquals(2, pool.getSeatsTaken());
+        assertEquals(anchor.getId(), pool.getAnchorRideId());
+    }
+
+    @Test
+    void concurrentClaimsNeverOverfillAPool() throws Exception {
+        RideBooking anchor = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 4);
+        index.open(anchor);
+        List<RideBooking> riders = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            riders.add(nearby(anchor));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<RidePoolIndex.Pool>> claims = new ArrayList<>();
+            for (RideBooking rider : riders) {
+                claims.add(executor.submit(() -> {
+                    start.await();
+                    return index.claim(rider);
+                }));
+            }
+            start.countDown();
+
+            int claimed = 0;
+            for (Future<RidePoolIndex.Pool> claim : claims) {
+                if (claim.get(5, TimeUnit.SECONDS) != null) {
+                    claimed++;
+                }
+            }
+            assertEquals(3, claimed);
+            assertEquals(4, index.get(anchor.getRouteOptimizationId()).getSeatsTaken());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void claimTakesTheClosestOpenPoolOfTheSameType() {
+        RideBooking far = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 4);
+        RideBooking close = ride(RideType.CAB, 28.6179, 77.2090, 28.5355, 77.3950, NOON, 4);
+        RideBooking shuttle = ride(RideType.SHUTTLE, 28.6189, 77.2090, 28.5355, 77.3960, NOON, 4);
+        RideBooking closed = ride(RideType.CAB, 28.6189, 77.2090, 28.5355, 77.3960, NOON, 4);
+        for (RideBooking anchor : List.of(far, close, shuttle, closed)) {
+            index.open(anchor);
+        }
+        index.close(closed.getRouteOptimizationId());
+
+        RideBooking rider = ride(RideType.CAB, 28.6189, 77.2090, 28.5355, 77.3960, NOON.plusMinutes(3), 4);
+
+        assertEquals(close.getRouteOptimizationId(), index.claim(rider).getRouteId());
+        assertNull(index.get(closed.getRouteOptimizationId()));
+    }
+
+    @Test
+    void ridesWithoutCoordinatesOrRouteAreNotPooled() {
+        RideBooking anchor = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 4);
+        index.open(anchor);
+
+        RideBooking noDropoff = nearby(anchor);
+        noDropoff.setDropoffLatitude(null);
+        assertNull(index.claim(noDropoff));
+
+        RideBooking noRoute = nearby(anchor);
+        noRoute.setRouteOptimizationId(null);
+        index.open(noRoute);
+        assertEquals(1, index.candidates(RideType.CAB, 28.6149, 77.2090, 28.5355, 77.3920, NOON).size());
+    }
+
+    @Test
+    void pruneClosesPoolsThatLeftTheWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        RideBooking stale = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, now.minusHours(2), 4);
+        RideBooking current = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, now, 4);
+        index.open(stale);
+        index.open(current);
+        RidePoolIndex.Pool stalePool = index.get(stale.getRouteOptimizationId());
+
+        index.pruneExpired();
+
+        assertTrue(stalePool.isClosed());
+        assertNull(index.get(stale.getRouteOptimizationId()));
+        assertNotNull(index.get(current.getRouteOptimizationId()));
+        assertEquals(current.getRouteOptimizationId(), index.claim(nearby(current)).getRouteId());
+    }
+
+    @Test
+    void loadAllRebuildsEachRouteAroundItsFirstRide() {
+        RideBooking anchor = ride(RideType.CAB, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 4);
+        RideBooking joined = nearby(anchor);
+        joined.setRouteOptimizationId(anchor.getRouteOptimizationId());
+        RideBooking alone = ride(RideType.SHUTTLE, 28.6139, 77.2090, 28.5355, 77.3910, NOON, 6);
+        RideBookingRepository rideBookingRepository = mock(RideBookingRepository.class);
+        when(rideBookingRepository.findOpenSharedRides(any(), any())).thenReturn(List.of(anchor, joined, alone));
+        ReflectionTestUtils.setField(index, "rideBookingRepository", rideBookingRepository);
+
+        index.loadAll();
+
+        RidePoolIndex.Pool pool = index.get(anchor.getRouteOptimizationId());
+        assertEquals(anchor.getId(), pool.getAnchorRideId());
+        assertEquals(2, pool.getSeatsTaken());
+        assertEquals(4, pool.getCapacity());
+        assertEquals(1, index.get(alone.getRouteOptimizationId()).getSeatsTaken());
+    }
+
+    @Test
+    void pendingRidesDrainInArrivalOrder() {
+        index.enqueue(3L);
+        index.enqueue(1L);
+        index.enqueue(2L);
+
+        assertEquals(List.of(3L, 1L, 2L), index.drainPending());
+        assertTrue(index.drainPending().isEmpty());
+    }
+
+    private boolean matches(RideBooking pool, RideBooking query) {
+        long minutes = Math.abs(Duration.between(pool.getRequestedTime(), query.getRequestedTime()).toMinutes());
+        return pool.getRideType() == query.getRideType()
+                && minutes <= WINDOW_MINUTES
+                && GeoMath.equirectangularMeters(query.getPickupLatitude(), query.getPickupLongitude(),
+                        pool.getPickupLatitude(), pool.getPickupLongitude()) <= RADIUS_METERS
+                && GeoMath.equirectangularMeters(query.getDropoffLatitude(), query.getDropoffLongitude(),
+                        pool.getDropoffLatitude(), pool.getDropoffLongitude()) <= RADIUS_METERS;
+    }
+
+    private static double cost(RidePoolIndex.Pool pool, RideBooking query) {
+        return pool.pickupDistance(query.getPickupLatitude(), query.getPickupLongitude())
+                + pool.dropoffDistance(query.getDropoffLatitude(), query.getDropoffLongitude());
+    }
+
+    private RideBooking randomRide(Random random) {
+        RideType rideType = random.nextInt(4) == 0 ? RideType.SHUTTLE : RideType.CAB;
+        return ride(rideType,
+                28.60 + random.nextDouble() * 0.03, 77.20 + random.nextDouble() * 0.03,
+                28.53 + random.nextDouble() * 0.03, 77.38 + random.nextDouble() * 0.03,
+                NOON.plusMinutes(random.nextInt(60)), 4);
+    }
+
+    private RideBooking nearby(RideBooking anchor) {
+        return ride(anchor.getRideType(), anchor.getPickupLatitude() + 0.001, anchor.getPickupLongitude(),
+                anchor.getDropoffLatitude(), anchor.getDropoffLongitude() + 0.001,
+                anchor.getRequestedTime().plusMinutes(5), anchor.getMaxPassengers());
+    }
+
+    private RideBooking ride(RideType rideType, double pickupLat, double pickupLon, double dropoffLat,
+                             double dropoffLon, LocalDateTime requestedTime, int maxPassengers) {
+        RideBooking ride = new RideBooking();
+        long id = nextId++;
+        ride.setId(id);
+        ride.setRideType(rideType);
+        ride.setPickupLatitude(pickupLat);
+        ride.setPickupLongitude(pickupLon);
+        ride.setDropoffLatitude(dropoffLat);
+        ride.setDropoffLongitude(dropoffLon);
+        ride.setRequestedTime(requestedTime);
+        ride.setMaxPassengers(maxPassengers);
+        ride.setRouteOptimizationId("route-" + id);
+        return ride;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.parkandride.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotOccupancyMatrixTest {
+
+    @Test
+    void marksEverySlotTheWindowTouches() {
+        SlotOccupancyMatrix matrix = new SlotOccupancyMatrix(4, 8, 0);
+        matrix.mark(2, 10, 20);
+
+        assertTrue(busy(matrix, 0, 1, 2));
+        assertTrue(busy(matrix, 1, 2, 2));
+        assertFalse(busy(matrix, 2, 8, 2));
+        assertFalse(busy(matrix, 0, 8, 1));
+    }
+
+    @Test
+    void windowEndingOnASlotBoundaryLeavesTheNextSlotFree() {
+        SlotOccupancyMatrix matrix = new SlotOccupancyMatrix(1, 8, 0);
+        matrix.mark(0, 15, 30);
+
+        assertFalse(busy(matrix, 0, 1, 0));
+        assertTrue(busy(matrix, 1, 2, 0));
+        assertFalse(busy(matrix, 2, 3, 0));
+    }
+
+    @Test
+    void clearOnlyTouchesTheOneSpot() {
+        SlotOccupancyMatrix matrix = new SlotOccupancyMatrix(2, 8, 0);
+        matrix.mark(0, 0, 60);
+        matrix.mark(1, 0, 60);
+        matrix.clear(0, 15, 45);
+
+        assertTrue(busy(matrix, 0, 1, 0));
+        assertFalse(busy(matrix, 1, 3, 0));
+        assertTrue(busy(matrix, 3, 4, 0));
+        assertTrue(busy(matrix, 0, 4, 1));
+    }
+
+    @Test
+    void marksAreClippedToTheHorizon() {
+        SlotOccupancyMatrix matrix = new SlotOccupancyMatrix(1, 4, 10);
+        // Slots 10 to 13 are held; marks either side must not wrap into their rows
+        matrix.mark(0, 8 * 15, 10 * 15);
+        matrix.mark(0, 14 * 15, 20 * 15);
+        assertFalse(busy(matrix, 0, 100, 0));
+
+        matrix.mark(0, 9 * 15, 11 * 15);
+        assertTrue(busy(matrix, 10, 11, 0));
+        assertFalse(busy(matrix, 11, 14, 0));
+        assertEquals(10, matrix.getBaseSlot());
+        assertEquals(14, matrix.getEndSlot());
+    }
+
+    @Test
+    void advancingClearsTheRowsThatAreReused() {
+        SlotOccupancyMatrix matrix = new SlotOccupancyMatrix(1, 4, 0);
+        matrix.mark(0, 0, 60);
+
+        assertEquals(4, matrix.advanceTo(2));
+        assertEquals(2, matrix.getBaseSlot());
+        assertTrue(busy(matrix, 2, 4, 0));
+        assertFalse(busy(matrix, 4, 6, 0), "rows of slots 0 and 1 now hold 4 and 5");
+
+        assertEquals(6, matrix.advanceTo(1), "moving backwards is ignored");
+        assertEquals(2, matrix.getBaseSlot());
+
+        matrix.advanceTo(100);
+        assertFalse(busy(matrix, 100, 104, 0));
+    }
+
+    @Test
+    void nextClearCrossesWordBoundariesAndStopsAtTheSpotCount() {
+        SlotOccupancyMatrix matrix = new SlotOccupancyMatrix(130, 4, 0);
+        for (int spot = 0; spot < 129; spot++) {
+            if (spot != 70) {
+                matrix.mark(spot, 0, 15);
+            }
+        }
+
+        long[] busy = matrix.busySpots(0, 1);
+        assertEquals(70, matrix.nextClear(busy, 0));
+        assertEquals(129, matrix.nextClear(busy, 71));
+        assertEquals(-1, matrix.nextClear(busy, 130));
+
+        matrix.mark(129, 0, 15);
+        busy = matrix.busySpots(0, 1);
+        assertEquals(-1, matrix.nextClear(busy, 71), "bits past the last spot are not spots");
+    }
+
+    @Test
+    void nextClearWithASpotSetSkipsOtherSpots() {
+        SlotOccupancyMatrix matrix = new SlotOccupancyMatrix(100, 4, 0);
+        long[] allowed = matrix.newSpotSet();
+        allowed[0] |= 1L << 3;
+        allowed[1] |= 1L << (90 - 64);
+        matrix.mark(3, 0, 15);
+
+        long[] busy = matrix.busySpots(0, 1);
+        assertEquals(90, matrix.nextClear(busy, allowed, 0));
+        assertEquals(-1, matrix.nextClear(busy, allowed, 91));
+        assertEquals(3, matrix.nextClear(matrix.busySpots(1, 2), allowed, 0));
+    }
+
+    private static boolean busy(SlotOccupancyMatrix matrix, long fromSlot, long toSlot, int spot) {
+        return (matrix.busySpots(fromSlot, toSlot)[spot >>> 6] & 1L << spot) != 0;
+    }
+}
\ No newline at end of file
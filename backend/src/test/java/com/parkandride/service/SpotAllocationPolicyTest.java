@@ -0,0 +1,44 @@
+package com.parkandride.service;
+
+import com.parkandride.model.SpotType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotAllocationPolicyTest {
+
+    private static final List<SpotType> DEFAULT_ORDER =
+            List.of(SpotType.REGULAR, SpotType.COMPACT, SpotType.ELECTRIC, SpotType.DISABLED);
+
+    @Test
+    void requestedTypeComesBeforeItsFallbacks() {
+        SpotAllocationPolicy policy = new SpotAllocationPolicy(SpotAllocationStrategy.BEST_FIT, DEFAULT_ORDER,
+                List.of(SpotType.COMPACT), List.of(), List.of(SpotType.REGULAR), List.of());
+
+        assertEquals(List.of(SpotType.REGULAR, SpotType.COMPACT), policy.candidates(SpotType.REGULAR));
+        assertEquals(List.of(SpotType.COMPACT), policy.candidates(SpotType.COMPACT));
+        assertEquals(List.of(SpotType.DISABLED, SpotType.REGULAR), policy.candidates(SpotType.DISABLED));
+        assertEquals(List.of(SpotType.ELECTRIC), policy.candidates(SpotType.ELECTRIC));
+        assertEquals(SpotAllocationStrategy.BEST_FIT, policy.getStrategy());
+    }
+
+    @Test
+    void noRequestedTypeUsesTheDefaultOrder() {
+        SpotAllocationPolicy policy = new SpotAllocationPolicy(SpotAllocationStrategy.FIRST_FIT, DEFAULT_ORDER,
+                List.of(), List.of(), List.of(), List.of());
+
+        assertEquals(DEFAULT_ORDER, policy.candidates(null));
+    }
+
+    @Test
+    void fallbacksDropRepeatsAndTheRequestedTypeItself() {
+        SpotAllocationPolicy policy = new SpotAllocationPolicy(SpotAllocationStrategy.BEST_FIT, DEFAULT_ORDER,
+                List.of(SpotType.REGULAR, SpotType.COMPACT, SpotType.COMPACT, SpotType.ELECTRIC),
+                List.of(), List.of(), List.of());
+
+        assertEquals(List.of(SpotType.REGULAR, SpotType.COMPACT, SpotType.ELECTRIC),
+                policy.candidates(SpotType.REGULAR));
+    }
+}
\ No newline at end of file
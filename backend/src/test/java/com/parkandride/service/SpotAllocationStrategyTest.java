@@ -0,0 +1,25 @@
+package com.parkandride.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotAllocationStrategyTest {
+
+    @Test
+    void firstFitTakesAnyFreeSpotStraightAway() {
+        assertEquals(0, SpotAllocationStrategy.FIRST_FIT.score(0, 1000, 100, 200));
+        assertEquals(0, SpotAllocationStrategy.FIRST_FIT.score(Long.MIN_VALUE, Long.MAX_VALUE, 100, 200));
+    }
+
+    @Test
+    void bestFitScoresTheSlackAroundTheWindow() {
+        SpotAllocationStrategy bestFit = SpotAllocationStrategy.BEST_FIT;
+
+        assertEquals(0, bestFit.score(100, 200, 100, 200));
+        assertEquals(30, bestFit.score(80, 210, 100, 200));
+        // An open side always costs more than any bounded gap
+        assertTrue(bestFit.score(Long.MIN_VALUE, 200, 100, 200) > bestFit.score(0, 100_000_000, 100, 200));
+        assertTrue(bestFit.score(Long.MIN_VALUE, Long.MAX_VALUE, 100, 200) > bestFit.score(100, Long.MAX_VALUE, 100, 200));
+    }
+}
\ No newline at end of file
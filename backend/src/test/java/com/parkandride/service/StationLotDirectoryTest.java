@@ -0,0 +1,125 @@
+package com.parkandride.service;
+
+import com.parkandride.model.ParkingLot;
+import com.parkandride.model.ParkingLotStatus;
+import com.parkandride.repository.ParkingLotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StationLotDirectoryTest {
+
+    private StationLotDirectory directory;
+    private final List<ParkingLot> stored = new ArrayList<>();
+    private final Map<Long, Integer> availableSpots = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ParkingLotRepository parkingLotRepository = mock(ParkingLotRepository.class);
+        when(parkingLotRepository.findAll()).thenReturn(stored);
+        AvailabilityCounters availabilityCounters = mock(AvailabilityCounters.class);
+        when(availabilityCounters.get(any())).thenAnswer(call ->
+                availableSpots.getOrDefault(call.<ParkingLot>getArgument(0).getId(), 10));
+
+        directory = new StationLotDirectory();
+        ReflectionTestUtils.setField(directory, "parkingLotRepository", parkingLotRepository);
+        ReflectionTestUtils.setField(directory, "availabilityCounters", availabilityCounters);
+    }
+
+    @Test
+    void groupsActiveLotsByStationNearestFirst() {
+        stored.add(lot(1L, "Rajiv Chowk", 800.0, ParkingLotStatus.ACTIVE));
+        stored.add(lot(2L, "Rajiv Chowk", 200.0, ParkingLotStatus.ACTIVE));
+        stored.add(lot(3L, "Rajiv Chowk", null, ParkingLotStatus.ACTIVE));
+        stored.add(lot(4L, "Rajiv Chowk", 100.0, ParkingLotStatus.MAINTENANCE));
+        stored.add(lot(5L, "Kashmere Gate", 300.0, ParkingLotStatus.ACTIVE));
+        stored.add(lot(6L, null, 50.0, ParkingLotStatus.ACTIVE));
+        directory.loadAll();
+
+        assertEquals(List.of(2L, 1L, 3L), ids(directory.getByStation("Rajiv Chowk")));
+        assertEquals(List.of(5L), ids(directory.getByStation("Kashmere Gate")));
+        assertTrue(directory.getByStation("Dwarka").isEmpty());
+        assertEquals(List.of(6L, 2L, 5L, 1L, 3L), ids(directory.getActive(false)));
+    }
+
+    @Test
+    void availabilityIsReadLivePerRequest() {
+        stored.add(lot(1L, "Rajiv Chowk", 100.0, ParkingLotStatus.ACTIVE));
+        stored.add(lot(2L, "Rajiv Chowk", 200.0, ParkingLotStatus.ACTIVE));
+        directory.loadAll();
+
+        availableSpots.put(1L, 0);
+        assertEquals(List.of(2L), ids(directory.getActive(true)));
+        assertEquals(0, directory.getByStation("Rajiv Chowk").get(0).getAvailableSpots());
+
+        availableSpots.put(1L, 3);
+        assertEquals(List.of(1L, 2L), ids(directory.getActive(true)));
+        assertEquals(3, directory.getByStation("Rajiv Chowk").get(0).getAvailableSpots());
+    }
+
+    @Test
+    void resultsAreCopiesCallersCanChange() {
+        stored.add(lot(1L, "Rajiv Chowk", 100.0, ParkingLotStatus.ACTIVE));
+        directory.loadAll();
+
+        directory.getActive(false).get(0).setName("changed");
+
+        assertEquals("Lot 1", directory.getActive(false).get(0).getName());
+    }
+
+    @Test
+    void lookupByIdsKeepsTheGivenOrderAndSkipsInactiveLots() {
+        stored.add(lot(1L, "Rajiv Chowk", 100.0, ParkingLotStatus.ACTIVE));
+        stored.add(lot(2L, "Rajiv Chowk", 200.0, ParkingLotStatus.INACTIVE));
+        stored.add(lot(3L, "Kashmere Gate", 300.0, ParkingLotStatus.ACTIVE));
+        directory.loadAll();
+        availableSpots.put(1L, 0);
+
+        assertEquals(List.of(3L, 1L), ids(directory.getActive(List.of(3L, 2L, 99L, 1L, 3L), false)));
+        assertEquals(List.of(3L), ids(directory.getActive(List.of(3L, 1L), true)));
+    }
+
+    @Test
+    void adminChangesRebuildTheGroups() {
+        stored.add(lot(1L, "Rajiv Chowk", 100.0, ParkingLotStatus.ACTIVE));
+        stored.add(lot(2L, "Rajiv Chowk", 200.0, ParkingLotStatus.ACTIVE));
+        directory.loadAll();
+
+        directory.onParkingLotChanged(ParkingLotChangedEvent.saved(lot(2L, "Rajiv Chowk", 50.0, ParkingLotStatus.ACTIVE)));
+        assertEquals(List.of(2L, 1L), ids(directory.getByStation("Rajiv Chowk")));
+
+        directory.onParkingLotChanged(ParkingLotChangedEvent.saved(lot(1L, "Kashmere Gate", 100.0, ParkingLotStatus.ACTIVE)));
+        assertEquals(List.of(2L), ids(directory.getByStation("Rajiv Chowk")));
+        assertEquals(List.of(1L), ids(directory.getByStation("Kashmere Gate")));
+
+        directory.onParkingLotChanged(ParkingLotChangedEvent.saved(lot(1L, "Kashmere Gate", 100.0, ParkingLotStatus.MAINTENANCE)));
+        assertTrue(directory.getByStation("Kashmere Gate").isEmpty());
+
+        directory.onParkingLotChanged(ParkingLotChangedEvent.deleted(2L));
+        assertTrue(directory.getActive(false).isEmpty());
+    }
+
+    private static ParkingLot lot(Long id, String station, Double distanceFromMetro, ParkingLotStatus status) {
+        ParkingLot parkingLot = new ParkingLot();
+        parkingLot.setId(id);
+        parkingLot.setName("Lot " + id);
+        parkingLot.setMetroStationName(station);
+        parkingLot.setDistanceFromMetro(distanceFromMetro);
+        parkingLot.setStatus(status);
+        return parkingLot;
+    }
+
+    private static List<Long> ids(List<ParkingLot> parkingLots) {
+        return parkingLots.stream().map(ParkingLot::getId).toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.parkandride.service;
+
+import com.parkandride.model.ParkingLot;
+import com.parkandride.util.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SurgePricingTest {
+
+    private SurgePricing surgePricing;
+    private final List<ParkingLot> activeLots = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        StationLotDirectory stationLotDirectory = mock(StationLotDirectory.class);
+        when(stationLotDirectory.getActive(false)).thenReturn(activeLots);
+
+        surgePricing = new SurgePricing();
+        ReflectionTestUtils.setField(surgePricing, "stationLotDirectory", stationLotDirectory);
+        ReflectionTestUtils.setField(surgePricing, "maxMultiplier", 2.0);
+        ReflectionTestUtils.setField(surgePricing, "occupancyThreshold", 0.7);
+        ReflectionTestUtils.setField(surgePricing, "arrivalRateCeiling", 0.5);
+        ReflectionTestUtils.setField(surgePricing, "arrivalWeight", 0.3);
+        ReflectionTestUtils.setField(surgePricing, "windowMinutes", 60L);
+        ReflectionTestUtils.setField(surgePricing, "step", 0.05);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void quietLotsDoNotSurge() {
+        activeLots.add(lot(1L, 100, 100));
+        activeLots.add(lot(2L, 100, 30));
+
+        surgePricing.refresh();
+
+        assertEquals(SurgePricing.NO_SURGE, surgePricing.getMultiplier(1L));
+        assertEquals(SurgePricing.NO_SURGE, surgePricing.getMultiplier(2L), "occupancy at the threshold");
+        assertEquals(SurgePricing.NO_SURGE, surgePricing.getMultiplier(99L));
+    }
+
+    @Test
+    void occupancyAboveTheThresholdRaisesThePrice() {
+        activeLots.add(lot(1L, 100, 0));
+        activeLots.add(lot(2L, 100, 15));
+
+        surgePricing.refresh();
+
+        // Full lot: occupancy demand 1.0 at weight 0.7
+        assertEquals(multiplier(1.70), surgePricing.getMultiplier(1L));
+        // Half way from the threshold: 0.35 of the range, on a step
+        assertEquals(multiplier(1.35), surgePricing.getMultiplier(2L));
+    }
+
+    @Test
+    void multipliersMoveInWholeSteps() {
+        activeLots.add(lot(1L, 100, 20));
+
+        surgePricing.refresh();
+
+        // Demand 0.7 * 1/3 = 0.2333 rounds down to 0.20
+        assertEquals(multiplier(1.20), surgePricing.getMultiplier(1L));
+    }
+
+    @Test
+    void busyArrivalsAddToOccupancyUpToTheCeiling() {
+        activeLots.add(lot(1L, 10, 10));
+        activeLots.add(lot(2L, 10, 0));
+        // Five arrivals an hour is the ceiling for ten spots
+        surgePricing.recordArrivals(lot(1L, 10, 10), 5);
+        surgePricing.recordArrivals(lot(2L, 10, 0), 50);
+
+        surgePricing.refresh();
+
+        assertEquals(multiplier(1.30), surgePricing.getMultiplier(1L));
+        assertEquals(multiplier(2.00), surgePricing.getMultiplier(2L));
+    }
+
+    @Test
+    void arrivalsCountOnlyOnceCommitted() {
+        activeLots.add(lot(1L, 10, 10));
+
+        TransactionSynchronizationManager.initSynchronization();
+        surgePricing.recordArrivals(lot(1L, 10, 10), 5);
+        surgePricing.refresh();
+        assertEquals(SurgePricing.NO_SURGE, surgePricing.getMultiplier(1L));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        surgePricing.refresh();
+        assertEquals(multiplier(1.30), surgePricing.getMultiplier(1L));
+    }
+
+    @Test
+    void lotsThatLeaveTheDirectoryAreForgotten() {
+        activeLots.add(lot(1L, 10, 0));
+        surgePricing.recordArrivals(lot(1L, 10, 0), 5);
+        surgePricing.refresh();
+        assertEquals(multiplier(2.00), surgePricing.getMultiplier(1L));
+
+        activeLots.clear();
+        surgePricing.refresh();
+        assertEquals(SurgePricing.NO_SURGE, surgePricing.getMultiplier(1L));
+
+        activeLots.add(lot(1L, 10, 10));
+        surgePricing.refresh();
+        assertEquals(SurgePricing.NO_SURGE, surgePricing.getMultiplier(1L), "old arrivals were dropped with the lot");
+    }
+
+    @Test
+    void lotsWithoutSpotsAreSkipped() {
+        ParkingLot unsized = lot(1L, 0, 0);
+        unsized.setTotalSpots(null);
+        activeLots.add(unsized);
+        activeLots.add(lot(2L, 0, 0));
+
+        surgePricing.refresh();
+
+        assertEquals(SurgePricing.NO_SURGE, surgePricing.getMultiplier(1L));
+        assertEquals(SurgePricing.NO_SURGE, surgePricing.getMultiplier(2L));
+    }
+
+    private static long multiplier(double factor) {
+        return Money.basisPoints(factor);
+    }
+
+    private static ParkingLot lot(Long id, int totalSpots, int availableSpots) {
+        ParkingLot parkingLot = new ParkingLot();
+        parkingLot.setId(id);
+        parkingLot.setTotalSpots(totalSpots);
+        parkingLot.setAvailableSpots(availableSpots);
+        return parkingLot;
+    }
+}
\ No newline at end of file
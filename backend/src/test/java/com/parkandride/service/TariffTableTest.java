@@ -0,0 +1,96 @@
+package com.parkandride.service;
+
+import com.parkandride.model.BookingType;
+import com.parkandride.util.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TariffTableTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 10, 12, 0, 0);
+
+    @Test
+    void quoteMatchesPerHourBigDecimalSum() {
+        Random random = new Random(3);
+        for (String rate : new String[]{"50.00", "37.33", "12.347", "99.99"}) {
+            BigDecimal hourlyRate = new BigDecimal(rate);
+            TariffTable table = TariffTable.compile(hourlyRate, TariffTableTest::hourMultiplier, TariffTableTest::typeMultiplier);
+            for (int i = 0; i < 5_000; i++) {
+                LocalDateTime start = MONDAY.plusMinutes(random.nextInt(14 * 24 * 60));
+                LocalDateTime end = start.plusMinutes(random.nextInt(20 * 24 * 60));
+                BookingType type = BookingType.values()[random.nextInt(BookingType.values().length)];
+                long surge = Money.BASIS_POINTS + random.nextInt(15_000);
+
+                assertEquals(reference(hourlyRate, start, end, type, surge), table.quote(start, end, type, surge),
+                        rate + " " + start + " -> " + end + " " + type + " surge " + surge);
+            }
+        }
+    }
+
+    @Test
+    void shortBookingsAreBilledOneHour() {
+        TariffTable table = TariffTable.compile(new BigDecimal("40"), hour -> 1.0, type -> 1.0);
+
+        assertEquals(Money.ofRupees(40), table.quote(MONDAY, MONDAY.plusMinutes(10), BookingType.HOURLY));
+        assertEquals(Money.ofRupees(40), table.quote(MONDAY, MONDAY, BookingType.HOURLY));
+    }
+
+    @Test
+    void quotesSpanningWeeksWrapAround() {
+        TariffTable table = TariffTable.compile(new BigDecimal("10"), TariffTableTest::hourMultiplier, type -> 1.0);
+        LocalDateTime sundayNight = MONDAY.plusDays(6).plusHours(22);
+
+        long hours = TariffTable.HOURS_PER_WEEK * 3 + 5;
+        assertEquals(reference(new BigDecimal("10"), sundayNight, sundayNight.plusHours(hours), BookingType.HOURLY,
+                Money.BASIS_POINTS), table.quote(sundayNight, sundayNight.plusHours(hours), BookingType.HOURLY));
+    }
+
+    @Test
+    void recompilesOnlyForAnotherRate() {
+        TariffTable table = TariffTable.compile(new BigDecimal("50.0"), hour -> 1.0, type -> 1.0);
+
+        assertTrue(table.isCompiledFrom(new BigDecimal("50.00")));
+        assertFalse(table.isCompiledFrom(new BigDecimal("50.01")));
+    }
+
+    /**
+     * The straightforward BigDecimal computation: each billed hour at its own rate,
+     * summed exactly, surge applied, then rounded half up to paise once.
+     */
+    private static long reference(BigDecimal hourlyRate, LocalDateTime start, LocalDateTime end,
+                                  BookingType type, long surgeBasisPoints) {
+        long hours = Math.max(1, ChronoUnit.HOURS.between(start, end));
+        BigDecimal typeRate = hourlyRate.multiply(BigDecimal.valueOf(typeMultiplier(type)));
+        BigDecimal total = BigDecimal.ZERO;
+        int hourOfWeek = TariffTable.hourOfWeek(start);
+        for (long h = 0; h < hours; h++) {
+            double multiplier = hourMultiplier((int) ((hourOfWeek + h) % TariffTable.HOURS_PER_WEEK));
+            total = total.add(typeRate.multiply(BigDecimal.valueOf(multiplier)).setScale(TariffTable.SCALE, RoundingMode.HALF_UP));
+        }
+        return total.multiply(BigDecimal.valueOf(surgeBasisPoints))
+                .divide(BigDecimal.valueOf(Money.BASIS_POINTS))
+                .setScale(Money.SCALE, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    private static double hourMultiplier(int hourOfWeek) {
+        int hour = hourOfWeek % 24;
+        return (hour >= 7 && hour <= 10) || (hour >= 17 && hour <= 20) ? 1.5 : 1.0;
+    }
+
+    private static double typeMultiplier(BookingType type) {
+        return switch (type) {
+            case DAILY -> 0.9;
+            case MONTHLY -> 0.8;
+            default -> 1.0;
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.parkandride.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatePassCodecTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 10, 16, 9, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 10, 16, 18, 30);
+
+    private GatePassCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = codec("test-gate-secret");
+    }
+
+    @Test
+    void verifyReturnsWhatWasEncoded() {
+        GatePassCodec.GatePass pass = codec.verify(codec.encode(42L, 7L, FROM, TO));
+
+        assertNotNull(pass);
+        assertEquals(42L, pass.getBookingId());
+        assertEquals(7L, pass.getParkingLotId());
+        assertEquals(FROM, pass.getValidFrom());
+        assertEquals(TO, pass.getValidTo());
+    }
+
+    @Test
+    void tamperedTagIsRejected() {
+        String encoded = codec.encode(42L, 7L, FROM, TO);
+        byte[] raw = decode(encoded);
+        raw[raw.length - 1] ^= 1;
+
+        assertNull(codec.verify(encode(raw)));
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        byte[] raw = decode(codec.encode(42L, 7L, FROM, TO));
+        // Point the pass at another lot without re-signing it
+        raw[16] ^= 1;
+
+        assertNull(codec.verify(encode(raw)));
+    }
+
+    @Test
+    void passSignedWithAnotherKeyIsRejected() {
+        String encoded = codec("another-secret").encode(42L, 7L, FROM, TO);
+
+        assertNull(codec.verify(encoded));
+    }
+
+    @Test
+    void malformedPassesAreRejected() {
+        assertNull(codec.verify(null));
+        assertNull(codec.verify("GP1.not base64!"));
+        assertNull(codec.verify("XX1." + codec.encode(42L, 7L, FROM, TO).substring(4)));
+        assertNull(codec.verify(codec.encode(42L, 7L, FROM, TO).substring(0, 20)));
+    }
+
+    @Test
+    void validityWindowIsHalfOpen() {
+        GatePassCodec.GatePass pass = codec.verify(codec.encode(42L, 7L, FROM, TO));
+
+        assertFalse(pass.isValidAt(FROM.minusMinutes(1)));
+        assertTrue(pass.isValidAt(FROM));
+        assertTrue(pass.isValidAt(TO.minusMinutes(1)));
+        assertFalse(pass.isValidAt(TO), "a pass expires at the end of its window");
+        assertFalse(pass.isValidAt(TO.plusDays(1)));
+    }
+
+    private static GatePassCodec codec(String secret) {
+        GatePassCodec codec = new GatePassCodec();
+        ReflectionTestUtils.setField(codec, "gatePassSecret", secret);
+        codec.init();
+        return codec;
+    }
+
+    private static byte[] decode(String pass) {
+        return Base64.getUrlDecoder().decode(pass.substring(4));
+    }
+
+    private static String encode(byte[] raw) {
+        return "GP1." + Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.parkandride.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance from one point to 100k others: scalar haversine per point, the batch
+ * haversine over parallel arrays, and the batch equirectangular approximation.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.parkandride.util.GeoMathBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoMathBenchmark {
+
+    private static final int POINTS = 100_000;
+    private static final double LAT = 28.6139;
+    private static final double LON = 77.2090;
+
+    private final double[] lats = new double[POINTS];
+    private final double[] lons = new double[POINTS];
+    private final double[] cosLats = new double[POINTS];
+    private final double[] out = new double[POINTS];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(15);
+        for (int i = 0; i < POINTS; i++) {
+            lats[i] = LAT + (random.nextDouble() - 0.5) * 0.2;
+            lons[i] = LON + (random.nextDouble() - 0.5) * 0.2;
+            cosLats[i] = GeoMath.cosLatitude(lats[i]);
+        }
+    }
+
+    @Benchmark
+    public double[] haversineScalar() {
+        for (int i = 0; i < POINTS; i++) {
+            out[i] = GeoMath.haversineMeters(LAT, LON, lats[i], lons[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] haversineBatch() {
+        GeoMath.haversineMeters(LAT, LON, lats, lons, cosLats, 0, POINTS, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] equirectangularBatch() {
+        GeoMath.equirectangularMeters(LAT, LON, lats, lons, 0, POINTS, out);
+        return out;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GeoMathBenchmark.class.getSimpleName()).build()).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.parkandride.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoMathTest {
+
+    private static final int SAMPLES = 50_000;
+
+    // Pooling radius, simulator radius and dispatch search limit from application.yml
+    private static final double[] RADII_METERS = {1_000, 8_000, 10_000};
+
+    @Test
+    void batchHaversineMatchesScalar() {
+        Random random = new Random(15);
+        double lat = 28.6139;
+        double lon = 77.2090;
+        double[] lats = new double[SAMPLES];
+        double[] lons = new double[SAMPLES];
+        double[] cosLats = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            lats[i] = lat + (random.nextDouble() - 0.5);
+            lons[i] = lon + (random.nextDouble() - 0.5);
+            cosLats[i] = GeoMath.cosLatitude(lats[i]);
+        }
+
+        double[] out = new double[SAMPLES];
+        GeoMath.haversineMeters(lat, lon, lats, lons, cosLats, 10, SAMPLES - 10, out);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            double expected = i < 10 || i >= SAMPLES - 10 ? 0.0 : GeoMath.haversineMeters(lat, lon, lats[i], lons[i]);
+            assertEquals(expected, out[i], "point " + i);
+        }
+    }
+
+    @Test
+    void equirectangularStaysWithin1e7OfHaversineAtConfiguredRadii() {
+        Random random = new Random(16);
+        for (double radius : RADII_METERS) {
+            double worst = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                double[] p = randomPair(random, radius);
+                double haversine = GeoMath.haversineMeters(p[0], p[1], p[2], p[3]);
+                if (haversine < 1) {
+                    continue;
+                }
+                double approximation = GeoMath.equirectangularMeters(p[0], p[1], p[2], p[3]);
+                worst = Math.max(worst, Math.abs(approximation - haversine) / haversine);
+            }
+            assertTrue(worst < 1e-7, radius + " m: relative error " + worst);
+        }
+    }
+
+    @Test
+    void batchEquirectangularStaysWithinItsBound() {
+        Random random = new Random(17);
+        for (double radius : RADII_METERS) {
+            double bound = 3e-5 * radius / 1_000;
+            double[] out = new double[1];
+            for (int i = 0; i < SAMPLES; i++) {
+                double[] p = randomPair(random, radius);
+                double haversine = GeoMath.haversineMeters(p[0], p[1], p[2], p[3]);
+                if (haversine < 1) {
+                    continue;
+                }
+                GeoMath.equirectangularMeters(p[0], p[1], new double[]{p[2]}, new double[]{p[3]}, 0, 1, out);
+                double error = Math.abs(out[0] - haversine) / haversine;
+                assertTrue(error < bound, radius + " m: relative error " + error);
+            }
+        }
+    }
+
+    @Test
+    void haversineMatchesKnownArcs() {
+        assertEquals(GeoMath.METERS_PER_DEGREE, GeoMath.haversineMeters(28.0, 77.2, 29.0, 77.2), 1e-6);
+        assertEquals(0.0, GeoMath.haversineMeters(28.6, 77.2, 28.6, 77.2));
+        assertEquals(Math.PI * GeoMath.EARTH_RADIUS_METERS, GeoMath.haversineMeters(0, 0, 0, 180), 1e-6);
+    }
+
+    // A point in India and a second one up to radius meters away in a random direction
+    private static double[] randomPair(Random random, double radius) {
+        double lat = 8 + random.nextDouble() * 29;
+        double lon = 68 + random.nextDouble() * 29;
+        double distance = random.nextDouble() * radius;
+        double bearing = random.nextDouble() * 2 * Math.PI;
+        double lat2 = lat + distance * Math.cos(bearing) / GeoMath.METERS_PER_DEGREE;
+        double lon2 = lon + distance * Math.sin(bearing) / (GeoMath.METERS_PER_DEGREE * GeoMath.cosLatitude(lat));
+        return new double[]{lat, lon, lat2, lon2};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.parkandride.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A small wheel (4 buckets per level, three levels) so that level 0 covers
+ * deltas below 4, level 1 below 16, level 2 below 64, and anything later overflows.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final int BITS = 2;
+    private static final int LEVELS = 3;
+
+    @Test
+    void firesAtTheBoundariesOfEachLevel() {
+        // Starting off a bucket boundary, so the deltas and the bucket edges disagree
+        long start = 3;
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(BITS, LEVELS, start);
+        long[] deltas = {1, 3, 4, 5, 12, 13, 15, 16, 17, 63, 64, 65, 100, 255, 256, 300};
+        for (long delta : deltas) {
+            wheel.schedule(delta, start + delta);
+        }
+
+        Map<Long, Long> firedAt = stepTo(wheel, start + 320);
+
+        for (long delta : deltas) {
+            assertEquals(start + delta, firedAt.get(delta), "delta " + delta);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromAlignedStartsToo() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(BITS, LEVELS, 64);
+        for (long tick = 64; tick <= 64 + 200; tick++) {
+            wheel.schedule(tick, tick);
+        }
+
+        Map<Long, Long> firedAt = stepTo(wheel, 300);
+
+        // Tick 64 is the current tick and fires on the first advance, with tick 65
+        assertEquals(65L, firedAt.get(64L));
+        for (long tick = 65; tick <= 264; tick++) {
+            assertEquals(tick, firedAt.get(tick), "tick " + tick);
+        }
+    }
+
+    @Test
+    void matchesAPlainScheduleForRandomTicks() {
+        Random random = new Random(11);
+        long start = random.nextInt(50);
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(BITS, LEVELS, start);
+        Map<Long, Long> expected = new HashMap<>();
+        for (long id = 0; id < 2_000; id++) {
+            long tick = start + 1 + random.nextInt(600);
+            wheel.schedule(id, tick);
+            expected.put(id, tick);
+        }
+        assertEquals(2_000, wheel.size());
+
+        // Uneven jumps, so some cascades happen in the middle of an advance
+        Map<Long, Long> firedAt = new HashMap<>();
+        long tick = start;
+        while (tick < start + 620) {
+            tick += 1 + random.nextInt(9);
+            long target = tick;
+            wheel.advanceTo(target, id -> assertNull(firedAt.put(id, wheel.getCurrentTick()), "fired twice: " + id));
+        }
+
+        assertEquals(expected, firedAt);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void oneLongAdvanceFiresInTickOrder() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(BITS, LEVELS, 0);
+        long[] ticks = {70, 3, 16, 15, 4, 200, 64, 1, 256};
+        for (long tick : ticks) {
+            wheel.schedule(tick, tick);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        assertEquals(ticks.length, wheel.advanceTo(500, fired::add));
+
+        assertEquals(List.of(1L, 3L, 4L, 15L, 16L, 64L, 70L, 200L, 256L), fired);
+        assertEquals(500, wheel.getCurrentTick());
+    }
+
+    @Test
+    void pastTicksFireOnTheNextAdvance() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(BITS, LEVELS, 100);
+        wheel.schedule(1, 40);
+        wheel.schedule(2, 100);
+        wheel.schedule(3, 101);
+
+        List<Long> fired = new ArrayList<>();
+        assertEquals(2, wheel.advanceTo(100, fired::add), "advancing to the current tick still drains due ids");
+        assertEquals(List.of(1L, 2L), fired);
+        assertEquals(1, wheel.size());
+
+        assertEquals(0, wheel.advanceTo(50, fired::add), "time never runs backwards");
+        assertEquals(100, wheel.getCurrentTick());
+        assertEquals(1, wheel.advanceTo(101, fired::add));
+        assertEquals(List.of(1L, 2L, 3L), fired);
+    }
+
+    @Test
+    void sameIdCanBeScheduledMoreThanOnce() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(BITS, LEVELS, 0);
+        wheel.schedule(7, 5);
+        wheel.schedule(7, 30);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(10, fired::add);
+        assertEquals(List.of(7L), fired);
+        assertEquals(1, wheel.size());
+        wheel.advanceTo(30, fired::add);
+        assertEquals(List.of(7L, 7L), fired);
+    }
+
+    private static Map<Long, Long> stepTo(HierarchicalTimingWheel wheel, long end) {
+        Map<Long, Long> firedAt = new HashMap<>();
+        while (wheel.getCurrentTick() < end) {
+            long tick = wheel.getCurrentTick() + 1;
+            wheel.advanceTo(tick, id -> assertNull(firedAt.put(id, tick), "fired twice: " + id));
+        }
+        return firedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.parkandride.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationBatchCodecTest {
+
+    private static final long NOW = 1_792_000_000_000L;
+    private static final long SKEW = 5_000;
+
+    @Test
+    void decodesBinaryRecords() {
+        ByteBuffer body = ByteBuffer.allocate(2 * LocationBatchCodec.RECORD_BYTES);
+        body.putLong(7).putLong(NOW - 1_000).putInt(286_139_000).putInt(772_090_000);
+        body.putLong(8).putLong(0).putInt(-337_000_000).putInt(-1_510_000_000);
+
+        LocationBatchCodec.Batch batch = LocationBatchCodec.decodeBinary(body.array(), NOW, SKEW);
+
+        assertEquals(2, batch.getSize());
+        assertEquals(7, batch.getDriverIds()[0]);
+        assertEquals(NOW - 1_000, batch.getTimestamps()[0]);
+        assertEquals(28.6139, batch.getLatitudes()[0], 1e-9);
+        assertEquals(77.209, batch.getLongitudes()[0], 1e-9);
+        assertEquals(NOW, batch.getTimestamps()[1], "a missing timestamp means now");
+        assertEquals(-151.0, batch.getLongitudes()[1], 1e-9);
+    }
+
+    @Test
+    void binaryBodyMustBeWholeRecords() {
+        assertThrows(IllegalStateException.class,
+                () -> LocationBatchCodec.decodeBinary(new byte[LocationBatchCodec.RECORD_BYTES + 1], NOW, SKEW));
+    }
+
+    @Test
+    void decodesNdjsonWithLongAndShortKeys() {
+        String body = "{\"driverId\":1,\"latitude\":28.5,\"longitude\":77.1,\"timestamp\":" + (NOW - 5) + "}\n"
+                + "{\"driverId\":2,\"lat\":28.6,\"lon\":77.2,\"extra\":{\"speed\":[1,2]}}\n";
+
+        LocationBatchCodec.Batch batch = LocationBatchCodec.decodeNdjson(bytes(body), NOW, SKEW);
+
+        assertEquals(2, batch.getSize());
+        assertEquals(0, batch.getRejected());
+        assertEquals(NOW - 5, batch.getTimestamps()[0]);
+        assertEquals(2, batch.getDriverIds()[1]);
+        assertEquals(NOW, batch.getTimestamps()[1]);
+        assertEquals(77.2, batch.getLongitudes()[1]);
+    }
+
+    @Test
+    void rejectsMissingDriversAndImpossiblePositions() {
+        String body = "{\"lat\":28.6,\"lon\":77.2}\n"
+                + "{\"driverId\":1,\"lat\":91,\"lon\":77.2}\n"
+                + "{\"driverId\":1,\"lat\":28.6,\"lon\":-181}\n"
+                + "{\"driverId\":1,\"lat\":28.6}\n"
+                + "{\"driverId\":1,\"lat\":28.6,\"lon\":77.2}\n";
+
+        LocationBatchCodec.Batch batch = LocationBatchCodec.decodeNdjson(bytes(body), NOW, SKEW);
+
+        assertEquals(1, batch.getSize());
+        assertEquals(4, batch.getRejected());
+    }
+
+    @Test
+    void rejectsPingsFromBeyondTheClockSkew() {
+        String body = "{\"driverId\":1,\"lat\":28.6,\"lon\":77.2,\"ts\":" + (NOW + SKEW) + "}\n"
+                + "{\"driverId\":1,\"lat\":28.6,\"lon\":77.2,\"ts\":" + (NOW + SKEW + 1) + "}\n"
+                + "{\"driverId\":1,\"lat\":28.6,\"lon\":77.2,\"ts\":" + Long.MAX_VALUE + "}\n";
+
+        LocationBatchCodec.Batch batch = LocationBatchCodec.decodeNdjson(bytes(body), NOW, SKEW);
+
+        assertEquals(1, batch.getSize());
+        assertEquals(NOW + SKEW, batch.getTimestamps()[0]);
+        assertEquals(2, batch.getRejected());
+    }
+
+    @Test
+    void malformedNdjsonIsRejected() {
+        assertThrows(IllegalStateException.class,
+                () -> LocationBatchCodec.decodeNdjson(bytes("{\"driverId\":1,"), NOW, SKEW));
+        assertThrows(IllegalStateException.class,
+                () -> LocationBatchCodec.decodeNdjson(bytes("[1,2]"), NOW, SKEW));
+    }
+
+    @Test
+    void retainDriverKeepsOnlyThatDriversPings() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append("{\"driverId\":").append(i % 3 + 1).append(",\"lat\":").append(i).append(",\"lon\":0}\n");
+        }
+        LocationBatchCodec.Batch batch = LocationBatchCodec.decodeNdjson(bytes(body.toString()), NOW, SKEW);
+
+        batch.retainDriver(2);
+
+        assertEquals(13, batch.getSize());
+        assertEquals(27, batch.getRejected());
+        for (int i = 0; i < batch.getSize(); i++) {
+            assertEquals(2, batch.getDriverIds()[i]);
+            assertEquals(3 * i + 1, batch.getLatitudes()[i]);
+        }
+    }
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
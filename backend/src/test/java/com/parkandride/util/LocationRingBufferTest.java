@@ -0,0 +1,150 @@
+package com.parkandride.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationRingBufferTest {
+
+    @Test
+    void capacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new LocationRingBuffer(0));
+        assertThrows(IllegalArgumentException.class, () -> new LocationRingBuffer(100));
+        assertEquals(128, new LocationRingBuffer(128).getCapacity());
+    }
+
+    @Test
+    void drainsInOfferOrderAcrossWrapAround() {
+        LocationRingBuffer ring = new LocationRingBuffer(8);
+        List<Long> drained = new ArrayList<>();
+        long next = 0;
+        // 5 in, 3 out each round walks the indices around the ring many times
+        for (int round = 0; round < 50; round++) {
+            long[] ids = new long[5];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = ++next;
+            }
+            int accepted = ring.offer(ids, ids, lats(ids), lons(ids), 0, ids.length);
+            next -= ids.length - accepted;
+            ring.drain((driverId, timestamp, latitude, longitude) -> {
+                assertEquals(driverId, timestamp);
+                assertEquals(driverId * 1e-3, latitude);
+                assertEquals(-driverId * 1e-3, longitude);
+                drained.add(driverId);
+            }, 3);
+        }
+        ring.drain((driverId, timestamp, latitude, longitude) -> drained.add(driverId), Integer.MAX_VALUE);
+
+        assertEquals(next, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i + 1L, (long) drained.get(i));
+        }
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void fullRingDropsWhatDoesNotFit() {
+        LocationRingBuffer ring = new LocationRingBuffer(8);
+        long[] ids = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+        assertEquals(8, ring.offer(ids, ids, lats(ids), lons(ids), 0, ids.length));
+        assertEquals(0, ring.offer(ids, ids, lats(ids), lons(ids), 8, 2));
+        assertEquals(8, ring.size());
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(3, ring.drain((driverId, timestamp, latitude, longitude) -> drained.add(driverId), 3));
+        assertEquals(3, ring.offer(ids, ids, lats(ids), lons(ids), 7, 3), "only the freed slots are offered again");
+        ring.drain((driverId, timestamp, latitude, longitude) -> drained.add(driverId), Integer.MAX_VALUE);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 8L, 9L, 10L), drained);
+    }
+
+    /**
+     * Producers race to claim runs of slots while the consumer drains; each
+     * producer's pings must come out complete, once and in the order it sent them.
+     */
+    @Test
+    void concurrentProducersPublishInOrder() throws Exception {
+        LocationRingBuffer ring = new LocationRingBuffer(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        long[] lastSeen = new long[producers];
+        long[] counts = new long[producers];
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            futures.add(executor.submit(() -> {
+                start.await();
+                long[] ids = new long[16];
+                long[] times = new long[16];
+                int sent = 0;
+                while (sent < perProducer) {
+                    int count = Math.min(ids.length, perProducer - sent);
+                    for (int i = 0; i < count; i++) {
+                        ids[i] = producer + 1;
+                        times[i] = sent + i + 1;
+                    }
+                    int accepted = ring.offer(ids, times, new double[count], new double[count], 0, count);
+                    sent += accepted;
+                    if (accepted < count) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        long total = (long) producers * perProducer;
+        long drained = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (drained < total && System.nanoTime() < deadline) {
+            int n = ring.drain((driverId, timestamp, latitude, longitude) -> {
+                int producer = (int) driverId - 1;
+                assertEquals(lastSeen[producer] + 1, timestamp, "producer " + producer + " out of order");
+                lastSeen[producer] = timestamp;
+                counts[producer]++;
+            }, 256);
+            drained += n;
+            if (n == 0) {
+                Thread.yield();
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(total, drained);
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, counts[p]);
+        }
+    }
+
+    private static double[] lats(long[] ids) {
+        double[] lats = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            lats[i] = ids[i] * 1e-3;
+        }
+        return lats;
+    }
+
+    private static double[] lons(long[] ids) {
+        double[] lons = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            lons[i] = -ids[i] * 1e-3;
+        }
+        return lons;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.parkandride.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal rupees against fixed-point paise for the two hot pricing shapes: a
+ * ride fare (base plus distance, peak multiplier, rounded to paise) and a surge
+ * multiplier applied to a parking quote. Each invocation prices a whole batch.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.parkandride.util.MoneyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int BATCH = 1024;
+    private static final double PEAK_MULTIPLIER = 1.5;
+
+    private final double[] distancesKm = new double[BATCH];
+    private final long[] quotesPaise = new long[BATCH];
+    private final BigDecimal[] quotesRupees = new BigDecimal[BATCH];
+    private final long[] surgeBasisPoints = new long[BATCH];
+    private final BigDecimal[] surgeMultipliers = new BigDecimal[BATCH];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(21);
+        for (int i = 0; i < BATCH; i++) {
+            distancesKm[i] = random.nextDouble() * 25;
+            quotesPaise[i] = 2_000 + random.nextInt(500_000);
+            quotesRupees[i] = Money.toRupees(quotesPaise[i]);
+            surgeBasisPoints[i] = Money.BASIS_POINTS + random.nextInt(15_000);
+            surgeMultipliers[i] = BigDecimal.valueOf(surgeBasisPoints[i], 4);
+        }
+    }
+
+    @Benchmark
+    public void rideFareBigDecimal(Blackhole blackhole) {
+        BigDecimal baseFare = BigDecimal.valueOf(50);
+        for (double distance : distancesKm) {
+            BigDecimal totalFare = baseFare.add(BigDecimal.valueOf(distance * 12.0));
+            totalFare = totalFare.multiply(BigDecimal.valueOf(PEAK_MULTIPLIER));
+            blackhole.consume(totalFare.setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Benchmark
+    public void rideFarePaise(Blackhole blackhole) {
+        long baseFare = Money.ofRupees(50);
+        long perKmRate = Money.ofRupees(12);
+        for (double distance : distancesKm) {
+            long totalFare = baseFare + Math.round(distance * perKmRate);
+            blackhole.consume(Money.multiply(totalFare, PEAK_MULTIPLIER));
+        }
+    }
+
+    @Benchmark
+    public void surgeBigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(quotesRupees[i].multiply(surgeMultipliers[i]).setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Benchmark
+    public void surgePaise(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(Money.multiplyBasisPoints(quotesPaise[i], surgeBasisPoints[i]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
\ No newline at end of file
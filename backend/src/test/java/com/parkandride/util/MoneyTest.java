@@ -0,0 +1,71 @@
+package com.parkandride.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void divideMatchesBigDecimalHalfUp() {
+        Random random = new Random(21);
+        for (int i = 0; i < SAMPLES; i++) {
+            long amount = random.nextLong() >> 16;
+            long divisor = 1 + random.nextInt(1_000_000);
+            long expected = BigDecimal.valueOf(amount)
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertEquals(expected, Money.divide(amount, divisor), amount + " / " + divisor);
+        }
+    }
+
+    @Test
+    void divideRoundsTiesAwayFromZero() {
+        assertEquals(3, Money.divide(5, 2));
+        assertEquals(-3, Money.divide(-5, 2));
+        assertEquals(2, Money.divide(7, 4));
+        assertEquals(1, Money.divide(5, 4));
+        assertEquals(0, Money.divide(4, 10));
+    }
+
+    @Test
+    void multiplyMatchesBigDecimalHalfUp() {
+        Random random = new Random(22);
+        for (int i = 0; i < SAMPLES; i++) {
+            long paise = random.nextInt(100_000_000);
+            long basisPoints = random.nextInt(40_000);
+            double factor = basisPoints / (double) Money.BASIS_POINTS;
+            long expected = BigDecimal.valueOf(paise)
+                    .multiply(BigDecimal.valueOf(basisPoints))
+                    .divide(BigDecimal.valueOf(Money.BASIS_POINTS), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertEquals(expected, Money.multiplyBasisPoints(paise, basisPoints), paise + " x " + basisPoints);
+            assertEquals(expected, Money.multiply(paise, factor), paise + " x " + factor);
+        }
+    }
+
+    @Test
+    void fromRupeesRoundsHalfUpToPaise() {
+        assertEquals(1235, Money.fromRupees(new BigDecimal("12.345")));
+        assertEquals(1234, Money.fromRupees(new BigDecimal("12.3449")));
+        assertEquals(-1235, Money.fromRupees(new BigDecimal("-12.345")));
+        assertEquals(5000, Money.fromRupees(new BigDecimal("50")));
+    }
+
+    @Test
+    void rupeesRoundTripThroughPaise() {
+        Random random = new Random(23);
+        for (int i = 0; i < SAMPLES; i++) {
+            long paise = random.nextInt();
+            assertEquals(paise, Money.fromRupees(Money.toRupees(paise)));
+        }
+        assertEquals(new BigDecimal("12.30"), Money.toRupees(1230));
+        assertEquals(Money.ofRupees(75), Money.fromRupees(BigDecimal.valueOf(75)));
+    }
+}
\ No newline at end of file
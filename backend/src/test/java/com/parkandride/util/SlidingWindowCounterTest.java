@@ -0,0 +1,83 @@
+package com.parkandride.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private static final long BUCKET = 1_000;
+    private static final long T0 = 1_792_000_000_000L;
+
+    @Test
+    void sumsEventsInsideTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(4, BUCKET);
+        counter.record(T0);
+        counter.record(T0 + 1_500);
+        counter.record(T0 + 3_999);
+
+        assertEquals(3, counter.sum(T0 + 3_999));
+        assertEquals(4_000, counter.getWindowMillis());
+    }
+
+    @Test
+    void oldBucketsAgeOutOfTheSum() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(4, BUCKET);
+        counter.record(T0);
+        counter.record(T0 + 1_000);
+        counter.record(T0 + 1_000);
+
+        assertEquals(3, counter.sum(T0 + 3_000));
+        assertEquals(2, counter.sum(T0 + 4_000), "the first bucket has left the window");
+        assertEquals(0, counter.sum(T0 + 5_000));
+    }
+
+    @Test
+    void reusedBucketStartsFromZero() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(4, BUCKET);
+        for (int i = 0; i < 5; i++) {
+            counter.record(T0);
+        }
+
+        // Same ring slot, one full turn later
+        counter.record(T0 + 4_000);
+
+        assertEquals(1, counter.sum(T0 + 4_000));
+    }
+
+    @Test
+    void idleGapsLongerThanTheWindowLeaveNothingBehind() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(4, BUCKET);
+        counter.record(T0);
+        counter.record(T0 + 2_000);
+
+        counter.record(T0 + 60_000);
+
+        assertEquals(1, counter.sum(T0 + 60_000));
+    }
+
+    @Test
+    void concurrentRecordsInOneBucketAreAllCounted() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(4, BUCKET);
+        counter.record(T0);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.record(T0 + 500);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_001, counter.sum(T0 + 500));
+    }
+}
\ No newline at end of file